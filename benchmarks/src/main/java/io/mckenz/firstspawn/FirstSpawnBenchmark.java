@@ -0,0 +1,82 @@
+package io.mckenz.firstspawn;
+
+import io.mckenz.firstspawn.benchmarks.BenchmarkPlugin;
+import io.mckenz.firstspawn.benchmarks.StubServer;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of sending a player to first spawn: spawn point selection, both events,
+ * the teleport, the bed spawn, the ledger write and the welcome message
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FirstSpawnBenchmark {
+    
+    // Power of two, so picking the next player is a mask
+    private static final int PLAYER_COUNT = 1024;
+    
+    /**
+     * Listeners registered for each first spawn event, standing in for other plugins
+     */
+    @Param({"0", "4"})
+    public int listeners;
+    
+    private BenchmarkPlugin plugin;
+    private Player[] players;
+    private int next;
+    
+    /**
+     * Enables the plugin and joins the players
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        plugin = BenchmarkPlugin.start(false);
+        plugin.addSpawnListeners(listeners);
+        players = new Player[PLAYER_COUNT];
+        for (int i = 0; i < PLAYER_COUNT; i++) {
+            players[i] = StubServer.get().createPlayer("Player" + i);
+        }
+        StubServer.get().join(Arrays.asList(players));
+    }
+    
+    /**
+     * Disables the plugin and removes the players
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        plugin.stop();
+        StubServer.get().clearPlayers();
+    }
+    
+    /**
+     * Sends the next player to first spawn
+     * 
+     * @return Whether the teleport succeeded
+     */
+    @Benchmark
+    public boolean teleportToFirstSpawn() {
+        Player player = players[next++ & (PLAYER_COUNT - 1)];
+        return plugin.teleportToFirstSpawn(player, true, true, true);
+    }
+}
@@ -0,0 +1,100 @@
+package io.mckenz.firstspawn.api.events;
+
+import io.mckenz.firstspawn.benchmarks.BenchmarkPlugin;
+import io.mckenz.firstspawn.benchmarks.StubServer;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the first spawn events and running them through the plugin manager
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+    
+    /**
+     * Listeners registered for each first spawn event
+     */
+    @Param({"0", "1", "4"})
+    public int listeners;
+    
+    private BenchmarkPlugin plugin;
+    private PluginManager pluginManager;
+    private Player player;
+    private Location location;
+    
+    /**
+     * Enables the plugin and registers the listeners
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        plugin = BenchmarkPlugin.start(false);
+        plugin.addSpawnListeners(listeners);
+        pluginManager = StubServer.get().getPluginManager();
+        player = StubServer.get().createPlayer("Player");
+        location = new Location(StubServer.get().getWorld(), 0.5, 64, 0.5);
+    }
+    
+    /**
+     * Disables the plugin
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        plugin.stop();
+    }
+    
+    /**
+     * Builds the pre-teleport event without firing it
+     * 
+     * @return The event
+     */
+    @Benchmark
+    public PlayerFirstSpawnEvent constructSpawnEvent() {
+        return new PlayerFirstSpawnEvent(player, location, true);
+    }
+    
+    /**
+     * Builds and fires the pre-teleport event
+     * 
+     * @return The event
+     */
+    @Benchmark
+    public PlayerFirstSpawnEvent dispatchSpawnEvent() {
+        PlayerFirstSpawnEvent event = new PlayerFirstSpawnEvent(player, location, true);
+        pluginManager.callEvent(event);
+        return event;
+    }
+    
+    /**
+     * Builds and fires the post-teleport event
+     * 
+     * @return The event
+     */
+    @Benchmark
+    public PlayerFirstSpawnedEvent dispatchSpawnedEvent() {
+        PlayerFirstSpawnedEvent event = new PlayerFirstSpawnedEvent(player, location, true, true);
+        pluginManager.callEvent(event);
+        return event;
+    }
+}
@@ -0,0 +1,150 @@
+package io.mckenz.firstspawn.benchmarks;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.api.events.PlayerFirstSpawnEvent;
+import io.mckenz.firstspawn.api.events.PlayerFirstSpawnedEvent;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.scheduler.VirtualTaskScheduler;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * FirstSpawn enabled against the {@link StubServer}, with a temporary data folder and a
+ * configuration that turns off everything needing chunks or the network
+ */
+public final class BenchmarkPlugin extends FirstSpawn {
+    
+    /**
+     * Configuration used by every benchmark: a single spawn point, no chunk tickets, safe spawn
+     * search, admission queue, network store or update check, and a personalized welcome
+     */
+    public static final String CONFIG = String.join("\n",
+        "enabled: true",
+        "firstSpawn:",
+        "  world: " + StubServer.WORLD_NAME,
+        "  x: 0.5",
+        "  y: 64",
+        "  z: 0.5",
+        "  set-bed-spawn: true",
+        "  pre-place: true",
+        "spawn-chunks:",
+        "  enabled: false",
+        "safe-spawn:",
+        "  enabled: false",
+        "admission:",
+        "  enabled: false",
+        "network:",
+        "  enabled: false",
+        "update-checker:",
+        "  enabled: false",
+        "welcome-message: \"&aWelcome {player}! You are new player #{first_join_number}.\"",
+        "");
+    
+    private final Path dataFolder;
+    private final VirtualTaskScheduler scheduler;
+    
+    private BenchmarkPlugin(StubServer server, Path dataFolder, VirtualTaskScheduler scheduler) {
+        super(new JavaPluginLoader(server.getServer()),
+            new PluginDescriptionFile("FirstSpawn", "benchmark", FirstSpawn.class.getName()),
+            dataFolder.toFile(), dataFolder.resolve("FirstSpawn.jar").toFile());
+        this.dataFolder = dataFolder;
+        this.scheduler = scheduler;
+    }
+    
+    /**
+     * Creates and enables the plugin
+     * 
+     * @param folia Whether the virtual scheduler should report Folia, to take the Folia code paths
+     * @return The enabled plugin
+     */
+    public static BenchmarkPlugin start(boolean folia) {
+        StubServer server = StubServer.get();
+        VirtualTaskScheduler scheduler = new VirtualTaskScheduler(folia);
+        SchedulerUtil.setScheduler(scheduler);
+        try {
+            Path dataFolder = Files.createTempDirectory("firstspawn-bench");
+            Files.writeString(dataFolder.resolve("config.yml"), CONFIG);
+            BenchmarkPlugin plugin = new BenchmarkPlugin(server, dataFolder, scheduler);
+            plugin.setEnabled(true);
+            return plugin;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Gets the virtual scheduler the plugin's tasks are queued on
+     * 
+     * @return The scheduler, advanced only when a benchmark ticks it
+     */
+    public VirtualTaskScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Registers listeners for both first spawn events, standing in for other plugins
+     * 
+     * @param count The number of listeners to register
+     */
+    public void addSpawnListeners(int count) {
+        for (int i = 0; i < count; i++) {
+            getServer().getPluginManager().registerEvents(new SpawnListener(), this);
+        }
+    }
+    
+    /**
+     * Disables the plugin, removes its listeners and deletes its data folder
+     */
+    public void stop() {
+        setEnabled(false);
+        HandlerList.unregisterAll(this);
+        SchedulerUtil.setScheduler(null);
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * A listener doing the minimum a real listener would: reading the event
+     */
+    public static final class SpawnListener implements Listener {
+        private int seen;
+        
+        /**
+         * Handles the pre-teleport event
+         * 
+         * @param event The event
+         */
+        @EventHandler
+        public void onFirstSpawn(PlayerFirstSpawnEvent event) {
+            if (event.isFirstJoin()) {
+                seen++;
+            }
+        }
+        
+        /**
+         * Handles the post-teleport event
+         * 
+         * @param event The event
+         */
+        @EventHandler
+        public void onFirstSpawned(PlayerFirstSpawnedEvent event) {
+            if (event.isWelcomeMessageSent()) {
+                seen++;
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package io.mckenz.firstspawn.benchmarks;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.PluginManager;
+import org.spigotmc.event.player.PlayerSpawnLocationEvent;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Join storm load test and regression gate.
+ * Thousands of new players join through the plugin's own PlayerJoinListener, arriving a wave per
+ * tick, with and without extra first spawn listeners and on both a Bukkit and a Folia virtual
+ * scheduler. Each scenario reports throughput, per-join latency percentiles and bytes allocated per
+ * join, and the run fails when any of them is worse than the committed baseline by more than its
+ * tolerance. Metrics without a baseline are listed but not checked. Bound to the verify phase of the
+ * benchmarks module, which the root build's {@code join-storm} profile runs against the freshly built plugin.
+ */
+public final class JoinStorm {
+    
+    private static final int DEFAULT_JOINS = 5000;
+    private static final int DEFAULT_WARMUP = 2000;
+    private static final int DEFAULT_PER_TICK = 50;
+    private static final double DEFAULT_TOLERANCE = 0.25;
+    
+    // Ticks run after the storm so spawns handed to entity schedulers finish before checking
+    private static final int DRAIN_TICKS = 40;
+    
+    private static final Scenario[] SCENARIOS = {
+        new Scenario("bukkit", false, 0),
+        new Scenario("bukkit-listeners", false, 4),
+        new Scenario("folia", true, 0),
+        new Scenario("folia-listeners", true, 4)
+    };
+    
+    private JoinStorm() {
+    }
+    
+    /**
+     * Runs every scenario and compares the results with the baseline
+     * 
+     * @param args {@code --joins N}, {@code --warmup N}, {@code --per-tick N}, {@code --baseline FILE},
+     *             {@code --result FILE} and {@code --record}, which writes the results as the new baseline
+     * @throws IOException If the baseline or result file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        int joins = DEFAULT_JOINS;
+        int warmup = DEFAULT_WARMUP;
+        int perTick = DEFAULT_PER_TICK;
+        Path baselineFile = Path.of("join-storm-baseline.properties");
+        Path resultFile = Path.of("join-storm-result.properties");
+        boolean record = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--joins" -> joins = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--per-tick" -> perTick = Math.max(1, Integer.parseInt(args[++i]));
+                case "--baseline" -> baselineFile = Path.of(args[++i]);
+                case "--result" -> resultFile = Path.of(args[++i]);
+                case "--record" -> record = true;
+                default -> {
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+        
+        Properties results = new Properties();
+        for (Scenario scenario : SCENARIOS) {
+            Result result = run(scenario, joins, warmup, perTick);
+            System.out.println(result.describe());
+            result.store(results);
+        }
+        store(results, resultFile, "Join storm results");
+        
+        Properties baseline = load(baselineFile);
+        if (record) {
+            results.setProperty("tolerance", baseline.getProperty("tolerance", String.valueOf(DEFAULT_TOLERANCE)));
+            store(results, baselineFile, "Join storm baseline, recorded with --record");
+            System.out.println("Recorded baseline to " + baselineFile);
+            return;
+        }
+        
+        List<String> unchecked = new ArrayList<>();
+        List<String> regressions = compare(results, baseline, unchecked);
+        if (!unchecked.isEmpty()) {
+            System.out.println("No baseline in " + baselineFile + " for " + unchecked.size()
+                + " metrics, record one on the reference machine with --record:");
+            unchecked.forEach(metric -> System.out.println("  " + metric));
+        }
+        if (!regressions.isEmpty()) {
+            System.err.println("Join storm regressed past " + baselineFile + ":");
+            regressions.forEach(regression -> System.err.println("  " + regression));
+            System.exit(1);
+        }
+        System.out.println("Join storm within baseline");
+    }
+    
+    /**
+     * Runs a warmup storm then a measured storm on a freshly enabled plugin
+     */
+    private static Result run(Scenario scenario, int joins, int warmup, int perTick) {
+        BenchmarkPlugin plugin = BenchmarkPlugin.start(scenario.folia());
+        try {
+            plugin.addSpawnListeners(scenario.listeners());
+            storm(plugin, createPlayers("Warmup", warmup), perTick, null);
+            
+            Player[] players = createPlayers("Player", joins);
+            long[] latencies = new long[joins];
+            com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long successesBefore = plugin.getSpawnMetrics().getSuccesses();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            storm(plugin, players, perTick, latencies);
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            
+            long spawned = plugin.getSpawnMetrics().getSuccesses() - successesBefore;
+            if (spawned != joins) {
+                throw new IllegalStateException(scenario.name() + ": only " + spawned + " of " + joins +
+                    " players were sent to first spawn");
+            }
+            
+            Arrays.sort(latencies);
+            return new Result(scenario.name(), joins * 1_000_000_000.0 / elapsed,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies[joins - 1] / 1000.0, (double) allocated / joins);
+        } finally {
+            plugin.stop();
+        }
+    }
+    
+    /**
+     * Joins players a wave per tick, each through the spawn-location and join events, then drains
+     * the scheduler
+     * 
+     * @param latencies Filled with each join's time in nanoseconds, or null to skip timing: its own
+     *                  event handling plus the whole tick that finishes its wave, as no player in a
+     *                  wave is placed before that tick's tasks have run
+     */
+    private static void storm(BenchmarkPlugin plugin, Player[] players, int perTick, long[] latencies) {
+        PluginManager pluginManager = StubServer.get().getPluginManager();
+        Location worldSpawn = StubServer.get().getWorld().getSpawnLocation();
+        int waveStart = 0;
+        for (int i = 0; i < players.length; i++) {
+            Player player = players[i];
+            long joinStart = System.nanoTime();
+            pluginManager.callEvent(new PlayerSpawnLocationEvent(player, worldSpawn));
+            pluginManager.callEvent(new PlayerJoinEvent(player, null));
+            if (latencies != null) {
+                latencies[i] = System.nanoTime() - joinStart;
+            }
+            if ((i + 1) % perTick == 0 || i == players.length - 1) {
+                tick(plugin, latencies, waveStart, i + 1);
+                waveStart = i + 1;
+            }
+        }
+        plugin.getScheduler().advance(DRAIN_TICKS);
+    }
+    
+    /**
+     * Runs one tick and charges its time to every join of the wave it finishes
+     */
+    private static void tick(BenchmarkPlugin plugin, long[] latencies, int from, int to) {
+        long tickStart = System.nanoTime();
+        plugin.getScheduler().tick();
+        if (latencies != null) {
+            long tickTime = System.nanoTime() - tickStart;
+            for (int i = from; i < to; i++) {
+                latencies[i] += tickTime;
+            }
+        }
+    }
+    
+    private static Player[] createPlayers(String prefix, int count) {
+        Player[] players = new Player[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = StubServer.get().createPlayer(prefix + i);
+        }
+        return players;
+    }
+    
+    /**
+     * Gets a percentile of sorted nanosecond latencies, in microseconds
+     */
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000.0;
+    }
+    
+    /**
+     * Lists every metric worse than its baseline by more than the tolerance
+     * 
+     * @param unchecked Receives the metrics missing from the baseline, which are not checked
+     */
+    private static List<String> compare(Properties results, Properties baseline, List<String> unchecked) {
+        double tolerance = Double.parseDouble(baseline.getProperty("tolerance", String.valueOf(DEFAULT_TOLERANCE)));
+        List<String> regressions = new ArrayList<>();
+        for (String key : results.stringPropertyNames()) {
+            if (key.endsWith(".max-us")) {
+                continue;
+            }
+            String expected = baseline.getProperty(key);
+            if (expected == null) {
+                unchecked.add(key + ": " + results.getProperty(key));
+                continue;
+            }
+            double actual = Double.parseDouble(results.getProperty(key));
+            double limit = Double.parseDouble(expected);
+            boolean higherIsBetter = key.endsWith(".joins-per-second");
+            boolean regressed = higherIsBetter ? actual < limit * (1 - tolerance) : actual > limit * (1 + tolerance);
+            if (regressed) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.1f, baseline %.1f (tolerance %.0f%%)",
+                    key, actual, limit, tolerance * 100));
+            }
+        }
+        regressions.sort(null);
+        unchecked.sort(null);
+        return regressions;
+    }
+    
+    private static Properties load(Path file) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            }
+        }
+        return properties;
+    }
+    
+    private static void store(Properties properties, Path file, String comment) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, comment);
+        }
+    }
+    
+    /**
+     * A combination of scheduler and listener count to storm
+     */
+    private record Scenario(String name, boolean folia, int listeners) {
+    }
+    
+    /**
+     * The measurements of one scenario, latencies in microseconds
+     */
+    private record Result(String scenario, double joinsPerSecond, double p50, double p99, double p999,
+                          double max, double bytesPerJoin) {
+        
+        /**
+         * Formats the result as a report line
+         */
+        String describe() {
+            return String.format(Locale.ROOT,
+                "%-17s %9.0f joins/s  p50 %7.1fus  p99 %7.1fus  p99.9 %8.1fus  max %9.1fus  %8.0f B/join",
+                scenario, joinsPerSecond, p50, p99, p999, max, bytesPerJoin);
+        }
+        
+        /**
+         * Adds the metrics to a properties file, keyed by scenario
+         */
+        void store(Properties properties) {
+            properties.setProperty(scenario + ".joins-per-second", format(joinsPerSecond));
+            properties.setProperty(scenario + ".p50-us", format(p50));
+            properties.setProperty(scenario + ".p99-us", format(p99));
+            properties.setProperty(scenario + ".p999-us", format(p999));
+            properties.setProperty(scenario + ".max-us", format(max));
+            properties.setProperty(scenario + ".bytes-per-join", format(bytesPerJoin));
+        }
+        
+        private static String format(double value) {
+            return String.format(Locale.ROOT, "%.1f", value);
+        }
+    }
+}
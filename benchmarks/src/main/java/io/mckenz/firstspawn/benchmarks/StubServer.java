@@ -0,0 +1,291 @@
+package io.mckenz.firstspawn.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.SimplePluginManager;
+import org.bukkit.plugin.SimpleServicesManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A minimal in-process server for benchmarks.
+ * Server, world and players are dynamic proxies answering only what FirstSpawn asks of them,
+ * while events go through the real {@link SimplePluginManager} so listener dispatch is measured
+ * as it runs on a server. Every other method returns a zero, false, null or empty value.
+ */
+public final class StubServer {
+    
+    /**
+     * Name of the only world
+     */
+    public static final String WORLD_NAME = "world";
+    
+    private static StubServer instance;
+    
+    private final Logger logger = Logger.getLogger("StubServer");
+    private final List<Player> onlinePlayers = new CopyOnWriteArrayList<>();
+    private final Server server;
+    private final World world;
+    private final PluginManager pluginManager;
+    private final SimpleServicesManager servicesManager = new SimpleServicesManager();
+    
+    private StubServer() {
+        logger.setLevel(Level.WARNING);
+        server = proxy(Server.class, this::handleServer);
+        world = proxy(World.class, new WorldHandler(UUID.randomUUID()));
+        pluginManager = new SimplePluginManager(server, new SimpleCommandMap(server));
+        Bukkit.setServer(server);
+    }
+    
+    /**
+     * Gets the stub server, installing it as the Bukkit server on first use
+     * 
+     * @return The stub server
+     */
+    public static synchronized StubServer get() {
+        if (instance == null) {
+            instance = new StubServer();
+        }
+        return instance;
+    }
+    
+    /**
+     * Gets the server proxy
+     * 
+     * @return The server
+     */
+    public Server getServer() {
+        return server;
+    }
+    
+    /**
+     * Gets the only world
+     * 
+     * @return The world
+     */
+    public World getWorld() {
+        return world;
+    }
+    
+    /**
+     * Gets the plugin manager events are dispatched through
+     * 
+     * @return The plugin manager
+     */
+    public PluginManager getPluginManager() {
+        return pluginManager;
+    }
+    
+    /**
+     * Creates a player standing at the world spawn, without adding it to the online players
+     * 
+     * @param name The player's name
+     * @return The player
+     */
+    public Player createPlayer(String name) {
+        return proxy(Player.class, new PlayerHandler(name, UUID.randomUUID(), new Location(world, 0.5, 64, 0.5)));
+    }
+    
+    /**
+     * Adds players to the online player list
+     * 
+     * @param players The players who joined
+     */
+    public void join(Collection<Player> players) {
+        onlinePlayers.addAll(players);
+    }
+    
+    /**
+     * Removes every online player
+     */
+    public void clearPlayers() {
+        onlinePlayers.clear();
+    }
+    
+    private Object handleServer(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getLogger":
+                return logger;
+            case "getName":
+                return "StubServer";
+            case "getVersion":
+            case "getBukkitVersion":
+                return "1.21.11-R0.1-SNAPSHOT";
+            case "getPluginManager":
+                return pluginManager;
+            case "getServicesManager":
+                return servicesManager;
+            case "getOnlinePlayers":
+                return onlinePlayers;
+            case "getWorlds":
+                return List.of(world);
+            case "getWorld":
+                return args[0].equals(WORLD_NAME) || args[0].equals(world.getUID()) ? world : null;
+            case "getPlayer":
+                for (Player player : onlinePlayers) {
+                    if (args[0].equals(player.getUniqueId()) || args[0].equals(player.getName())) {
+                        return player;
+                    }
+                }
+                return null;
+            case "getMaxPlayers":
+                return 1000;
+            case "isPrimaryThread":
+                return true;
+            default:
+                return defaultValue(proxy, method, args);
+        }
+    }
+    
+    /**
+     * Answers calls on the world proxy
+     */
+    private final class WorldHandler implements InvocationHandler {
+        private final UUID id;
+        
+        private WorldHandler(UUID id) {
+            this.id = id;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "getName":
+                    return WORLD_NAME;
+                case "getUID":
+                    return id;
+                case "getMinHeight":
+                    return -64;
+                case "getMaxHeight":
+                    return 320;
+                case "getSpawnLocation":
+                    return new Location((World) proxy, 0.5, 64, 0.5);
+                case "getPlayers":
+                    return List.copyOf(onlinePlayers);
+                case "isChunkLoaded":
+                    return true;
+                default:
+                    return defaultValue(proxy, method, args);
+            }
+        }
+    }
+    
+    /**
+     * Answers calls on a player proxy, tracking the player's location across teleports
+     */
+    private final class PlayerHandler implements InvocationHandler {
+        private final String name;
+        private final UUID id;
+        private Location location;
+        
+        private PlayerHandler(String name, UUID id, Location location) {
+            this.name = name;
+            this.id = id;
+            this.location = location;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "getName":
+                case "getDisplayName":
+                    return name;
+                case "getUniqueId":
+                    return id;
+                case "getLocale":
+                    return "en_us";
+                case "getServer":
+                    return server;
+                case "getWorld":
+                    return location.getWorld();
+                case "getLocation":
+                    return location.clone();
+                case "teleport":
+                    if (args[0] instanceof Location target) {
+                        location = target.clone();
+                        return true;
+                    }
+                    return false;
+                case "isOnline":
+                case "isValid":
+                    return true;
+                case "spigot":
+                    return new Player.Spigot();
+                case "hashCode":
+                    return id.hashCode();
+                case "toString":
+                    return "StubPlayer{" + name + "}";
+                default:
+                    return defaultValue(proxy, method, args);
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubServer.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+    
+    private static Object defaultValue(Object proxy, Method method, Object[] args) {
+        Class<?> type = method.getReturnType();
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Stub" + method.getDeclaringClass().getSimpleName();
+            default:
+                break;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == List.class || type == Collection.class) {
+            return List.of();
+        }
+        if (type == Set.class) {
+            return Set.of();
+        }
+        if (type == Map.class) {
+            return Map.of();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package io.mckenz.firstspawn.util;
+
+import io.mckenz.firstspawn.benchmarks.StubServer;
+
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of formatting a location for chat and for the log
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationFormatterBenchmark {
+    
+    private Location location;
+    
+    /**
+     * Creates the location to format
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        location = new Location(StubServer.get().getWorld(), -115.5, 65.0, -60.5);
+    }
+    
+    /**
+     * Formats with color codes, as shown in /firstspawn status
+     * 
+     * @return The formatted location
+     */
+    @Benchmark
+    public String formatLocation() {
+        return LocationFormatter.formatLocation(location);
+    }
+    
+    /**
+     * Formats without color codes, as written to debug logs
+     * 
+     * @return The formatted location
+     */
+    @Benchmark
+    public String formatLocationRaw() {
+        return LocationFormatter.formatLocationRaw(location);
+    }
+}
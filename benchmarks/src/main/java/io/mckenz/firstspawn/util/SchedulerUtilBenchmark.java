@@ -0,0 +1,116 @@
+package io.mckenz.firstspawn.util;
+
+import io.mckenz.firstspawn.benchmarks.StubServer;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+import io.mckenz.firstspawn.util.scheduler.VirtualTaskScheduler;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of dispatching work through the {@link SchedulerUtil} facade, on a virtual scheduler
+ * reporting either Bukkit or Folia, against running the same task directly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerUtilBenchmark {
+    
+    /**
+     * Whether the scheduler reports Folia
+     */
+    @Param({"false", "true"})
+    public boolean folia;
+    
+    private VirtualTaskScheduler scheduler;
+    private Player player;
+    private Location location;
+    private Runnable task;
+    private int runs;
+    
+    /**
+     * Installs the virtual scheduler
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = new VirtualTaskScheduler(folia);
+        SchedulerUtil.setScheduler(scheduler);
+        player = StubServer.get().createPlayer("Player");
+        location = new Location(StubServer.get().getWorld(), 0.5, 64, 0.5);
+        task = () -> runs++;
+    }
+    
+    /**
+     * Restores platform detection
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SchedulerUtil.setScheduler(null);
+    }
+    
+    /**
+     * Baseline: runs the task without any scheduler
+     * 
+     * @return The number of runs so far
+     */
+    @Benchmark
+    public int direct() {
+        task.run();
+        return runs;
+    }
+    
+    /**
+     * Looks up the platform, as done before every Folia-specific branch
+     * 
+     * @return Whether the scheduler reports Folia
+     */
+    @Benchmark
+    public boolean isFolia() {
+        return SchedulerUtil.isFolia();
+    }
+    
+    /**
+     * Schedules the task on the player's scheduler and runs it on the next tick
+     * 
+     * @param blackhole Consumes the scheduled task
+     * @return The number of tasks run
+     */
+    @Benchmark
+    public int runForEntity(Blackhole blackhole) {
+        ScheduledTask scheduled = SchedulerUtil.runDelayed(null, task, 0L, player);
+        blackhole.consume(scheduled);
+        return scheduler.tick();
+    }
+    
+    /**
+     * Schedules the task on the region owning a location and runs it on the next tick
+     * 
+     * @param blackhole Consumes the scheduled task
+     * @return The number of tasks run
+     */
+    @Benchmark
+    public int runAtLocation(Blackhole blackhole) {
+        ScheduledTask scheduled = SchedulerUtil.runAtLocation(null, location, task);
+        blackhole.consume(scheduled);
+        return scheduler.tick();
+    }
+}
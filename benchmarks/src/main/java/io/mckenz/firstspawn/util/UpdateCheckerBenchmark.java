@@ -0,0 +1,42 @@
+package io.mckenz.firstspawn.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of normalizing version strings before comparing them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateCheckerBenchmark {
+    
+    /**
+     * Version strings as found on SpigotMC and in plugin.yml
+     */
+    @Param({"1.3.1", "v1.3", "vv1.3.1-SNAPSHOT"})
+    public String version;
+    
+    /**
+     * Normalizes the version
+     * 
+     * @return The normalized version
+     */
+    @Benchmark
+    public String normalizeVersion() {
+        return UpdateChecker.normalizeVersion(version);
+    }
+}
@@ -1,45 +1,169 @@
 package io.mckenz.firstspawn;
 
+import io.mckenz.firstspawn.api.FirstJoinInfo;
+import io.mckenz.firstspawn.api.FirstJoinStore;
 import io.mckenz.firstspawn.api.FirstSpawnAPI;
+import io.mckenz.firstspawn.api.SpawnPoint;
+import io.mckenz.firstspawn.api.SpawnStrategy;
+import io.mckenz.firstspawn.api.events.PlayerFirstSpawnBatchEvent;
 import io.mckenz.firstspawn.api.events.PlayerFirstSpawnEvent;
 import io.mckenz.firstspawn.api.events.PlayerFirstSpawnedEvent;
 import io.mckenz.firstspawn.commands.FirstSpawnCommand;
+import io.mckenz.firstspawn.listeners.BlockChangeListener;
 import io.mckenz.firstspawn.listeners.PlayerJoinListener;
+import io.mckenz.firstspawn.message.MessageTemplate;
+import io.mckenz.firstspawn.message.WelcomeMessage;
+import io.mckenz.firstspawn.message.WelcomeMessages;
+import io.mckenz.firstspawn.metrics.PrometheusExporter;
+import io.mckenz.firstspawn.metrics.SpawnMetrics;
+import io.mckenz.firstspawn.metrics.SpawnTrace;
+import io.mckenz.firstspawn.metrics.SpawnTraceBuffer;
+import io.mckenz.firstspawn.spawn.BulkSpawnDispatcher;
+import io.mckenz.firstspawn.spawn.ChunkPregenerator;
+import io.mckenz.firstspawn.spawn.FirstSpawnQueue;
+import io.mckenz.firstspawn.spawn.OnboardingPipeline;
+import io.mckenz.firstspawn.spawn.RegionSpawnPool;
+import io.mckenz.firstspawn.spawn.SafeLocationResolver;
+import io.mckenz.firstspawn.spawn.SpawnBatcher;
+import io.mckenz.firstspawn.spawn.SpawnChunkKeeper;
+import io.mckenz.firstspawn.spawn.SpawnPointPool;
+import io.mckenz.firstspawn.spawn.SpawnRules;
+import io.mckenz.firstspawn.storage.FirstJoinLedger;
+import io.mckenz.firstspawn.storage.FirstJoinRegistry;
+import io.mckenz.firstspawn.storage.PlayerDataImporter;
+import io.mckenz.firstspawn.storage.SpawnAuditLog;
+import io.mckenz.firstspawn.storage.SharedFileFirstJoinStore;
+import io.mckenz.firstspawn.storage.SqliteFirstJoinStore;
+import io.mckenz.firstspawn.util.ConfigWriter;
 import io.mckenz.firstspawn.util.LocationFormatter;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.TickMonitor;
 import io.mckenz.firstspawn.util.UpdateChecker;
 
 import org.bukkit.Location;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
+import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Main class for the FirstSpawn plugin
  */
 public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
-    private Location firstSpawnLocation;
+    private static final int DEFAULT_TRACE_SIZE = 128;
+    
+    // Everything a join reads, published as a whole so Folia region threads never see a partial reload
+    private final AtomicReference<SpawnSettings> settings = new AtomicReference<>(SpawnSettings.DEFAULTS);
     private FileConfiguration config;
-    private boolean enabled;
-    private boolean debug;
-    private String welcomeMessage;
-    private boolean setBedSpawn;
-    private UpdateChecker updateChecker;
-
+    private ConfigWriter configWriter;
+    private volatile boolean debug;
+    private volatile UpdateChecker updateChecker;
+    private SpawnChunkKeeper spawnChunkKeeper;
+    private SpawnPointPool spawnPointPool;
+    private SpawnRules spawnRules;
+    private SafeLocationResolver safeLocationResolver;
+    private RegionSpawnPool regionSpawnPool;
+    private TickMonitor tickMonitor;
+    private FirstSpawnQueue firstSpawnQueue;
+    private BulkSpawnDispatcher bulkSpawnDispatcher;
+    private SpawnBatcher spawnBatcher;
+    private OnboardingPipeline onboardingPipeline;
+    private ChunkPregenerator chunkPregenerator;
+    private PlayerDataImporter playerDataImporter;
+    private final SpawnMetrics spawnMetrics = new SpawnMetrics();
+    private PrometheusExporter prometheusExporter;
+    private volatile SpawnTraceBuffer spawnTraces = new SpawnTraceBuffer(DEFAULT_TRACE_SIZE);
+    private FirstJoinLedger firstJoinLedger;
+    private volatile SpawnAuditLog spawnAuditLog;
+    private FirstJoinRegistry firstJoinRegistry;
+    private FirstJoinStore customFirstJoinStore;
+    
+    /**
+     * Creates the plugin, called by the server's plugin loader
+     */
+    public FirstSpawn() {
+        super();
+    }
+    
+    /**
+     * Creates the plugin outside a server's plugin loader, for benchmarks against a stub server
+     * 
+     * @param loader The plugin loader
+     * @param description The plugin description
+     * @param dataFolder The folder to keep configuration and data in
+     * @param file The plugin's jar file
+     */
+    protected FirstSpawn(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
+    
     @Override
     public void onEnable() {
         // Save default config if it doesn't exist
         saveDefaultConfig();
+        configWriter = new ConfigWriter(this, this::getConfig, new File(getDataFolder(), "config.yml"), 1000L);
+        spawnChunkKeeper = new SpawnChunkKeeper(this);
+        spawnPointPool = new SpawnPointPool(this);
+        spawnPointPool.start();
+        spawnRules = new SpawnRules(getLogger());
+        safeLocationResolver = new SafeLocationResolver(this);
+        regionSpawnPool = new RegionSpawnPool(this);
+        tickMonitor = new TickMonitor(this);
+        firstSpawnQueue = new FirstSpawnQueue(this, tickMonitor);
+        bulkSpawnDispatcher = new BulkSpawnDispatcher(this);
+        spawnBatcher = new SpawnBatcher(this);
+        onboardingPipeline = new OnboardingPipeline(this);
+        chunkPregenerator = new ChunkPregenerator(this, tickMonitor);
+        playerDataImporter = new PlayerDataImporter(this);
+        spawnMetrics.register(getLogger());
+        prometheusExporter = new PrometheusExporter(this);
+        try {
+            firstJoinLedger = new FirstJoinLedger(getDataFolder().toPath().resolve("data"), getLogger());
+        } catch (IOException e) {
+            getLogger().warning("Failed to open first join ledger, falling back to player data: " + e.getMessage());
+        }
         loadConfig();
+        if (getConfig().getBoolean("audit-log.enabled", true)) {
+            try {
+                spawnAuditLog = new SpawnAuditLog(getDataFolder().toPath().resolve("history"), getLogger(), 
+                        getConfig().getBoolean("audit-log.compress", true));
+            } catch (IOException e) {
+                getLogger().warning("Failed to open first spawn history: " + e.getMessage());
+            }
+        }
         
         // Register events
         getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
+        getServer().getPluginManager().registerEvents(new BlockChangeListener(safeLocationResolver, regionSpawnPool), this);
         
         // Register commands
         FirstSpawnCommand commandExecutor = new FirstSpawnCommand(this);
-        getCommand("firstspawn").setExecutor(commandExecutor);
-        getCommand("firstspawn").setTabCompleter(commandExecutor);
+        PluginCommand command = getCommand("firstspawn");
+        if (command != null) {
+            command.setExecutor(commandExecutor);
+            command.setTabCompleter(commandExecutor);
+        }
         
         // Register API
         getServer().getServicesManager().register(
@@ -53,38 +177,151 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
         if (config.getBoolean("update-checker.enabled", true)) {
             int resourceId = config.getInt("update-checker.resource-id", 122818);
             boolean notifyAdmins = config.getBoolean("update-checker.notify-admins", true);
+            String endpoint = config.getString("update-checker.endpoint", UpdateChecker.DEFAULT_ENDPOINT);
+            Duration cacheTime = Duration.ofMinutes(Math.max(0, config.getLong("update-checker.cache-minutes", 360)));
+            Duration timeout = Duration.ofSeconds(Math.max(1, config.getLong("update-checker.timeout-seconds", 5)));
             
-            updateChecker = new UpdateChecker(this, resourceId, notifyAdmins);
-            updateChecker.checkForUpdates();
-            logDebug("Update checker initialized with resource ID: " + resourceId);
+            try {
+                updateChecker = new UpdateChecker(this, resourceId, notifyAdmins, endpoint, cacheTime, timeout);
+                updateChecker.checkForUpdates();
+                logDebug("Update checker initialized with resource ID: " + resourceId);
+            } catch (IllegalArgumentException e) {
+                getLogger().warning("Invalid update-checker endpoint '" + endpoint + "': " + e.getMessage());
+            }
         }
         
+        // Pick up a pregeneration job interrupted by a restart once the server has settled
+        SchedulerUtil.runDelayedGlobal(this, chunkPregenerator::resume, 100L);
+        
         getLogger().info("FirstSpawn has been enabled!");
         logDebug("Debug mode is enabled");
     }
-
+    
     /**
      * Loads configuration from config.yml
      */
     public void loadConfig() {
         reloadConfig();
         config = getConfig();
-        enabled = config.getBoolean("enabled", true);
+        
+        // Put back changes that were made in game but are not on disk yet
+        configWriter.reloaded();
+        configWriter.setDelayMillis(config.getLong("config-save-delay", 1000L));
         debug = config.getBoolean("debug", false);
-        welcomeMessage = config.getString("welcome-message", "");
-        setBedSpawn = config.getBoolean("firstSpawn.set-bed-spawn", true);
-
+        int traceSize = Math.max(1, config.getInt("trace-size", DEFAULT_TRACE_SIZE));
+        if (spawnTraces.getCapacity() < traceSize || spawnTraces.getCapacity() >= traceSize * 2) {
+            spawnTraces = new SpawnTraceBuffer(traceSize);
+        }
+        String welcomeMessage = config.getString("welcome-message", "");
+        SpawnSettings loaded = new SpawnSettings(
+            config.getBoolean("enabled", true),
+            loadSpawnLocation(),
+            welcomeMessage,
+            WelcomeMessages.load(welcomeMessage, config.getConfigurationSection("welcome"), 
+                    new File(getDataFolder(), "locales"), getLogger()),
+            config.getBoolean("firstSpawn.set-bed-spawn", true),
+            config.getBoolean("firstSpawn.pre-place", true),
+            config.getBoolean("first-join.trust-vanilla", true),
+            config.getLong("network.lookup-timeout", 2000L)
+        );
+        settings.set(loaded);
+        logDebug(() -> "Set bed spawn: " + (loaded.setBedSpawn() ? "enabled" : "disabled"));
+        logDebug(() -> "Pre-placement: " + (loaded.prePlace() ? "enabled" : "disabled"));
+        spawnChunkKeeper.loadConfig(config);
+        firstSpawnQueue.loadConfig(config);
+        bulkSpawnDispatcher.loadConfig(config);
+        onboardingPipeline.loadConfig(config);
+        safeLocationResolver.loadConfig(config);
+        chunkPregenerator.loadConfig(config);
+        playerDataImporter.setThreads(config.getInt("first-join.import-threads", 4));
+        regionSpawnPool.loadConfig(config, getServer());
+        prometheusExporter.configure(config.getBoolean("prometheus.enabled", false),
+            config.getString("prometheus.host", "127.0.0.1"), config.getInt("prometheus.port", 9464));
+        
+        reloadSpawnPoints();
+        reloadFirstJoinRegistry();
+    }
+    
+    /**
+     * Connects to the network-wide first join store, replacing any previous connection
+     */
+    private void reloadFirstJoinRegistry() {
+        if (firstJoinRegistry != null) {
+            firstJoinRegistry.close();
+            firstJoinRegistry = null;
+        }
+        
+        FirstJoinStore store = customFirstJoinStore;
+        if (store == null) {
+            if (!config.getBoolean("network.enabled", false)) {
+                return;
+            }
+            
+            String type = config.getString("network.store", "SQLITE");
+            Path path = getDataFolder().toPath().resolve(config.getString("network.path", "network/first-joins.db"));
+            try {
+                if ("FILE".equalsIgnoreCase(type)) {
+                    store = new SharedFileFirstJoinStore(path);
+                } else {
+                    java.nio.file.Files.createDirectories(path.toAbsolutePath().getParent());
+                    store = new SqliteFirstJoinStore(path);
+                }
+            } catch (IOException e) {
+                getLogger().warning("Failed to open network first join store, only this server's record will be used: " + e.getMessage());
+                return;
+            }
+        }
+        
+        firstJoinRegistry = new FirstJoinRegistry(
+            store,
+            getLogger(),
+            config.getInt("network.cache-size", 10000),
+            config.getLong("network.negative-cache-ttl", 30L) * 1000L,
+            config.getLong("network.batch-interval", 50L),
+            store != customFirstJoinStore
+        );
+        logDebug("Connected to network first join store " + store.getClass().getSimpleName());
+    }
+    
+    /**
+     * Rebuilds the spawn point pool and the spawn rules from the configuration, re-acquires
+     * the chunk tickets around every spawn point and checks every spawn point for safety
+     */
+    private void reloadSpawnPoints() {
+        spawnPointPool.load(config.getConfigurationSection("spawn-points"), getServer(), settings.get().firstSpawnLocation());
+        logDebug("Loaded " + spawnPointPool.getPoints().size() + " spawn point(s) using " + 
+                spawnPointPool.getStrategy() + " strategy");
+        
+        List<Location> locations = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (SpawnPoint point : spawnPointPool.getPoints()) {
+            locations.add(point.getLocation());
+            names.add(point.getName().toLowerCase());
+        }
+        spawnRules.load(config.getConfigurationSection("spawn-rules"), names);
+        if (spawnRules.size() > 0) {
+            logDebug("Compiled " + spawnRules.size() + " spawn rule(s)");
+        }
+        spawnChunkKeeper.refresh(locations);
+        safeLocationResolver.refresh(spawnPointPool.getPoints());
+    }
+    
+    /**
+     * Loads the first spawn location from the configuration
+     * 
+     * @return The first spawn location, or null if it is unset or invalid
+     */
+    private Location loadSpawnLocation() {
         // Load spawn location from config
         if (config.contains("firstSpawn")) {
             try {
                 String worldName = config.getString("firstSpawn.world");
                 if (getServer().getWorld(worldName) == null) {
                     getLogger().warning("World '" + worldName + "' not found! First spawn location will not be set.");
-                    firstSpawnLocation = null;
-                    return;
+                    return null;
                 }
                 
-                firstSpawnLocation = new Location(
+                Location firstSpawnLocation = new Location(
                     getServer().getWorld(worldName),
                     config.getDouble("firstSpawn.x"),
                     config.getDouble("firstSpawn.y"),
@@ -103,14 +340,14 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
                 }
                 
                 logDebug("Loaded spawn location: " + LocationFormatter.formatLocationRaw(firstSpawnLocation));
-                logDebug("Set bed spawn: " + (setBedSpawn ? "enabled" : "disabled"));
+                return firstSpawnLocation;
             } catch (Exception e) {
                 getLogger().warning("Error loading spawn location: " + e.getMessage());
-                firstSpawnLocation = null;
             }
         }
+        return null;
     }
-
+    
     /**
      * Logs a debug message if debug mode is enabled
      * 
@@ -121,17 +358,74 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
             getLogger().info("[DEBUG] " + message);
         }
     }
-
+    
+    /**
+     * Logs a debug message if debug mode is enabled
+     * The message is only built when it will be logged, so hot paths pay nothing for it otherwise.
+     * 
+     * @param message Supplies the message to log
+     */
+    public void logDebug(Supplier<String> message) {
+        if (debug) {
+            getLogger().info("[DEBUG] " + message.get());
+        }
+    }
+    
     @Override
     public void onDisable() {
+        if (spawnChunkKeeper != null) {
+            spawnChunkKeeper.shutdown();
+        }
+        if (regionSpawnPool != null) {
+            regionSpawnPool.stop();
+        }
+        if (spawnPointPool != null) {
+            spawnPointPool.shutdown();
+        }
+        if (chunkPregenerator != null) {
+            chunkPregenerator.shutdown();
+        }
+        if (playerDataImporter != null) {
+            playerDataImporter.cancel();
+        }
+        if (spawnBatcher != null) {
+            spawnBatcher.flush();
+        }
+        if (spawnAuditLog != null) {
+            spawnAuditLog.close();
+            spawnAuditLog = null;
+        }
+        if (bulkSpawnDispatcher != null) {
+            bulkSpawnDispatcher.shutdown();
+        }
+        if (onboardingPipeline != null) {
+            onboardingPipeline.shutdown();
+        }
+        if (firstSpawnQueue != null) {
+            firstSpawnQueue.shutdown();
+            tickMonitor.stop();
+        }
+        if (firstJoinRegistry != null) {
+            firstJoinRegistry.close();
+        }
+        if (firstJoinLedger != null) {
+            firstJoinLedger.close();
+        }
+        if (configWriter != null) {
+            configWriter.close();
+        }
+        if (prometheusExporter != null) {
+            prometheusExporter.stop();
+        }
+        spawnMetrics.unregister();
         getLogger().info("FirstSpawn has been disabled!");
     }
-
+    
     // API Methods
     
     @Override
     public Location getFirstSpawnLocation() {
-        return firstSpawnLocation;
+        return settings.get().firstSpawnLocation();
     }
     
     @Override
@@ -140,81 +434,514 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
             return;
         }
         
-        firstSpawnLocation = location.clone();
+        // The caller may keep changing its Location, such as a player's own
+        Location saved = location.clone();
+        settings.updateAndGet(current -> current.withFirstSpawnLocation(saved));
         
         // Save to config
-        config.set("firstSpawn.world", location.getWorld().getName());
-        config.set("firstSpawn.x", location.getX());
-        config.set("firstSpawn.y", location.getY());
-        config.set("firstSpawn.z", location.getZ());
-        
         // Save direction based on player's yaw
-        String direction = LocationFormatter.getDirectionFromYaw(location.getYaw());
-        config.set("firstSpawn.direction", direction);
+        String direction = LocationFormatter.getDirectionFromYaw(saved.getYaw());
         
-        saveConfig();
-        logDebug("Set spawn location to: " + LocationFormatter.formatLocationRaw(location) + 
+        // The update is replayed later on the writer thread, so it only captures plain values
+        String world = saved.getWorld().getName();
+        double x = saved.getX();
+        double y = saved.getY();
+        double z = saved.getZ();
+        configWriter.update(config -> {
+            config.set("firstSpawn.world", world);
+            config.set("firstSpawn.x", x);
+            config.set("firstSpawn.y", y);
+            config.set("firstSpawn.z", z);
+            config.set("firstSpawn.direction", direction);
+        });
+        reloadSpawnPoints();
+        logDebug(() -> "Set spawn location to: " + LocationFormatter.formatLocationRaw(saved) + 
                 (direction.isEmpty() ? "" : " facing " + direction));
     }
     
     @Override
     public boolean teleportToFirstSpawn(Player player) {
-        return teleportToFirstSpawn(player, setBedSpawn, true);
+        return teleportToFirstSpawn(player, settings.get().setBedSpawn(), true);
     }
     
     @Override
     public boolean teleportToFirstSpawn(Player player, boolean setBedSpawn, boolean sendWelcomeMessage) {
-        if (player == null || firstSpawnLocation == null) {
+        return player != null && teleportToFirstSpawn(player, setBedSpawn, sendWelcomeMessage, isFirstJoin(player));
+    }
+    
+    /**
+     * Teleports a player to the first spawn location when it is already known whether
+     * this is their first join, so the ledger is only consulted once per join
+     * 
+     * @param player The player to teleport
+     * @param setBedSpawn Whether to set the player's bed spawn location
+     * @param sendWelcomeMessage Whether to send the welcome message
+     * @param isFirstJoin Whether this is the player's first join
+     * @return True if teleported successfully, false otherwise
+     */
+    public boolean teleportToFirstSpawn(Player player, boolean setBedSpawn, boolean sendWelcomeMessage, boolean isFirstJoin) {
+        if (player == null || !hasSpawnLocation()) {
             return false;
         }
         
         // Check if plugin functionality is enabled
-        if (!isPluginFunctionalityEnabled()) {
+        SpawnSettings current = settings.get();
+        if (!current.enabled()) {
             return false;
         }
         
+        long start = System.nanoTime();
         try {
-            // Check if this is the player's first join
-            boolean isFirstJoin = !player.hasPlayedBefore();
+            SpawnPoint target = prepareFirstSpawn(player, isFirstJoin);
+            if (target == null) {
+                if (isFirstJoin) {
+                    recordFirstJoin(player, null);
+                }
+                return false;
+            }
+            
+            // Teleport the player
+            long phaseStart = System.nanoTime();
+            player.teleport(target.getLocation());
+            spawnMetrics.record(SpawnMetrics.Phase.TELEPORT, phaseStart);
             
-            // Call the pre-teleport event
-            PlayerFirstSpawnEvent event = new PlayerFirstSpawnEvent(player, firstSpawnLocation, isFirstJoin);
+            completeFirstSpawn(current, player, target, setBedSpawn, sendWelcomeMessage, isFirstJoin, start);
+            spawnMetrics.record(SpawnMetrics.Phase.TOTAL, start);
+            logDebug(() -> "Teleported player " + player.getName() + " to first spawn location");
+            return true;
+        } catch (Exception e) {
+            recordSpawnFailure(player, e, start);
+            getLogger().warning("Error teleporting player to first spawn: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Fires the pre-teleport event for a player and resolves where they should spawn.
+     * Used both by the teleport path and by pre-placement during the spawn-location phase.
+     * 
+     * @param player The player about to be sent to first spawn
+     * @param isFirstJoin Whether this is the player's first join
+     * @return The spawn point to place the player at, or null if unset or the event was cancelled
+     */
+    public SpawnPoint prepareFirstSpawn(Player player, boolean isFirstJoin) {
+        long phaseStart = System.nanoTime();
+        SpawnPoint point = routeBySpawnRule(player);
+        Location target = point == null ? regionSpawnPool.poll() : null;
+        if (target != null) {
+            // Scatter across the spawn region
+            point = new SpawnPoint(RegionSpawnPool.POINT_NAME, target);
+        } else {
+            // Routed by a rule, or no region or its pool has run dry, so use the spawn points
+            if (point == null) {
+                point = spawnPointPool.select(player);
+                if (point == null) {
+                    return null;
+                }
+            }
+            point = toSafePoint(point);
+            target = point.getLocation();
+        }
+        
+        long start = phaseStart;
+        phaseStart = spawnMetrics.record(SpawnMetrics.Phase.SELECT, phaseStart);
+        
+        // Call the pre-teleport event, unless nobody listens for it
+        if (hasListeners(PlayerFirstSpawnEvent.getHandlerList())) {
+            PlayerFirstSpawnEvent event = new PlayerFirstSpawnEvent(player, target, isFirstJoin);
             getServer().getPluginManager().callEvent(event);
+            long end = spawnMetrics.record(SpawnMetrics.Phase.PRE_EVENT, phaseStart);
             
             // Check if the event was cancelled
             if (event.isCancelled()) {
-                logDebug("Teleport to first spawn was cancelled" + 
+                spawnMetrics.recordCancellation();
+                trace(SpawnTrace.of(player.getUniqueId(), player.getName(), SpawnTrace.Outcome.CANCELLED, 
+                        point.getName(), target, event.getCancelReason(), end - start));
+                logDebug(() -> "Teleport to first spawn was cancelled" + 
                         (event.getCancelReason() != null ? ": " + event.getCancelReason() : ""));
-                return false;
+                return null;
             }
             
-            // Teleport the player
-            player.teleport(firstSpawnLocation);
-            
-            // Set bed spawn if requested
-            if (setBedSpawn) {
-                player.setBedSpawnLocation(firstSpawnLocation, true);
-                logDebug("Set bed spawn location for " + player.getName());
+            // Use the location a listener moved the player to, if any
+            Location override = event.getTargetLocation();
+            if (!override.equals(target)) {
+                point = new SpawnPoint(point.getName(), override, point.getWeight(), point.getCapacity(), point.getOverflow());
             }
-            
-            // Send welcome message if configured and requested
-            boolean messageSent = false;
-            if (sendWelcomeMessage && !welcomeMessage.isEmpty()) {
-                player.sendMessage(org.bukkit.ChatColor.translateAlternateColorCodes('&', welcomeMessage));
-                messageSent = true;
+        }
+        
+        SpawnPoint selected = point;
+        logDebug(() -> "Selected spawn point '" + selected.getName() + "' for " + player.getName());
+        return point;
+    }
+    
+    @Override
+    public CompletableFuture<Integer> teleportAllToFirstSpawn(Collection<? extends Player> players) {
+        if (players == null || players.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return bulkSpawnDispatcher.submit(players);
+    }
+    
+    @Override
+    public SpawnPoint previewSpawnFor(Player player) {
+        if (player == null) {
+            return null;
+        }
+        
+        SpawnPoint point = routeBySpawnRule(player);
+        if (point == null) {
+            Location target = regionSpawnPool.peek();
+            if (target != null) {
+                return new SpawnPoint(RegionSpawnPool.POINT_NAME, target);
             }
-            
-            // Call the post-teleport event
-            PlayerFirstSpawnedEvent spawnedEvent = new PlayerFirstSpawnedEvent(
-                player, firstSpawnLocation, isFirstJoin, messageSent);
-            getServer().getPluginManager().callEvent(spawnedEvent);
-            
-            logDebug("Teleported player " + player.getName() + " to first spawn location");
-            return true;
+            point = spawnPointPool.preview(player);
+        }
+        return point == null ? null : toSafePoint(point);
+    }
+    
+    /**
+     * Finds the spawn point the first matching spawn rule sends a player to
+     * 
+     * @param player The player being spawned
+     * @return The spawn point, after following overflow targets, or null if no rule applies
+     */
+    private SpawnPoint routeBySpawnRule(Player player) {
+        SpawnRules.Rule rule = spawnRules.match(player);
+        if (rule == null) {
+            return null;
+        }
+        
+        SpawnPoint point = spawnPointPool.selectFrom(rule.spawnPoint());
+        logDebug(() -> "Spawn rule '" + rule.name() + "' matched " + player.getName() + 
+                (point == null ? " but its spawn point does not exist" : ""));
+        return point;
+    }
+    
+    /**
+     * Moves a spawn point to the nearest safe spot if the configured block is unsafe
+     * 
+     * @param point The spawn point
+     * @return The spawn point, or a copy at the safe spot
+     */
+    private SpawnPoint toSafePoint(SpawnPoint point) {
+        Location safe = safeLocationResolver.getSafeLocation(point);
+        if (safe.equals(point.getLocation())) {
+            return point;
+        }
+        return new SpawnPoint(point.getName(), safe, point.getWeight(), point.getCapacity(), point.getOverflow());
+    }
+    
+    /**
+     * Finishes a first spawn once the player is standing at the target location:
+     * sets the bed spawn, sends the welcome message and fires the post-teleport event
+     * 
+     * @param player The player who was placed at first spawn
+     * @param point The spawn point the player was placed at
+     * @param setBedSpawn Whether to set the player's bed spawn location
+     * @param sendWelcomeMessage Whether to send the welcome message
+     * @param isFirstJoin Whether this was the player's first join
+     */
+    public void completeFirstSpawn(Player player, SpawnPoint point, boolean setBedSpawn, 
+                                   boolean sendWelcomeMessage, boolean isFirstJoin) {
+        completeFirstSpawn(settings.get(), player, point, setBedSpawn, sendWelcomeMessage, isFirstJoin, -1L);
+    }
+    
+    /**
+     * Finishes a first spawn and records its trace
+     * 
+     * @param current The settings snapshot the first spawn started with
+     * @param player The player who was placed at first spawn
+     * @param point The spawn point the player was placed at
+     * @param setBedSpawn Whether to set the player's bed spawn location
+     * @param sendWelcomeMessage Whether to send the welcome message
+     * @param isFirstJoin Whether this was the player's first join
+     * @param start When the first spawn started, from {@link System#nanoTime()}, or -1 if unknown
+     */
+    private void completeFirstSpawn(SpawnSettings current, Player player, SpawnPoint point, boolean setBedSpawn, 
+                                    boolean sendWelcomeMessage, boolean isFirstJoin, long start) {
+        Location location = point.getLocation();
+        if (isFirstJoin) {
+            spawnChunkKeeper.recordFirstJoin();
+            spawnMetrics.recordFirstJoin();
+            recordFirstJoin(player, point.getName());
+        }
+        
+        // Set bed spawn if requested
+        long phaseStart = System.nanoTime();
+        if (setBedSpawn) {
+            player.setBedSpawnLocation(location, true);
+            logDebug(() -> "Set bed spawn location for " + player.getName());
+            phaseStart = spawnMetrics.record(SpawnMetrics.Phase.BED_SPAWN, phaseStart);
+        }
+        
+        // Send welcome message if configured and requested
+        boolean messageSent = false;
+        if (sendWelcomeMessage) {
+            WelcomeMessage welcome = current.welcomeMessages().forLocale(player.getLocale());
+            if (!welcome.isEmpty()) {
+                long firstJoinNumber = firstJoinLedger != null && welcome.uses(MessageTemplate.Placeholder.FIRST_JOIN_NUMBER) 
+                        ? firstJoinLedger.size() : 0L;
+                messageSent = welcome.send(player, new MessageTemplate.Context(
+                    player.getName(), getServer().getOnlinePlayers().size(), point.getName(), firstJoinNumber));
+                phaseStart = spawnMetrics.record(SpawnMetrics.Phase.MESSAGE, phaseStart);
+            }
+        }
+        
+        // Call the post-teleport event, and add the spawn to this tick's batch, if anyone listens
+        if (hasListeners(PlayerFirstSpawnedEvent.getHandlerList())) {
+            getServer().getPluginManager().callEvent(new PlayerFirstSpawnedEvent(
+                player, location, isFirstJoin, messageSent));
+        }
+        if (spawnBatcher.isListened()) {
+            spawnBatcher.add(new PlayerFirstSpawnBatchEvent.Spawn(
+                player, location, point.getName(), isFirstJoin, messageSent));
+        }
+        long end = spawnMetrics.record(SpawnMetrics.Phase.POST_EVENT, phaseStart);
+        spawnMetrics.recordSuccess();
+        trace(SpawnTrace.of(player.getUniqueId(), player.getName(), SpawnTrace.Outcome.SUCCESS, 
+                point.getName(), location, null, start < 0 ? -1L : end - start));
+        
+        // Hand new players to the onboarding stages, which run over the following ticks
+        if (isFirstJoin) {
+            onboardingPipeline.start(player, point.getName());
+        }
+    }
+    
+    /**
+     * Keeps a first spawn outcome in the recent traces and the history
+     * 
+     * @param trace The outcome
+     */
+    private void trace(SpawnTrace trace) {
+        spawnTraces.add(trace);
+        SpawnAuditLog auditLog = spawnAuditLog;
+        if (auditLog != null) {
+            auditLog.append(trace);
+        }
+    }
+    
+    /**
+     * Checks if any plugin listens for an event, so events nobody handles are never built
+     * 
+     * @param handlers The event's handler list
+     * @return True if the event has listeners, false otherwise
+     */
+    private static boolean hasListeners(HandlerList handlers) {
+        return handlers.getRegisteredListeners().length > 0;
+    }
+    
+    /**
+     * Counts and traces a first spawn that failed with an error
+     * 
+     * @param player The player whose first spawn failed
+     * @param error The error
+     * @param start When the first spawn started, from {@link System#nanoTime()}, or -1 if unknown
+     */
+    public void recordSpawnFailure(Player player, Exception error, long start) {
+        spawnMetrics.recordFailure();
+        trace(SpawnTrace.of(player.getUniqueId(), player.getName(), SpawnTrace.Outcome.FAILED, 
+                null, null, error.toString(), start < 0 ? -1L : System.nanoTime() - start));
+    }
+    
+    /**
+     * Checks if a player is joining for the first time
+     * The ledger is authoritative, followed by the network store when one is configured.
+     * Players who are missing from both but have vanilla player data (for example from before
+     * the plugin was installed) are added to them and treated as returning.
+     * Only cached network answers are used here; see {@link #prefetchFirstJoin(UUID)}.
+     * 
+     * @param player The player to check
+     * @return True if this is the player's first join, false otherwise
+     */
+    public boolean isFirstJoin(Player player) {
+        UUID uuid = player.getUniqueId();
+        FirstJoinRegistry registry = firstJoinRegistry;
+        if (firstJoinLedger != null && firstJoinLedger.contains(uuid)) {
+            if (registry != null) {
+                // Share joins from before the network store was set up with the other servers,
+                // once the prefetch has confirmed the store does not have them yet
+                Optional<FirstJoinInfo> remote = registry.getCached(uuid);
+                if (remote != null && remote.isEmpty()) {
+                    registry.record(new FirstJoinInfo(uuid, firstJoinLedger.getFirstJoinTime(uuid), 
+                            firstJoinLedger.getSpawnPoint(uuid)));
+                }
+            }
+            return false;
+        }
+        
+        if (registry != null) {
+            Optional<FirstJoinInfo> remote = registry.getCached(uuid);
+            if (remote != null && remote.isPresent()) {
+                if (firstJoinLedger != null) {
+                    firstJoinLedger.record(uuid, remote.get().getFirstJoinTime(), remote.get().getSpawnPoint());
+                }
+                logDebug(() -> "Player " + player.getName() + " has already joined another server on the network");
+                return false;
+            }
+        }
+        
+        if (firstJoinLedger == null) {
+            return !player.hasPlayedBefore();
+        }
+        if (settings.get().trustVanillaFirstJoin() && player.hasPlayedBefore()) {
+            firstJoinLedger.record(uuid, player.getFirstPlayed(), null);
+            if (registry != null) {
+                registry.record(new FirstJoinInfo(uuid, player.getFirstPlayed(), null));
+            }
+            logDebug(() -> "Added returning player " + player.getName() + " to the first join ledger");
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Loads a player's entry from the network store into the local cache ahead of their join
+     * Called from the asynchronous pre-login phase, so waiting on the store never holds up a tick.
+     * Gives up after the configured lookup timeout, in which case only this server's record is used.
+     * Players already in the ledger are looked up without waiting, only so their join can tell
+     * whether the store still needs their entry.
+     * 
+     * @param playerId The UUID of the player logging in
+     */
+    public void prefetchFirstJoin(UUID playerId) {
+        FirstJoinRegistry registry = firstJoinRegistry;
+        if (registry == null) {
+            return;
+        }
+        if (firstJoinLedger != null && firstJoinLedger.contains(playerId)) {
+            registry.lookup(playerId);
+            return;
+        }
+        
+        try {
+            registry.lookup(playerId).get(settings.get().networkLookupTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
-            getLogger().warning("Error teleporting player to first spawn: " + e.getMessage());
+            logDebug(() -> "Network first join lookup for " + playerId + " did not complete: " + e);
+        }
+    }
+    
+    /**
+     * Records that a player has completed their first join
+     * Does nothing if the player is already recorded
+     * 
+     * @param player The player who joined
+     * @param spawnPoint The name of the spawn point they were sent to, or null for none
+     */
+    public void recordFirstJoin(Player player, String spawnPoint) {
+        long now = System.currentTimeMillis();
+        if (firstJoinLedger != null) {
+            firstJoinLedger.record(player.getUniqueId(), now, spawnPoint);
+        }
+        FirstJoinRegistry registry = firstJoinRegistry;
+        if (registry != null) {
+            registry.record(new FirstJoinInfo(player.getUniqueId(), now, spawnPoint));
+        }
+    }
+    
+    @Override
+    public boolean hasJoinedBefore(UUID playerId) {
+        return getFirstJoinInfo(playerId) != null;
+    }
+    
+    @Override
+    public boolean isFirstJoin(UUID playerId) {
+        return !hasJoinedBefore(playerId);
+    }
+    
+    @Override
+    public FirstJoinInfo getFirstJoinInfo(UUID playerId) {
+        if (firstJoinLedger != null) {
+            long time = firstJoinLedger.getFirstJoinTime(playerId);
+            if (time >= 0) {
+                return new FirstJoinInfo(playerId, time, firstJoinLedger.getSpawnPoint(playerId));
+            }
+        }
+        
+        FirstJoinRegistry registry = firstJoinRegistry;
+        if (registry != null) {
+            Optional<FirstJoinInfo> remote = registry.getCached(playerId);
+            if (remote != null) {
+                return remote.orElse(null);
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public void setFirstJoinStore(FirstJoinStore store) {
+        customFirstJoinStore = store;
+        reloadFirstJoinRegistry();
+    }
+    
+    @Override
+    public List<SpawnPoint> getSpawnPoints() {
+        return spawnPointPool.getPoints();
+    }
+    
+    @Override
+    public SpawnPoint getSpawnPoint(String name) {
+        return spawnPointPool.getPoint(name);
+    }
+    
+    @Override
+    public void setSpawnPoint(SpawnPoint point) {
+        if (point == null) {
+            return;
+        }
+        
+        Location location = point.getLocation();
+        String path = "spawn-points.points." + point.getName();
+        
+        // The update is replayed later on the writer thread, so it only captures plain values
+        String world = location.getWorld().getName();
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+        String direction = LocationFormatter.getDirectionFromYaw(location.getYaw());
+        int weight = point.getWeight();
+        int capacity = point.getCapacity();
+        String overflow = point.getOverflow() == null ? "" : point.getOverflow();
+        configWriter.update(config -> {
+            config.set(path + ".world", world);
+            config.set(path + ".x", x);
+            config.set(path + ".y", y);
+            config.set(path + ".z", z);
+            config.set(path + ".direction", direction);
+            config.set(path + ".weight", weight);
+            config.set(path + ".capacity", capacity);
+            config.set(path + ".overflow", overflow);
+        });
+        reloadSpawnPoints();
+        logDebug("Set spawn point '" + point.getName() + "' to: " + LocationFormatter.formatLocationRaw(location));
+    }
+    
+    @Override
+    public boolean removeSpawnPoint(String name) {
+        if (name == null || !config.contains("spawn-points.points." + name)) {
             return false;
         }
+        
+        configWriter.update(config -> config.set("spawn-points.points." + name, null));
+        reloadSpawnPoints();
+        logDebug("Removed spawn point '" + name + "'");
+        return true;
+    }
+    
+    @Override
+    public SpawnStrategy getSpawnStrategy() {
+        return spawnPointPool.getStrategy();
+    }
+    
+    @Override
+    public void setSpawnStrategy(SpawnStrategy strategy) {
+        if (strategy == null) {
+            return;
+        }
+        
+        spawnPointPool.setStrategy(strategy);
+        configWriter.update(config -> config.set("spawn-points.strategy", strategy.name()));
     }
     
     @Override
@@ -224,14 +951,13 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
     
     @Override
     public String getWelcomeMessage() {
-        return welcomeMessage;
+        return settings.get().welcomeMessage();
     }
     
     @Override
     public void setWelcomeMessage(String message) {
-        welcomeMessage = message;
-        config.set("welcome-message", message);
-        saveConfig();
+        settings.updateAndGet(current -> current.withWelcomeMessage(message));
+        configWriter.update(config -> config.set("welcome-message", message));
     }
     
     @Override
@@ -239,13 +965,22 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
         getServer().getPluginManager().registerEvents(listener, plugin);
     }
     
+    /**
+     * Checks if at least one spawn location is available to send new players to
+     * 
+     * @return True if a first spawn location, spawn point or spawn region is configured, false otherwise
+     */
+    public boolean hasSpawnLocation() {
+        return !spawnPointPool.getPoints().isEmpty() || regionSpawnPool.getReadyCount() > 0;
+    }
+    
     /**
      * Checks if the plugin functionality is enabled
      * 
      * @return True if enabled, false otherwise
      */
     public boolean isPluginFunctionalityEnabled() {
-        return enabled;
+        return settings.get().enabled();
     }
     
     /**
@@ -254,9 +989,8 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
      * @param enabled True to enable, false to disable
      */
     public void setPluginFunctionalityEnabled(boolean enabled) {
-        this.enabled = enabled;
-        config.set("enabled", enabled);
-        saveConfig();
+        settings.updateAndGet(current -> current.withEnabled(enabled));
+        configWriter.update(config -> config.set("enabled", enabled));
     }
     
     /**
@@ -275,8 +1009,7 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
      */
     public void setDebugEnabled(boolean debug) {
         this.debug = debug;
-        config.set("debug", debug);
-        saveConfig();
+        configWriter.update(config -> config.set("debug", debug));
     }
     
     /**
@@ -285,7 +1018,7 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
      * @return True if bed spawn should be set, false otherwise
      */
     public boolean isSetBedSpawnEnabled() {
-        return setBedSpawn;
+        return settings.get().setBedSpawn();
     }
     
     /**
@@ -295,9 +1028,145 @@ public class FirstSpawn extends JavaPlugin implements FirstSpawnAPI {
      * @param setBedSpawn True to set bed spawn, false otherwise
      */
     void setSetBedSpawnEnabled(boolean setBedSpawn) {
-        this.setBedSpawn = setBedSpawn;
-        config.set("firstSpawn.set-bed-spawn", setBedSpawn);
-        saveConfig();
+        settings.updateAndGet(current -> current.withSetBedSpawn(setBedSpawn));
+        configWriter.update(config -> config.set("firstSpawn.set-bed-spawn", setBedSpawn));
+    }
+    
+    /**
+     * Checks if new players should be placed at first spawn during the spawn-location
+     * phase instead of being teleported after they join
+     * 
+     * @return True if pre-placement is enabled, false otherwise
+     */
+    public boolean isPrePlaceEnabled() {
+        return settings.get().prePlace();
+    }
+    
+    /**
+     * Gets the pool of ready locations in the spawn region
+     * 
+     * @return The spawn region pool
+     */
+    public RegionSpawnPool getRegionSpawnPool() {
+        return regionSpawnPool;
+    }
+    
+    /**
+     * Gets the rules that route new players to spawn points
+     * 
+     * @return The spawn rules
+     */
+    public SpawnRules getSpawnRules() {
+        return spawnRules;
+    }
+    
+    /**
+     * Gets the spawn chunk keeper that holds chunk tickets around first spawn
+     * 
+     * @return The spawn chunk keeper
+     */
+    public SpawnChunkKeeper getSpawnChunkKeeper() {
+        return spawnChunkKeeper;
+    }
+    
+    /**
+     * Gets the job that pregenerates chunks around the spawn points
+     * 
+     * @return The chunk pregenerator
+     */
+    public ChunkPregenerator getChunkPregenerator() {
+        return chunkPregenerator;
+    }
+    
+    /**
+     * Gets the job that seeds the first join ledger from existing playerdata
+     * 
+     * @return The playerdata importer
+     */
+    public PlayerDataImporter getPlayerDataImporter() {
+        return playerDataImporter;
+    }
+    
+    /**
+     * Gets the compiled welcome in every configured language
+     * 
+     * @return The welcome messages
+     */
+    public WelcomeMessages getWelcomeMessages() {
+        return settings.get().welcomeMessages();
+    }
+    
+    /**
+     * Gets the current settings snapshot
+     * Read it once and use it for the whole of a join, so a reload part way through can't mix old and new settings.
+     * 
+     * @return The settings
+     */
+    public SpawnSettings getSettings() {
+        return settings.get();
+    }
+    
+    /**
+     * Gets the latency histograms and outcome counters of the first spawn pipeline
+     * 
+     * @return The spawn metrics
+     */
+    public SpawnMetrics getSpawnMetrics() {
+        return spawnMetrics;
+    }
+    
+    /**
+     * Gets the ring of recent first spawn traces
+     * 
+     * @return The spawn traces
+     */
+    public SpawnTraceBuffer getSpawnTraces() {
+        return spawnTraces;
+    }
+    
+    /**
+     * Gets the history of first spawns
+     * 
+     * @return The audit log, or null if it is disabled or could not be opened
+     */
+    public SpawnAuditLog getSpawnAuditLog() {
+        return spawnAuditLog;
+    }
+    
+    /**
+     * Gets the pipeline that runs onboarding stages for new players
+     * 
+     * @return The onboarding pipeline
+     */
+    public OnboardingPipeline getOnboardingPipeline() {
+        return onboardingPipeline;
+    }
+    
+    /**
+     * Gets the queue that rate limits first spawns during join storms
+     * 
+     * @return The first spawn queue
+     */
+    public FirstSpawnQueue getFirstSpawnQueue() {
+        return firstSpawnQueue;
+    }
+    
+    /**
+     * Gets the ledger of players who have joined
+     * 
+     * @return The first join ledger, or null if it could not be opened
+     */
+    public FirstJoinLedger getFirstJoinLedger() {
+        return firstJoinLedger;
+    }
+    
+    /**
+     * Gets the client for the network-wide first join store
+     * 
+     * @return The first join registry, or null if no network store is configured
+     */
+    public FirstJoinRegistry getFirstJoinRegistry() {
+        return firstJoinRegistry;
     }
     
     /**
@@ -0,0 +1,93 @@
+package io.mckenz.firstspawn;
+
+import io.mckenz.firstspawn.message.WelcomeMessages;
+
+import org.bukkit.Location;
+
+/**
+ * The settings a join reads, as one immutable snapshot.
+ * Reloads and setters publish a whole new snapshot, so a join running on a Folia region
+ * thread sees either the old settings or the new ones and never a mix of both.
+ * 
+ * @param enabled Whether the plugin functionality is enabled
+ * @param firstSpawnLocation The configured first spawn location, or null if unset
+ * @param welcomeMessage The welcome-message setting
+ * @param welcomeMessages The compiled welcome in every configured language
+ * @param setBedSpawn Whether to set the player's bed spawn location
+ * @param prePlace Whether to place new players during the spawn-location phase
+ * @param trustVanillaFirstJoin Whether vanilla player data marks a player as returning
+ * @param networkLookupTimeout How long to wait for the network first join store, in milliseconds
+ */
+public record SpawnSettings(boolean enabled, Location firstSpawnLocation, String welcomeMessage,
+                            WelcomeMessages welcomeMessages, boolean setBedSpawn, boolean prePlace,
+                            boolean trustVanillaFirstJoin, long networkLookupTimeout) {
+    
+    /**
+     * The settings in effect before the configuration is loaded
+     */
+    public static final SpawnSettings DEFAULTS = new SpawnSettings(
+        false, null, "", WelcomeMessages.empty(), true, true, true, 2000L);
+    
+    /**
+     * Creates a new SpawnSettings, keeping its own copy of the first spawn location
+     */
+    public SpawnSettings {
+        firstSpawnLocation = firstSpawnLocation == null ? null : firstSpawnLocation.clone();
+        welcomeMessage = welcomeMessage == null ? "" : welcomeMessage;
+    }
+    
+    /**
+     * Gets a copy of the configured first spawn location
+     * 
+     * @return The first spawn location, or null if unset
+     */
+    @Override
+    public Location firstSpawnLocation() {
+        return firstSpawnLocation == null ? null : firstSpawnLocation.clone();
+    }
+    
+    /**
+     * Copies these settings with the plugin functionality enabled or disabled
+     * 
+     * @param enabled True to enable, false to disable
+     * @return The new settings
+     */
+    public SpawnSettings withEnabled(boolean enabled) {
+        return new SpawnSettings(enabled, firstSpawnLocation, welcomeMessage, welcomeMessages,
+            setBedSpawn, prePlace, trustVanillaFirstJoin, networkLookupTimeout);
+    }
+    
+    /**
+     * Copies these settings with a different first spawn location
+     * 
+     * @param firstSpawnLocation The new first spawn location
+     * @return The new settings
+     */
+    public SpawnSettings withFirstSpawnLocation(Location firstSpawnLocation) {
+        return new SpawnSettings(enabled, firstSpawnLocation, welcomeMessage, welcomeMessages,
+            setBedSpawn, prePlace, trustVanillaFirstJoin, networkLookupTimeout);
+    }
+    
+    /**
+     * Copies these settings with a different welcome-message setting, recompiling the welcomes
+     * 
+     * @param welcomeMessage The new welcome-message setting
+     * @return The new settings
+     */
+    public SpawnSettings withWelcomeMessage(String welcomeMessage) {
+        return new SpawnSettings(enabled, firstSpawnLocation, welcomeMessage,
+            welcomeMessages.withFirstLine(welcomeMessage), setBedSpawn, prePlace, trustVanillaFirstJoin,
+            networkLookupTimeout);
+    }
+    
+    /**
+     * Copies these settings with setting the bed spawn enabled or disabled
+     * 
+     * @param setBedSpawn True to set bed spawn, false otherwise
+     * @return The new settings
+     */
+    public SpawnSettings withSetBedSpawn(boolean setBedSpawn) {
+        return new SpawnSettings(enabled, firstSpawnLocation, welcomeMessage, welcomeMessages,
+            setBedSpawn, prePlace, trustVanillaFirstJoin, networkLookupTimeout);
+    }
+}
@@ -0,0 +1,53 @@
+package io.mckenz.firstspawn.api;
+
+import java.util.UUID;
+
+/**
+ * Information recorded about a player's first join
+ */
+public final class FirstJoinInfo {
+    private final UUID playerId;
+    private final long firstJoinTime;
+    private final String spawnPoint;
+
+    /**
+     * Creates a new FirstJoinInfo
+     *
+     * @param playerId The player's UUID
+     * @param firstJoinTime When the player first joined, in milliseconds since the epoch
+     * @param spawnPoint The name of the spawn point the player was sent to, or null if unknown
+     */
+    public FirstJoinInfo(UUID playerId, long firstJoinTime, String spawnPoint) {
+        this.playerId = playerId;
+        this.firstJoinTime = firstJoinTime;
+        this.spawnPoint = spawnPoint;
+    }
+
+    /**
+     * Gets the player's UUID
+     *
+     * @return The player's UUID
+     */
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Gets when the player first joined
+     *
+     * @return The first join time in milliseconds since the epoch
+     */
+    public long getFirstJoinTime() {
+        return firstJoinTime;
+    }
+
+    /**
+     * Gets the name of the spawn point the player was sent to on their first join
+     *
+     * @return The spawn point name, or null if the player was not sent to a spawn point
+     *         (for example when the teleport was cancelled or the player was imported)
+     */
+    public String getSpawnPoint() {
+        return spawnPoint;
+    }
+}
@@ -0,0 +1,41 @@
+package io.mckenz.firstspawn.api;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage backend for the network-wide first join registry
+ * Implementations are shared by every server behind a proxy so a player is only sent to first
+ * spawn on the first backend they join. Methods are always called from a single background
+ * thread, in batches, and may block.
+ */
+public interface FirstJoinStore {
+    
+    /**
+     * Looks up a batch of players
+     * 
+     * @param playerIds The players to look up
+     * @return The first join information for every player that has joined, keyed by UUID.
+     *         Players that have never joined are left out.
+     * @throws IOException If the store could not be read
+     */
+    Map<UUID, FirstJoinInfo> lookup(Collection<UUID> playerIds) throws IOException;
+    
+    /**
+     * Records a batch of first joins
+     * Players that are already recorded must keep their existing entry
+     * 
+     * @param joins The first joins to record
+     * @throws IOException If the store could not be written
+     */
+    void record(Collection<FirstJoinInfo> joins) throws IOException;
+    
+    /**
+     * Releases any resources held by the store
+     * 
+     * @throws IOException If the store could not be closed cleanly
+     */
+    void close() throws IOException;
+}
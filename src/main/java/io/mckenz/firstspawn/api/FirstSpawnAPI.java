@@ -5,6 +5,11 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * API interface for the FirstSpawn plugin
  * This allows other plugins to interact with FirstSpawn functionality
@@ -25,6 +30,52 @@ public interface FirstSpawnAPI {
      */
     void setFirstSpawnLocation(Location location);
     
+    /**
+     * Gets all spawn points new players can be sent to
+     * If no spawn points are configured this holds a single "default" point at the first spawn location
+     * 
+     * @return An unmodifiable list of spawn points
+     */
+    List<SpawnPoint> getSpawnPoints();
+    
+    /**
+     * Gets a spawn point by name
+     * 
+     * @param name The spawn point name, case insensitive
+     * @return The spawn point, or null if not found
+     */
+    SpawnPoint getSpawnPoint(String name);
+    
+    /**
+     * Adds or replaces a named spawn point and saves it to the configuration
+     * Once any named spawn point exists, the first spawn location is no longer used as the default point
+     * 
+     * @param point The spawn point to add or replace
+     */
+    void setSpawnPoint(SpawnPoint point);
+    
+    /**
+     * Removes a named spawn point from the configuration
+     * 
+     * @param name The spawn point name
+     * @return True if the spawn point existed and was removed, false otherwise
+     */
+    boolean removeSpawnPoint(String name);
+    
+    /**
+     * Gets the strategy used to choose a spawn point for each new player
+     * 
+     * @return The current spawn strategy
+     */
+    SpawnStrategy getSpawnStrategy();
+    
+    /**
+     * Sets the strategy used to choose a spawn point for each new player
+     * 
+     * @param strategy The spawn strategy to use
+     */
+    void setSpawnStrategy(SpawnStrategy strategy);
+    
     /**
      * Teleports a player to the first spawn location
      * 
@@ -43,6 +94,62 @@ public interface FirstSpawnAPI {
      */
     boolean teleportToFirstSpawn(Player player, boolean setBedSpawn, boolean sendWelcomeMessage);
     
+    /**
+     * Sends many players to first spawn, spread over several ticks
+     * Each player is teleported on the thread that owns them, without setting their bed spawn or sending
+     * the welcome message. The pre-teleport event fires for each of them and can cancel their teleport.
+     * 
+     * @param players The players to send
+     * @return A future completed with the number of players teleported once every player has been handled
+     */
+    CompletableFuture<Integer> teleportAllToFirstSpawn(Collection<? extends Player> players);
+    
+    /**
+     * Works out where a player would be sent by first spawn, without teleporting them or firing any events
+     * Spawn rules, the spawn region and the spawn point strategy are applied as they would be on a join,
+     * but nothing is consumed, so a WEIGHTED or region pick may differ from the one the player actually gets.
+     * 
+     * @param player The player to preview
+     * @return The spawn point the player would be sent to, or null if there is none
+     */
+    SpawnPoint previewSpawnFor(Player player);
+    
+    /**
+     * Checks if a player is recorded in the first join ledger
+     * Players are recorded once their first spawn completes, or when they first join after the
+     * plugin was installed if they already had player data
+     * 
+     * @param playerId The player's UUID
+     * @return True if the player has joined before, false otherwise
+     */
+    boolean hasJoinedBefore(UUID playerId);
+    
+    /**
+     * Checks if a player's next join would be their first, going by the first join ledger
+     * The opposite of {@link #hasJoinedBefore(UUID)}, and works for offline players too.
+     * 
+     * @param playerId The player's UUID
+     * @return True if the player is not recorded as having joined, false otherwise
+     */
+    boolean isFirstJoin(UUID playerId);
+    
+    /**
+     * Gets what was recorded about a player's first join
+     * 
+     * @param playerId The player's UUID
+     * @return The first join information, or null if the player is not recorded
+     */
+    FirstJoinInfo getFirstJoinInfo(UUID playerId);
+    
+    /**
+     * Replaces the network-wide first join store with a custom implementation,
+     * for example one backed by a database shared by every server behind a proxy
+     * The store configured in config.yml is closed and no longer used.
+     * 
+     * @param store The store to use, or null to go back to the store configured in config.yml
+     */
+    void setFirstJoinStore(FirstJoinStore store);
+    
     /**
      * Checks if the plugin functionality is enabled
      * 
@@ -0,0 +1,94 @@
+package io.mckenz.firstspawn.api;
+
+import org.bukkit.Location;
+
+/**
+ * A named location that new players can be sent to
+ * Instances are immutable; the location is copied on the way in and on the way out
+ */
+public final class SpawnPoint {
+    private final String name;
+    private final Location location;
+    private final int weight;
+    private final int capacity;
+    private final String overflow;
+    
+    /**
+     * Creates a new SpawnPoint with a weight of 1, no capacity limit and no overflow target
+     * 
+     * @param name The unique name of the spawn point
+     * @param location The location of the spawn point
+     */
+    public SpawnPoint(String name, Location location) {
+        this(name, location, 1, 0, null);
+    }
+    
+    /**
+     * Creates a new SpawnPoint
+     * 
+     * @param name The unique name of the spawn point
+     * @param location The location of the spawn point
+     * @param weight The relative weight used by the weighted and least-occupied strategies
+     * @param capacity The maximum number of players near the point before it overflows, or 0 for no limit
+     * @param overflow The name of the spawn point used when this one is full, or null for none
+     */
+    public SpawnPoint(String name, Location location, int weight, int capacity, String overflow) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Spawn point name cannot be empty");
+        }
+        if (location == null || location.getWorld() == null) {
+            throw new IllegalArgumentException("Spawn point location must have a world");
+        }
+        
+        this.name = name;
+        this.location = location.clone();
+        this.weight = Math.max(1, weight);
+        this.capacity = Math.max(0, capacity);
+        this.overflow = overflow == null || overflow.isEmpty() ? null : overflow;
+    }
+    
+    /**
+     * Gets the name of the spawn point
+     * 
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets a copy of the spawn point location
+     * 
+     * @return The location
+     */
+    public Location getLocation() {
+        return location.clone();
+    }
+    
+    /**
+     * Gets the relative weight of the spawn point
+     * 
+     * @return The weight, always at least 1
+     */
+    public int getWeight() {
+        return weight;
+    }
+    
+    /**
+     * Gets the maximum number of players near the point before new players overflow
+     * 
+     * @return The capacity, or 0 for no limit
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Gets the name of the spawn point used once this one is at capacity
+     * 
+     * @return The overflow spawn point name, or null for none
+     */
+    public String getOverflow() {
+        return overflow;
+    }
+}
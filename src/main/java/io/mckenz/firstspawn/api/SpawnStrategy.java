@@ -0,0 +1,45 @@
+package io.mckenz.firstspawn.api;
+
+/**
+ * Strategies for choosing which spawn point a new player is sent to
+ */
+public enum SpawnStrategy {
+    /**
+     * Cycles through the spawn points in order
+     */
+    ROUND_ROBIN,
+    
+    /**
+     * Picks a random spawn point, weighted by each point's weight
+     */
+    WEIGHTED,
+    
+    /**
+     * Picks the spawn point with the fewest players nearby relative to its weight
+     */
+    LEAST_OCCUPIED,
+    
+    /**
+     * Picks a spawn point from a hash of the player's UUID, so the same player
+     * always gets the same point
+     */
+    HASH;
+    
+    /**
+     * Parses a strategy name, ignoring case and treating dashes as underscores
+     * 
+     * @param name The strategy name
+     * @return The matching strategy, or null if the name is not recognised
+     */
+    public static SpawnStrategy fromString(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        
+        try {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.mckenz.firstspawn.api.events;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event that is called once per tick with every player sent to first spawn during that tick
+ * Meant for listeners such as analytics that don't need to act on each player as it happens,
+ * so a join storm or a bulk send calls them once rather than once per player. The individual
+ * {@link PlayerFirstSpawnedEvent} is still called for each player.
+ */
+public class PlayerFirstSpawnBatchEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+    private final List<Spawn> spawns;
+    
+    /**
+     * Creates a new PlayerFirstSpawnBatchEvent
+     * 
+     * @param spawns The first spawns completed since the last batch, in order
+     */
+    public PlayerFirstSpawnBatchEvent(List<Spawn> spawns) {
+        this.spawns = List.copyOf(spawns);
+    }
+    
+    /**
+     * Gets the first spawns in this batch
+     * 
+     * @return An unmodifiable list of the spawns, in the order they completed
+     */
+    public List<Spawn> getSpawns() {
+        return spawns;
+    }
+    
+    /**
+     * Gets the players in this batch
+     * 
+     * @return The players, in the order their spawns completed
+     */
+    public List<Player> getPlayers() {
+        List<Player> players = new ArrayList<>(spawns.size());
+        for (Spawn spawn : spawns) {
+            players.add(spawn.player());
+        }
+        return players;
+    }
+    
+    /**
+     * Gets the number of first spawns in this batch
+     * 
+     * @return The batch size
+     */
+    public int size() {
+        return spawns.size();
+    }
+    
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+    
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+    
+    /**
+     * A completed first spawn
+     * 
+     * @param player The player who was teleported, who may have left since
+     * @param spawnLocation The location the player was teleported to
+     * @param spawnPoint The name of the spawn point used
+     * @param isFirstJoin Whether this was the player's first time joining the server
+     * @param welcomeMessageSent Whether a welcome message was sent to the player
+     */
+    public record Spawn(Player player, Location spawnLocation, String spawnPoint, boolean isFirstJoin,
+                        boolean welcomeMessageSent) {
+    }
+}
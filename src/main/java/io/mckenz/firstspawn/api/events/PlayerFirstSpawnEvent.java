@@ -8,12 +8,13 @@ import org.bukkit.event.HandlerList;
 
 /**
  * Event that is called when a player is about to be teleported to the first spawn location
- * This event is cancellable, allowing other plugins to prevent the teleportation
+ * This event is cancellable, allowing other plugins to prevent the teleportation,
+ * and the target location can be replaced with {@link #setTargetLocation(Location)}
  */
 public class PlayerFirstSpawnEvent extends Event implements Cancellable {
     private static final HandlerList HANDLERS = new HandlerList();
     private final Player player;
-    private final Location targetLocation;
+    private Location targetLocation;
     private final boolean isFirstJoin;
     private boolean cancelled;
     private String cancelReason;
@@ -27,7 +28,7 @@ public class PlayerFirstSpawnEvent extends Event implements Cancellable {
      */
     public PlayerFirstSpawnEvent(Player player, Location targetLocation, boolean isFirstJoin) {
         this.player = player;
-        this.targetLocation = targetLocation;
+        this.targetLocation = targetLocation.clone();
         this.isFirstJoin = isFirstJoin;
         this.cancelled = false;
         this.cancelReason = null;
@@ -43,12 +44,26 @@ public class PlayerFirstSpawnEvent extends Event implements Cancellable {
     }
     
     /**
-     * Gets the location the player will be teleported to
+     * Gets a copy of the location the player will be teleported to
+     * Changing the copy has no effect; use {@link #setTargetLocation(Location)} to send the player elsewhere.
      * 
      * @return The target location
      */
     public Location getTargetLocation() {
-        return targetLocation;
+        return targetLocation.clone();
+    }
+    
+    /**
+     * Sets the location the player will be teleported to instead of the chosen spawn point
+     * 
+     * @param targetLocation The new target location
+     * @throws IllegalArgumentException If the location is null or has no world
+     */
+    public void setTargetLocation(Location targetLocation) {
+        if (targetLocation == null || targetLocation.getWorld() == null) {
+            throw new IllegalArgumentException("Target location must have a world");
+        }
+        this.targetLocation = targetLocation.clone();
     }
     
     /**
@@ -1,19 +1,43 @@
 package io.mckenz.firstspawn.commands;
 
 import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.api.SpawnPoint;
+import io.mckenz.firstspawn.metrics.LatencyHistogram;
+import io.mckenz.firstspawn.metrics.SpawnMetrics;
+import io.mckenz.firstspawn.metrics.SpawnTrace;
+import io.mckenz.firstspawn.spawn.ChunkPregenerator;
+import io.mckenz.firstspawn.spawn.FirstSpawnQueue;
+import io.mckenz.firstspawn.spawn.OnboardingPipeline;
+import io.mckenz.firstspawn.spawn.RegionSpawnPool;
+import io.mckenz.firstspawn.storage.FirstJoinLedger;
+import io.mckenz.firstspawn.storage.PlayerDataImporter;
+import io.mckenz.firstspawn.storage.SpawnAuditLog;
 import io.mckenz.firstspawn.util.LocationFormatter;
+import io.mckenz.firstspawn.util.SchedulerUtil;
 
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -21,8 +45,18 @@ import java.util.stream.Collectors;
  */
 public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
     
+    // Larger radii are better served by a dedicated world pregeneration plugin
+    private static final int MAX_PREGEN_RADIUS = 64;
+    
     private final FirstSpawn plugin;
-    private final List<String> subcommands = Arrays.asList("set", "status", "test", "toggle", "reload", "debug");
+    private static final DateTimeFormatter TRACE_TIME = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final int DEFAULT_TRACE_COUNT = 10;
+    private static final DateTimeFormatter HISTORY_DAY = DateTimeFormatter.ofPattern("EEE yyyy-MM-dd");
+    private static final DateTimeFormatter HISTORY_HOUR = DateTimeFormatter.ofPattern("EEE HH:00").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+    private static final int HISTORY_PLAYER_LIMIT = 10;
+    
+    private final List<String> subcommands = Arrays.asList("set", "status", "test", "toggle", "reload", "debug", "pregen", "metrics", "trace", "import", "sendall", "history");
     
     /**
      * Constructor for the command executor
@@ -38,12 +72,12 @@ public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
         if (!command.getName().equalsIgnoreCase("firstspawn")) {
             return false;
         }
-
+        
         if (args.length == 0) {
             showHelp(sender);
             return true;
         }
-
+        
         String subCommand = args[0].toLowerCase();
         
         // Check permissions for each subcommand
@@ -51,26 +85,44 @@ public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(ChatColor.RED + "You don't have permission to use this command.");
             return true;
         }
-
+        
         switch (subCommand) {
             case "set":
                 return handleSetCommand(sender);
-                
+            
             case "status":
                 return handleStatusCommand(sender);
-                
+            
             case "test":
                 return handleTestCommand(sender);
-                
+            
             case "toggle":
                 return handleToggleCommand(sender);
-                
+            
             case "debug":
                 return handleDebugCommand(sender);
-                
+            
             case "reload":
                 return handleReloadCommand(sender);
-                
+            
+            case "pregen":
+                return handlePregenCommand(sender, args);
+            
+            case "metrics":
+                return handleMetricsCommand(sender, args);
+            
+            case "trace":
+                return handleTraceCommand(sender, args);
+            
+            case "import":
+                return handleImportCommand(sender, args);
+            
+            case "sendall":
+                return handleSendAllCommand(sender, args);
+            
+            case "history":
+                return handleHistoryCommand(sender, args);
+            
             default:
                 sender.sendMessage(ChatColor.RED + "Unknown subcommand. Use /firstspawn for help.");
                 return true;
@@ -86,6 +138,51 @@ public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
                 .collect(Collectors.toList());
         }
         
+        if (args.length == 2 && args[0].equalsIgnoreCase("pregen") && hasPermission(sender, "pregen")) {
+            return Arrays.asList("status", "cancel").stream()
+                .filter(s -> s.startsWith(args[1].toLowerCase()))
+                .collect(Collectors.toList());
+        }
+        
+        if (args.length == 2 && args[0].equalsIgnoreCase("sendall") && hasPermission(sender, "sendall")) {
+            List<String> filters = new ArrayList<>();
+            for (World world : plugin.getServer().getWorlds()) {
+                filters.add("world:" + world.getName());
+            }
+            filters.add("perm:");
+            return filters.stream()
+                .filter(s -> s.toLowerCase().startsWith(args[1].toLowerCase()))
+                .collect(Collectors.toList());
+        }
+        
+        if (args.length == 2 && args[0].equalsIgnoreCase("history") && hasPermission(sender, "history")) {
+            List<String> options = new ArrayList<>(Arrays.asList("hours", "days"));
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                options.add(player.getName());
+            }
+            return options.stream()
+                .filter(s -> s.toLowerCase().startsWith(args[1].toLowerCase()))
+                .collect(Collectors.toList());
+        }
+        
+        if (args.length == 2 && args[0].equalsIgnoreCase("import") && hasPermission(sender, "import")) {
+            return Arrays.asList("status", "cancel").stream()
+                .filter(s -> s.startsWith(args[1].toLowerCase()))
+                .collect(Collectors.toList());
+        }
+        
+        if (args.length == 2 && args[0].equalsIgnoreCase("metrics") && hasPermission(sender, "metrics")) {
+            return "reset".startsWith(args[1].toLowerCase()) ? Arrays.asList("reset") : new ArrayList<>();
+        }
+        
+        if (args.length == 2 && args[0].equalsIgnoreCase("trace") && hasPermission(sender, "trace")) {
+            return plugin.getSpawnTraces().recent(Integer.MAX_VALUE).stream()
+                .map(SpawnTrace::playerName)
+                .distinct()
+                .filter(s -> s.toLowerCase().startsWith(args[1].toLowerCase()))
+                .collect(Collectors.toList());
+        }
+        
         return new ArrayList<>();
     }
     
@@ -135,6 +232,30 @@ public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
         if (hasPermission(sender, "debug")) {
             sender.sendMessage(ChatColor.YELLOW + "/firstspawn debug " + ChatColor.WHITE + "- Toggle debug mode");
         }
+        
+        if (hasPermission(sender, "pregen")) {
+            sender.sendMessage(ChatColor.YELLOW + "/firstspawn pregen <radius|status|cancel> " + ChatColor.WHITE + "- Pregenerate chunks around spawn");
+        }
+        
+        if (hasPermission(sender, "sendall")) {
+            sender.sendMessage(ChatColor.YELLOW + "/firstspawn sendall [world:<name>|perm:<permission>] " + ChatColor.WHITE + "- Send online players to first spawn");
+        }
+        
+        if (hasPermission(sender, "import")) {
+            sender.sendMessage(ChatColor.YELLOW + "/firstspawn import [status|cancel] " + ChatColor.WHITE + "- Record existing players as joined");
+        }
+        
+        if (hasPermission(sender, "metrics")) {
+            sender.sendMessage(ChatColor.YELLOW + "/firstspawn metrics [reset] " + ChatColor.WHITE + "- Show first spawn latencies");
+        }
+        
+        if (hasPermission(sender, "trace")) {
+            sender.sendMessage(ChatColor.YELLOW + "/firstspawn trace [count|player] " + ChatColor.WHITE + "- Show recent first spawns");
+        }
+        
+        if (hasPermission(sender, "history")) {
+            sender.sendMessage(ChatColor.YELLOW + "/firstspawn history <hours [n]|days [n]|player> " + ChatColor.WHITE + "- Show new players over time, or a player's first spawn");
+        }
     }
     
     /**
@@ -148,7 +269,7 @@ public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(ChatColor.RED + "This command can only be used by players!");
             return true;
         }
-
+        
         Player player = (Player) sender;
         Location location = player.getLocation();
         plugin.setFirstSpawnLocation(location);
@@ -179,9 +300,46 @@ public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
             ChatColor.GRAY + " (config.yml)");
         sender.sendMessage(ChatColor.YELLOW + "Current spawn location: " + 
             LocationFormatter.formatLocation(plugin.getFirstSpawnLocation()));
+        sender.sendMessage(ChatColor.YELLOW + "Spawn points: " + ChatColor.GREEN + 
+            plugin.getSpawnPoints().size() + ChatColor.GRAY + " (" + plugin.getSpawnStrategy() + ")");
+        for (SpawnPoint point : plugin.getSpawnPoints()) {
+            sender.sendMessage(ChatColor.GRAY + " - " + point.getName() + ": " + 
+                LocationFormatter.formatLocation(point.getLocation()));
+        }
+        if (plugin.getSpawnRules().size() > 0) {
+            sender.sendMessage(ChatColor.YELLOW + "Spawn rules: " + ChatColor.GREEN + plugin.getSpawnRules().size());
+        }
+        RegionSpawnPool region = plugin.getRegionSpawnPool();
+        if (region.isEnabled()) {
+            sender.sendMessage(ChatColor.YELLOW + "Spawn region: " + ChatColor.GREEN + region.getReadyCount() + 
+                " locations ready" + ChatColor.GRAY + " (" + region.getScannedChunkCount() + " chunks scanned)");
+        }
         sender.sendMessage(ChatColor.YELLOW + "Welcome message: " + 
             (plugin.getWelcomeMessage().isEmpty() ? ChatColor.RED + "None" : 
              ChatColor.GREEN + plugin.getWelcomeMessage()));
+        int locales = plugin.getWelcomeMessages().getLocaleCount();
+        if (locales > 0) {
+            sender.sendMessage(ChatColor.YELLOW + "Welcome translations: " + ChatColor.GREEN + locales);
+        }
+        OnboardingPipeline onboarding = plugin.getOnboardingPipeline();
+        if (onboarding.getStageCount() > 0) {
+            sender.sendMessage(ChatColor.YELLOW + "Onboarding: " + ChatColor.GREEN + onboarding.getStageCount() + 
+                " stage(s)" + ChatColor.GRAY + " (" + onboarding.getActiveCount() + " player(s) in progress)");
+        }
+        FirstSpawnQueue queue = plugin.getFirstSpawnQueue();
+        if (queue.isEnabled()) {
+            sender.sendMessage(ChatColor.YELLOW + "First spawn queue: " + ChatColor.GREEN + queue.getQueueDepth() + 
+                " waiting" + ChatColor.GRAY + String.format(" (%.2f/tick, %.1fms tick)", 
+                    queue.getBudget(), queue.getAverageTickMillis()));
+            sender.sendMessage(ChatColor.YELLOW + "Queue wait: " + ChatColor.GREEN + 
+                "p50 " + queue.getWaitPercentile(50) + "ms, p95 " + queue.getWaitPercentile(95) + 
+                "ms, p99 " + queue.getWaitPercentile(99) + "ms");
+        } else {
+            sender.sendMessage(ChatColor.YELLOW + "First spawn queue: " + ChatColor.RED + "Disabled");
+        }
+        sender.sendMessage(ChatColor.YELLOW + "Spawn chunks held: " + ChatColor.GREEN + 
+            plugin.getSpawnChunkKeeper().getHeldChunkCount() + 
+            ChatColor.GRAY + " (radius " + plugin.getSpawnChunkKeeper().getCurrentRadius() + ")");
         
         return true;
     }
@@ -198,8 +356,7 @@ public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        Location firstSpawnLocation = plugin.getFirstSpawnLocation();
-        if (firstSpawnLocation == null) {
+        if (!plugin.hasSpawnLocation()) {
             sender.sendMessage(ChatColor.RED + "Spawn location is not set!");
             return true;
         }
@@ -259,4 +416,399 @@ public class FirstSpawnCommand implements CommandExecutor, TabCompleter {
         
         return true;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Handles the pregen subcommand
+     * 
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return True if the command was handled successfully
+     */
+    private boolean handlePregenCommand(CommandSender sender, String[] args) {
+        ChunkPregenerator pregenerator = plugin.getChunkPregenerator();
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage: /firstspawn pregen <radius|status|cancel>");
+            return true;
+        }
+        
+        // The pregenerator's job lives on the global scheduler thread, so it is only touched from there
+        String action = args[1].toLowerCase();
+        if (action.equals("status")) {
+            SchedulerUtil.runDelayedGlobal(plugin, () -> {
+                String progress = pregenerator.getProgress();
+                sender.sendMessage(progress == null ? 
+                    ChatColor.YELLOW + "No pregeneration is running." : 
+                    ChatColor.YELLOW + "Pregeneration: " + ChatColor.GREEN + progress);
+            }, 1L);
+            return true;
+        }
+        
+        if (action.equals("cancel")) {
+            SchedulerUtil.runDelayedGlobal(plugin, () -> sender.sendMessage(pregenerator.cancel() ? 
+                ChatColor.GREEN + "Pregeneration cancelled." : 
+                ChatColor.YELLOW + "No pregeneration is running."), 1L);
+            return true;
+        }
+        
+        int radius;
+        try {
+            radius = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Radius must be a number of chunks.");
+            return true;
+        }
+        if (radius < 0 || radius > MAX_PREGEN_RADIUS) {
+            sender.sendMessage(ChatColor.RED + "Radius must be between 0 and " + MAX_PREGEN_RADIUS + " chunks.");
+            return true;
+        }
+        if (!plugin.hasSpawnLocation()) {
+            sender.sendMessage(ChatColor.RED + "First spawn location is not set! Use /firstspawn set to set it.");
+            return true;
+        }
+        
+        List<Location> centers = new ArrayList<>();
+        for (SpawnPoint point : plugin.getSpawnPoints()) {
+            centers.add(point.getLocation());
+        }
+        SchedulerUtil.runDelayedGlobal(plugin, () -> {
+            if (!pregenerator.start(centers, radius, sender)) {
+                sender.sendMessage(ChatColor.RED + "Pregeneration is already running. Use /firstspawn pregen cancel to stop it.");
+            }
+        }, 1L);
+        return true;
+    }
+    
+    /**
+     * Handles the sendall subcommand
+     * 
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return True if the command was handled, false otherwise
+     */
+    private boolean handleSendAllCommand(CommandSender sender, String[] args) {
+        if (!plugin.hasSpawnLocation()) {
+            sender.sendMessage(ChatColor.RED + "First spawn location is not set! Use /firstspawn set to set it.");
+            return true;
+        }
+        
+        String filter = args.length >= 2 ? args[1] : "";
+        String lower = filter.toLowerCase();
+        Predicate<Player> matches;
+        if (filter.isEmpty()) {
+            matches = player -> true;
+        } else if (lower.startsWith("world:") && filter.length() > 6) {
+            String worldName = filter.substring(6);
+            if (plugin.getServer().getWorld(worldName) == null) {
+                sender.sendMessage(ChatColor.RED + "World '" + worldName + "' not found!");
+                return true;
+            }
+            matches = player -> player.getWorld().getName().equals(worldName);
+        } else if (lower.startsWith("perm:") && filter.length() > 5) {
+            String permission = filter.substring(5);
+            matches = player -> player.hasPermission(permission);
+        } else {
+            sender.sendMessage(ChatColor.RED + "Usage: /firstspawn sendall [world:<name>|perm:<permission>]");
+            return true;
+        }
+        
+        List<Player> players = new ArrayList<>();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            if (matches.test(player)) {
+                players.add(player);
+            }
+        }
+        if (players.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "No online players match.");
+            return true;
+        }
+        
+        sender.sendMessage(ChatColor.YELLOW + "Sending " + players.size() + " player(s) to first spawn...");
+        plugin.teleportAllToFirstSpawn(players).thenAccept(teleported -> SchedulerUtil.runDelayedGlobal(plugin, 
+            () -> sender.sendMessage(ChatColor.GREEN + "Sent " + teleported + " of " + players.size() + 
+                " player(s) to first spawn."), 1L));
+        return true;
+    }
+    
+    /**
+     * Handles the import subcommand
+     * 
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return True if the command was handled, false otherwise
+     */
+    private boolean handleImportCommand(CommandSender sender, String[] args) {
+        PlayerDataImporter importer = plugin.getPlayerDataImporter();
+        String action = args.length >= 2 ? args[1].toLowerCase() : "";
+        if (action.equals("status")) {
+            sender.sendMessage(importer.isRunning() ? 
+                ChatColor.YELLOW + "Import: " + ChatColor.GREEN + importer.getProgress() : 
+                ChatColor.YELLOW + "No import is running.");
+            return true;
+        }
+        
+        if (action.equals("cancel")) {
+            sender.sendMessage(importer.cancel() ? 
+                ChatColor.GREEN + "Import cancelled. Players imported so far have been kept." : 
+                ChatColor.YELLOW + "No import is running.");
+            return true;
+        }
+        
+        FirstJoinLedger ledger = plugin.getFirstJoinLedger();
+        if (ledger == null) {
+            sender.sendMessage(ChatColor.RED + "The first join ledger could not be opened, check the console for errors.");
+            return true;
+        }
+        if (plugin.getServer().getWorlds().isEmpty()) {
+            sender.sendMessage(ChatColor.RED + "No worlds are loaded.");
+            return true;
+        }
+        
+        // Player data is kept in the main world's folder
+        File playerData = new File(plugin.getServer().getWorlds().get(0).getWorldFolder(), "playerdata");
+        if (!importer.start(ledger, playerData.toPath(), sender)) {
+            sender.sendMessage(ChatColor.RED + "An import is already running. Use /firstspawn import cancel to stop it.");
+        }
+        return true;
+    }
+    
+    /**
+     * Handles the metrics subcommand
+     * 
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return True if the command was handled, false otherwise
+     */
+    private boolean handleMetricsCommand(CommandSender sender, String[] args) {
+        SpawnMetrics metrics = plugin.getSpawnMetrics();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage(ChatColor.GREEN + "First spawn metrics have been reset.");
+            return true;
+        }
+        
+        sender.sendMessage(ChatColor.GOLD + "FirstSpawn Metrics:");
+        sender.sendMessage(ChatColor.YELLOW + "Completed: " + ChatColor.GREEN + metrics.getSuccesses() + 
+            ChatColor.YELLOW + ", cancelled: " + ChatColor.GREEN + metrics.getCancellations() + 
+            ChatColor.YELLOW + ", failed: " + (metrics.getFailures() > 0 ? ChatColor.RED : ChatColor.GREEN) + metrics.getFailures());
+        for (SpawnMetrics.Phase phase : SpawnMetrics.Phase.values()) {
+            LatencyHistogram histogram = metrics.getHistogram(phase);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            sender.sendMessage(ChatColor.YELLOW + phase.name().toLowerCase().replace('_', ' ') + ": " + ChatColor.GREEN + 
+                String.format("p50 %.3fms, p99 %.3fms, max %.3fms", 
+                    SpawnMetrics.toMillis(histogram.getPercentile(50)), 
+                    SpawnMetrics.toMillis(histogram.getPercentile(99)), 
+                    SpawnMetrics.toMillis(histogram.getMax())) + 
+                ChatColor.GRAY + " (" + histogram.getCount() + " samples)");
+        }
+        return true;
+    }
+    
+    /**
+     * Handles the trace subcommand
+     * 
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return True if the command was handled, false otherwise
+     */
+    private boolean handleTraceCommand(CommandSender sender, String[] args) {
+        int count = DEFAULT_TRACE_COUNT;
+        String playerName = null;
+        if (args.length >= 2) {
+            try {
+                count = Math.max(1, Integer.parseInt(args[1]));
+            } catch (NumberFormatException e) {
+                playerName = args[1];
+            }
+        }
+        
+        List<SpawnTrace> traces = plugin.getSpawnTraces().recent(Integer.MAX_VALUE);
+        if (playerName != null) {
+            String name = playerName;
+            traces = traces.stream()
+                .filter(trace -> trace.playerName().equalsIgnoreCase(name))
+                .collect(Collectors.toList());
+        }
+        
+        if (traces.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + (playerName == null 
+                ? "No first spawns have been traced yet." 
+                : "No recent first spawns for " + playerName + "."));
+            return true;
+        }
+        
+        sender.sendMessage(ChatColor.GOLD + "Recent first spawns " + ChatColor.GRAY + "(newest first, last " + 
+            plugin.getSpawnTraces().getCapacity() + " kept):");
+        for (SpawnTrace trace : traces.subList(0, Math.min(count, traces.size()))) {
+            sender.sendMessage(formatTrace(trace, TRACE_TIME));
+        }
+        return true;
+    }
+    
+    /**
+     * Handles the history subcommand
+     * The history is read off the main thread, and the answer sent back on the global thread.
+     * 
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return True if the command was handled, false otherwise
+     */
+    private boolean handleHistoryCommand(CommandSender sender, String[] args) {
+        SpawnAuditLog history = plugin.getSpawnAuditLog();
+        if (history == null) {
+            sender.sendMessage(ChatColor.RED + "First spawn history is disabled. Enable audit-log in config.yml.");
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage: /firstspawn history <hours [n]|days [n]|player>");
+            return true;
+        }
+        
+        String mode = args[1].toLowerCase();
+        int amount;
+        if (mode.equals("hours") || mode.equals("days")) {
+            try {
+                amount = args.length >= 3 ? Integer.parseInt(args[2]) : (mode.equals("hours") ? 24 : 7);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "Invalid number: " + args[2]);
+                return true;
+            }
+            amount = Math.max(1, Math.min(amount, mode.equals("hours") ? 168 : 90));
+        } else {
+            amount = HISTORY_PLAYER_LIMIT;
+        }
+        
+        int count = amount;
+        SchedulerUtil.runAsync(plugin, () -> {
+            List<String> lines;
+            try {
+                lines = switch (mode) {
+                    case "hours" -> historyByHour(history, count);
+                    case "days" -> historyByDay(history, count);
+                    default -> historyOfPlayer(history, args[1]);
+                };
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to read first spawn history: " + e.getMessage());
+                lines = List.of(ChatColor.RED + "Failed to read first spawn history: " + e.getMessage());
+            }
+            List<String> reply = lines;
+            SchedulerUtil.runDelayedGlobal(plugin, () -> reply.forEach(sender::sendMessage), 1L);
+        });
+        return true;
+    }
+    
+    /**
+     * Lists new players per hour for the last hours, oldest first
+     */
+    private List<String> historyByHour(SpawnAuditLog history, int hours) throws IOException {
+        ZonedDateTime end = ZonedDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        long from = end.minusHours(hours).toInstant().toEpochMilli();
+        long[] counts = history.countFirstSpawns(from, TimeUnit.HOURS.toMillis(1), hours);
+        
+        List<String> lines = new ArrayList<>();
+        lines.add(ChatColor.GOLD + "New players per hour " + ChatColor.GRAY + "(last " + hours + " hours, " + 
+            sum(counts) + " total):");
+        for (int i = 0; i < counts.length; i++) {
+            lines.add(ChatColor.YELLOW + HISTORY_HOUR.format(Instant.ofEpochMilli(from + TimeUnit.HOURS.toMillis(i))) + 
+                " " + ChatColor.GREEN + counts[i]);
+        }
+        return lines;
+    }
+    
+    /**
+     * Lists new players per day for the last days, with each day's busiest hour, oldest first
+     */
+    private List<String> historyByDay(SpawnAuditLog history, int days) throws IOException {
+        LocalDate firstDay = LocalDate.now().minusDays(days - 1L);
+        long from = firstDay.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long[] counts = history.countFirstSpawns(from, TimeUnit.HOURS.toMillis(1), days * 24);
+        
+        List<String> lines = new ArrayList<>();
+        lines.add(ChatColor.GOLD + "New players per day " + ChatColor.GRAY + "(last " + days + " days, " + 
+            sum(counts) + " total):");
+        for (int day = 0; day < days; day++) {
+            long total = 0;
+            int busiest = 0;
+            for (int hour = 0; hour < 24; hour++) {
+                long count = counts[day * 24 + hour];
+                total += count;
+                if (count > counts[day * 24 + busiest]) {
+                    busiest = hour;
+                }
+            }
+            String line = ChatColor.YELLOW + HISTORY_DAY.format(firstDay.plusDays(day)) + " " + ChatColor.GREEN + total;
+            if (total > 0) {
+                line += ChatColor.GRAY + String.format(" (busiest %02d:00 with %d)", busiest, counts[day * 24 + busiest]);
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+    
+    /**
+     * Lists the recorded first spawns of a player, given a name or UUID
+     */
+    private List<String> historyOfPlayer(SpawnAuditLog history, String player) throws IOException {
+        UUID playerId = null;
+        try {
+            playerId = UUID.fromString(player);
+        } catch (IllegalArgumentException e) {
+            // Look the player up by name
+        }
+        
+        List<SpawnTrace> found = history.findPlayer(playerId, player, HISTORY_PLAYER_LIMIT);
+        if (found.isEmpty()) {
+            return List.of(ChatColor.YELLOW + "No first spawn recorded for " + player + ".");
+        }
+        
+        List<String> lines = new ArrayList<>();
+        lines.add(ChatColor.GOLD + "First spawn history of " + player + ChatColor.GRAY + " (oldest first):");
+        for (SpawnTrace trace : found) {
+            lines.add(formatTrace(trace, HISTORY_TIME));
+        }
+        return lines;
+    }
+    
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+    
+    /**
+     * Formats a spawn trace as one chat line
+     * 
+     * @param trace The trace to format
+     * @param timeFormat How to format the time of the trace
+     * @return The formatted line
+     */
+    private String formatTrace(SpawnTrace trace, DateTimeFormatter timeFormat) {
+        ChatColor outcomeColor = switch (trace.outcome()) {
+            case SUCCESS -> ChatColor.GREEN;
+            case CANCELLED -> ChatColor.YELLOW;
+            case FAILED -> ChatColor.RED;
+        };
+        
+        StringBuilder line = new StringBuilder()
+            .append(ChatColor.GRAY).append(timeFormat.format(Instant.ofEpochMilli(trace.time()))).append(' ')
+            .append(ChatColor.WHITE).append(trace.playerName()).append(' ')
+            .append(outcomeColor).append(trace.outcome().name().toLowerCase());
+        if (trace.spawnPoint() != null) {
+            line.append(ChatColor.YELLOW).append(" at ").append(ChatColor.WHITE).append(trace.spawnPoint());
+        }
+        if (trace.world() != null) {
+            line.append(ChatColor.GRAY).append(String.format(" (%s %.1f, %.1f, %.1f)", 
+                trace.world(), trace.x(), trace.y(), trace.z()));
+        }
+        if (trace.durationNanos() >= 0) {
+            line.append(ChatColor.GRAY).append(String.format(" %.3fms", SpawnMetrics.toMillis(trace.durationNanos())));
+        }
+        if (trace.reason() != null) {
+            line.append(ChatColor.YELLOW).append(": ").append(outcomeColor).append(trace.reason());
+        }
+        return line.toString();
+    }
+}
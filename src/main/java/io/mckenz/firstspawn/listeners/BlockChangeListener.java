@@ -0,0 +1,91 @@
+package io.mckenz.firstspawn.listeners;
+
+import io.mckenz.firstspawn.spawn.RegionSpawnPool;
+import io.mckenz.firstspawn.spawn.SafeLocationResolver;
+
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+/**
+ * Listener for block changes that may make a spawn point or spawn region location unsafe
+ */
+public class BlockChangeListener implements Listener {
+    
+    private final SafeLocationResolver resolver;
+    private final RegionSpawnPool regionPool;
+    
+    /**
+     * Constructor for the listener
+     * 
+     * @param resolver The resolver to notify about block changes
+     * @param regionPool The spawn region pool to notify about block changes
+     */
+    public BlockChangeListener(SafeLocationResolver resolver, RegionSpawnPool regionPool) {
+        this.resolver = resolver;
+        this.regionPool = regionPool;
+    }
+    
+    /**
+     * Handles blocks broken by players
+     * 
+     * @param event The block break event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        changed(event.getBlock());
+    }
+    
+    /**
+     * Handles blocks placed by players
+     * 
+     * @param event The block place event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        changed(event.getBlock());
+    }
+    
+    /**
+     * Handles blocks destroyed by fire
+     * 
+     * @param event The block burn event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        changed(event.getBlock());
+    }
+    
+    /**
+     * Handles flowing water and lava
+     * 
+     * @param event The block from-to event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFlow(BlockFromToEvent event) {
+        changed(event.getToBlock());
+    }
+    
+    /**
+     * Handles blocks destroyed by explosions
+     * 
+     * @param event The entity explode event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            changed(block);
+        }
+    }
+    
+    private void changed(Block block) {
+        resolver.blockChanged(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        regionPool.blockChanged(block.getWorld(), block.getX(), block.getZ());
+    }
+}
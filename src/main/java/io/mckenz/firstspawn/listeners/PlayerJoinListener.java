@@ -1,13 +1,23 @@
 package io.mckenz.firstspawn.listeners;
 
 import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.SpawnSettings;
+import io.mckenz.firstspawn.api.SpawnPoint;
 
-import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.spigotmc.event.player.PlayerSpawnLocationEvent;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Listener for player join events to handle first-time spawning
@@ -16,6 +26,10 @@ public class PlayerJoinListener implements Listener {
     
     private final FirstSpawn plugin;
     
+    // Players handled during the spawn-location phase, mapped to the spawn point they were placed at.
+    // An empty value means the pre-teleport event was cancelled.
+    private final Map<UUID, Optional<SpawnPoint>> prePlaced = new ConcurrentHashMap<>();
+    
     /**
      * Constructor for the listener
      * 
@@ -25,6 +39,63 @@ public class PlayerJoinListener implements Listener {
         this.plugin = plugin;
     }
     
+    /**
+     * Looks players up in the network first join store while they are still logging in,
+     * on the login thread, so the answer is cached by the time they join
+     * 
+     * @param event The async pre-login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (plugin.isPluginFunctionalityEnabled()) {
+            plugin.prefetchFirstJoin(event.getUniqueId());
+        }
+    }
+    
+    /**
+     * Remembers the hostname each player connected through, for hostname spawn rules
+     * 
+     * @param event The player login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() == PlayerLoginEvent.Result.ALLOWED) {
+            plugin.getSpawnRules().rememberHostname(event.getPlayer().getUniqueId(), event.getHostname());
+        }
+    }
+    
+    /**
+     * Places new players at the first spawn location before they enter the world,
+     * so chunks around the default world spawn are never loaded for them
+     * 
+     * @param event The player spawn location event
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPlayerSpawnLocation(PlayerSpawnLocationEvent event) {
+        SpawnSettings settings = plugin.getSettings();
+        if (!settings.enabled() || !settings.prePlace()) {
+            return;
+        }
+        
+        Player player = event.getPlayer();
+        if (!plugin.hasSpawnLocation() || !plugin.isFirstJoin(player)) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            SpawnPoint target = plugin.prepareFirstSpawn(player, true);
+            if (target != null) {
+                event.setSpawnLocation(target.getLocation());
+                plugin.logDebug(() -> "Pre-placed player " + player.getName() + " at first spawn location");
+            }
+            prePlaced.put(player.getUniqueId(), Optional.ofNullable(target));
+        } catch (Exception e) {
+            plugin.recordSpawnFailure(player, e, start);
+            plugin.getLogger().warning("Error pre-placing player at first spawn: " + e.getMessage());
+        }
+    }
+    
     /**
      * Handles player join events
      * 
@@ -32,18 +103,43 @@ public class PlayerJoinListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerJoin(PlayerJoinEvent event) {
-        // Skip if plugin is disabled
-        if (!plugin.isPluginFunctionalityEnabled()) {
+        Player player = event.getPlayer();
+        SpawnSettings settings = plugin.getSettings();
+        
+        // Finish spawns that were already placed during the spawn-location phase
+        Optional<SpawnPoint> placed = prePlaced.remove(player.getUniqueId());
+        if (placed != null) {
+            if (placed.isPresent()) {
+                plugin.getFirstSpawnQueue().submit(player, 
+                    () -> plugin.completeFirstSpawn(player, placed.get(), true, true, true));
+            } else {
+                plugin.recordFirstJoin(player, null);
+            }
             return;
         }
         
-        Player player = event.getPlayer();
-        Location firstSpawnLocation = plugin.getFirstSpawnLocation();
+        // Skip if plugin is disabled
+        if (!settings.enabled()) {
+            return;
+        }
         
         // Check if player has joined before
-        if (!player.hasPlayedBefore() && firstSpawnLocation != null) {
-            // Use the API method which will fire the appropriate events
-            plugin.teleportToFirstSpawn(player, true, true);
+        if (plugin.hasSpawnLocation() && plugin.isFirstJoin(player)) {
+            // Use the API method which will fire the appropriate events,
+            // admitted through the queue so join storms are spread over several ticks
+            plugin.getFirstSpawnQueue().submit(player, 
+                () -> plugin.teleportToFirstSpawn(player, true, true, true));
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Drops pre-placement state and the remembered hostname of players who disconnect
+     * 
+     * @param event The player quit event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        prePlaced.remove(event.getPlayer().getUniqueId());
+        plugin.getSpawnRules().forget(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,171 @@
+package io.mckenz.firstspawn.message;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message compiled once into static text segments and placeholder slots.
+ * Color codes are translated when the template is compiled, so rendering it is only a few
+ * appends into a builder sized for the result.
+ */
+public final class MessageTemplate {
+    
+    /**
+     * A template that renders to nothing
+     */
+    public static final MessageTemplate EMPTY = new MessageTemplate("", new String[] {""}, new Placeholder[0]);
+    
+    // Typical width of a rendered placeholder, used to size the builder
+    private static final int SLOT_CAPACITY = 16;
+    
+    private final String source;
+    // One more segment than slots: segments[i] comes before slots[i], the last segment ends the message
+    private final String[] segments;
+    private final Placeholder[] slots;
+    private final int capacity;
+    
+    /**
+     * A value that can be filled into a template
+     */
+    public enum Placeholder {
+        PLAYER("{player}"),
+        ONLINE("{online}"),
+        SPAWN("{spawn}"),
+        FIRST_JOIN_NUMBER("{first_join_number}");
+        
+        private final String token;
+        
+        Placeholder(String token) {
+            this.token = token;
+        }
+        
+        /**
+         * Gets the text that marks this placeholder in a message
+         * 
+         * @return The placeholder token, including braces
+         */
+        public String getToken() {
+            return token;
+        }
+    }
+    
+    /**
+     * The values filled into a template for one player
+     * 
+     * @param player The player's name
+     * @param online The number of players online
+     * @param spawn The name of the spawn point the player was placed at
+     * @param firstJoinNumber How many players have joined for the first time, including this one
+     */
+    public record Context(String player, int online, String spawn, long firstJoinNumber) {
+    }
+    
+    private MessageTemplate(String source, String[] segments, Placeholder[] slots) {
+        this.source = source;
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.capacity = length + slots.length * SLOT_CAPACITY;
+    }
+    
+    /**
+     * Compiles a message, translating '&' color codes and splitting it at placeholders
+     * 
+     * @param message The message as written in the configuration, may be null
+     * @return The compiled template, or {@link #EMPTY} for a null or empty message
+     */
+    public static MessageTemplate compile(String message) {
+        if (message == null || message.isEmpty()) {
+            return EMPTY;
+        }
+        
+        String text = ChatColor.translateAlternateColorCodes('&', message);
+        List<String> segments = new ArrayList<>();
+        List<Placeholder> slots = new ArrayList<>();
+        int segmentStart = 0;
+        int open = text.indexOf('{');
+        while (open >= 0) {
+            Placeholder placeholder = placeholderAt(text, open);
+            if (placeholder != null) {
+                segments.add(text.substring(segmentStart, open));
+                slots.add(placeholder);
+                segmentStart = open + placeholder.getToken().length();
+            }
+            open = text.indexOf('{', open + 1);
+        }
+        segments.add(text.substring(segmentStart));
+        return new MessageTemplate(message, segments.toArray(new String[0]), slots.toArray(new Placeholder[0]));
+    }
+    
+    /**
+     * Gets the message the template was compiled from
+     * 
+     * @return The original message, with untranslated color codes
+     */
+    public String getSource() {
+        return source;
+    }
+    
+    /**
+     * Checks if the template renders to nothing
+     * 
+     * @return True if the template is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return slots.length == 0 && segments[0].isEmpty();
+    }
+    
+    /**
+     * Checks if the template uses a placeholder
+     * 
+     * @param placeholder The placeholder to look for
+     * @return True if the placeholder appears in the template, false otherwise
+     */
+    public boolean uses(Placeholder placeholder) {
+        for (Placeholder slot : slots) {
+            if (slot == placeholder) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Renders the template for one player
+     * 
+     * @param context The values to fill in
+     * @return The rendered message
+     */
+    public String render(Context context) {
+        if (slots.length == 0) {
+            return segments[0];
+        }
+        
+        StringBuilder builder = new StringBuilder(capacity);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(segments[i]);
+            switch (slots[i]) {
+                case PLAYER -> builder.append(context.player());
+                case ONLINE -> builder.append(context.online());
+                case SPAWN -> builder.append(context.spawn());
+                case FIRST_JOIN_NUMBER -> builder.append(context.firstJoinNumber());
+            }
+        }
+        builder.append(segments[slots.length]);
+        return builder.toString();
+    }
+    
+    private static Placeholder placeholderAt(String text, int index) {
+        for (Placeholder placeholder : Placeholder.values()) {
+            if (text.startsWith(placeholder.getToken(), index)) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+}
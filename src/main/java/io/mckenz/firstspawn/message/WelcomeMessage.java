@@ -0,0 +1,144 @@
+package io.mckenz.firstspawn.message;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The compiled welcome sent to new players in one language: chat lines, a title and
+ * subtitle, and an action bar message
+ */
+public final class WelcomeMessage {
+    
+    private final MessageTemplate firstLine;
+    private final MessageTemplate[] lines;
+    private final MessageTemplate title;
+    private final MessageTemplate subtitle;
+    private final MessageTemplate actionBar;
+    private final int fadeIn;
+    private final int stay;
+    private final int fadeOut;
+    
+    private WelcomeMessage(MessageTemplate firstLine, MessageTemplate[] lines, MessageTemplate title,
+                           MessageTemplate subtitle, MessageTemplate actionBar, int fadeIn, int stay, int fadeOut) {
+        this.firstLine = firstLine;
+        this.lines = lines;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.actionBar = actionBar;
+        this.fadeIn = fadeIn;
+        this.stay = stay;
+        this.fadeOut = fadeOut;
+    }
+    
+    /**
+     * Compiles a welcome from a configuration section.
+     * The section may set welcome-message (the first chat line), lines, title, subtitle and action-bar;
+     * anything it leaves out is taken from the fallback.
+     * 
+     * @param section The section to read, may be null
+     * @param fallback The welcome to take missing parts from, or null for none
+     * @return The compiled welcome
+     */
+    public static WelcomeMessage load(ConfigurationSection section, WelcomeMessage fallback) {
+        if (section == null) {
+            return fallback != null ? fallback : new WelcomeMessage(MessageTemplate.EMPTY, new MessageTemplate[0],
+                MessageTemplate.EMPTY, MessageTemplate.EMPTY, MessageTemplate.EMPTY, 10, 70, 20);
+        }
+        
+        MessageTemplate[] lines;
+        if (section.isSet("lines") || fallback == null) {
+            List<MessageTemplate> compiled = new ArrayList<>();
+            for (String line : section.getStringList("lines")) {
+                compiled.add(MessageTemplate.compile(line));
+            }
+            lines = compiled.toArray(new MessageTemplate[0]);
+        } else {
+            lines = fallback.lines;
+        }
+        
+        return new WelcomeMessage(
+            template(section, "welcome-message", fallback == null ? null : fallback.firstLine),
+            lines,
+            template(section, "title", fallback == null ? null : fallback.title),
+            template(section, "subtitle", fallback == null ? null : fallback.subtitle),
+            template(section, "action-bar", fallback == null ? null : fallback.actionBar),
+            section.getInt("title-fade-in", fallback == null ? 10 : fallback.fadeIn),
+            section.getInt("title-stay", fallback == null ? 70 : fallback.stay),
+            section.getInt("title-fade-out", fallback == null ? 20 : fallback.fadeOut)
+        );
+    }
+    
+    /**
+     * Creates a copy of this welcome with a different first chat line
+     * 
+     * @param message The new first line, or an empty string for none
+     * @return The updated welcome
+     */
+    public WelcomeMessage withFirstLine(String message) {
+        return new WelcomeMessage(MessageTemplate.compile(message), lines, title, subtitle, actionBar, fadeIn, stay, fadeOut);
+    }
+    
+    /**
+     * Checks if there is nothing to send
+     * 
+     * @return True if the welcome has no lines, title or action bar, false otherwise
+     */
+    public boolean isEmpty() {
+        return firstLine.isEmpty() && lines.length == 0 && title.isEmpty() && subtitle.isEmpty() && actionBar.isEmpty();
+    }
+    
+    /**
+     * Checks if any part of the welcome uses a placeholder
+     * 
+     * @param placeholder The placeholder to look for
+     * @return True if the placeholder appears anywhere in the welcome, false otherwise
+     */
+    public boolean uses(MessageTemplate.Placeholder placeholder) {
+        for (MessageTemplate line : lines) {
+            if (line.uses(placeholder)) {
+                return true;
+            }
+        }
+        return firstLine.uses(placeholder) || title.uses(placeholder) || subtitle.uses(placeholder) || actionBar.uses(placeholder);
+    }
+    
+    /**
+     * Sends the welcome to a player
+     * 
+     * @param player The player to welcome
+     * @param context The values to fill into placeholders
+     * @return True if anything was sent, false if the welcome is empty
+     */
+    public boolean send(Player player, MessageTemplate.Context context) {
+        if (isEmpty()) {
+            return false;
+        }
+        
+        if (!firstLine.isEmpty()) {
+            player.sendMessage(firstLine.render(context));
+        }
+        for (MessageTemplate line : lines) {
+            player.sendMessage(line.render(context));
+        }
+        if (!title.isEmpty() || !subtitle.isEmpty()) {
+            player.sendTitle(title.render(context), subtitle.render(context), fadeIn, stay, fadeOut);
+        }
+        if (!actionBar.isEmpty()) {
+            player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(actionBar.render(context)));
+        }
+        return true;
+    }
+    
+    private static MessageTemplate template(ConfigurationSection section, String path, MessageTemplate fallback) {
+        if (!section.isSet(path) && fallback != null) {
+            return fallback;
+        }
+        return MessageTemplate.compile(section.getString(path, ""));
+    }
+}
@@ -0,0 +1,126 @@
+package io.mckenz.firstspawn.message;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * The welcome in every configured language.
+ * The default welcome comes from the main configuration and each file in the locales folder
+ * (named after a client locale such as de_de.yml, or a language such as de.yml) overrides
+ * parts of it. A player's locale is resolved to a bundle once and then cached.
+ */
+public final class WelcomeMessages {
+    
+    private final ConfigurationSection defaultSection;
+    private final Map<String, ConfigurationSection> localeSections;
+    private final WelcomeMessage defaultMessage;
+    private final Map<String, WelcomeMessage> bundles = new HashMap<>();
+    private final Map<String, WelcomeMessage> resolved = new ConcurrentHashMap<>();
+    
+    private WelcomeMessages(String firstLine, ConfigurationSection defaultSection,
+                            Map<String, ConfigurationSection> localeSections) {
+        this.defaultSection = defaultSection;
+        this.localeSections = localeSections;
+        this.defaultMessage = WelcomeMessage.load(defaultSection, null).withFirstLine(firstLine);
+        for (Map.Entry<String, ConfigurationSection> entry : localeSections.entrySet()) {
+            bundles.put(entry.getKey(), WelcomeMessage.load(entry.getValue(), defaultMessage));
+        }
+    }
+    
+    /**
+     * Compiles the default welcome and every locale bundle
+     * 
+     * @param firstLine The welcome-message setting, used as the first chat line
+     * @param defaultSection The welcome section of the configuration, may be null
+     * @param localeFolder The folder holding one file per locale
+     * @param logger The logger to report unreadable files to
+     * @return The compiled welcomes
+     */
+    public static WelcomeMessages load(String firstLine, ConfigurationSection defaultSection, File localeFolder, Logger logger) {
+        Map<String, ConfigurationSection> localeSections = new HashMap<>();
+        File[] files = localeFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files != null) {
+            for (File file : files) {
+                YamlConfiguration bundle = new YamlConfiguration();
+                try {
+                    bundle.load(file);
+                } catch (IOException | InvalidConfigurationException e) {
+                    logger.warning("Failed to load welcome locale " + file.getName() + ": " + e.getMessage());
+                    continue;
+                }
+                String locale = file.getName().substring(0, file.getName().length() - 4).toLowerCase(Locale.ROOT);
+                localeSections.put(locale, bundle);
+            }
+        }
+        return new WelcomeMessages(firstLine, defaultSection, localeSections);
+    }
+    
+    /**
+     * Gets welcomes that send nothing, used before the configuration is loaded
+     * 
+     * @return The empty welcomes
+     */
+    public static WelcomeMessages empty() {
+        return new WelcomeMessages("", null, new HashMap<>());
+    }
+    
+    /**
+     * Recompiles the welcomes with a different default first chat line
+     * 
+     * @param firstLine The new welcome-message setting
+     * @return The recompiled welcomes
+     */
+    public WelcomeMessages withFirstLine(String firstLine) {
+        return new WelcomeMessages(firstLine, defaultSection, localeSections);
+    }
+    
+    /**
+     * Gets the welcome for a client locale, falling back to its language and then to the default
+     * 
+     * @param locale The client locale, such as en_us, may be null
+     * @return The welcome to send
+     */
+    public WelcomeMessage forLocale(String locale) {
+        if (locale == null || bundles.isEmpty()) {
+            return defaultMessage;
+        }
+        return resolved.computeIfAbsent(locale, this::resolve);
+    }
+    
+    /**
+     * Gets the welcome sent to players whose locale has no bundle
+     * 
+     * @return The default welcome
+     */
+    public WelcomeMessage getDefault() {
+        return defaultMessage;
+    }
+    
+    /**
+     * Gets the number of locale bundles loaded
+     * 
+     * @return The number of locales with their own welcome
+     */
+    public int getLocaleCount() {
+        return bundles.size();
+    }
+    
+    private WelcomeMessage resolve(String locale) {
+        String key = locale.toLowerCase(Locale.ROOT).replace('-', '_');
+        WelcomeMessage bundle = bundles.get(key);
+        if (bundle == null) {
+            int separator = key.indexOf('_');
+            bundle = separator > 0 ? bundles.get(key.substring(0, separator)) : null;
+        }
+        return bundle != null ? bundle : defaultMessage;
+    }
+}
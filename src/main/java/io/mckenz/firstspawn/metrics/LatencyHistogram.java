@@ -0,0 +1,149 @@
+package io.mckenz.firstspawn.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ * Every power of two is split into 32 linear buckets, so any recorded value is reported
+ * within about 3% of its true value. Recording is one array increment and never blocks.
+ */
+public final class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Values are clamped below 2^37 ns (about 137 seconds)
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Records one measurement
+     * 
+     * @param nanos The measured time in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, Math.min(MAX_VALUE, nanos));
+        counts.incrementAndGet(bucketIndex(value));
+        total.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+    
+    /**
+     * Gets the number of recorded measurements
+     * 
+     * @return The measurement count
+     */
+    public long getCount() {
+        return total.sum();
+    }
+    
+    /**
+     * Gets the sum of every recorded measurement
+     * 
+     * @return The total time in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+    
+    /**
+     * Counts the measurements at or below each of a set of bounds, as Prometheus histogram buckets do.
+     * A measurement is counted against a bound when its bucket lies entirely below the bound, so
+     * counts are exact at bucket boundaries and otherwise within the 3% bucket width.
+     * 
+     * @param upperBounds Bucket bounds in nanoseconds, in increasing order
+     * @return The cumulative count for each bound
+     */
+    public long[] getCumulativeCounts(long[] upperBounds) {
+        long[] cumulative = new long[upperBounds.length];
+        int bound = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT && bound < upperBounds.length; i++) {
+            while (bound < upperBounds.length && bucketUpperBound(i) > upperBounds[bound]) {
+                cumulative[bound++] = seen;
+            }
+            seen += counts.get(i);
+        }
+        while (bound < upperBounds.length) {
+            cumulative[bound++] = seen;
+        }
+        return cumulative;
+    }
+    
+    /**
+     * Gets the largest recorded measurement
+     * 
+     * @return The maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * Gets a percentile of the recorded measurements
+     * 
+     * @param percentile The percentile between 0 and 100
+     * @return The upper bound of the bucket holding the percentile in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+    
+    /**
+     * Clears every recorded measurement
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0L);
+    }
+    
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+    
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,209 @@
+package io.mckenz.firstspawn.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.storage.FirstJoinLedger;
+import io.mckenz.firstspawn.util.UpdateChecker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the first spawn metrics in the Prometheus text format on an embedded HTTP server.
+ * Nothing is kept here: each scrape reads the striped counters and histograms the join path
+ * already updates, on the exporter's own thread, so scraping never touches a tick thread and
+ * the join path never waits for a scrape.
+ */
+public class PrometheusExporter {
+    
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    // Histogram bucket bounds, in seconds and in nanoseconds
+    private static final double[] BUCKETS = {
+        0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0
+    };
+    private static final long[] BUCKET_NANOS = new long[BUCKETS.length];
+    
+    static {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            BUCKET_NANOS[i] = Math.round(BUCKETS[i] * 1_000_000_000.0);
+        }
+    }
+    
+    private final FirstSpawn plugin;
+    private HttpServer server;
+    private ExecutorService executor;
+    private String boundHost;
+    private int boundPort;
+    
+    /**
+     * Creates a new PrometheusExporter
+     * 
+     * @param plugin The plugin instance
+     */
+    public PrometheusExporter(FirstSpawn plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Starts, stops or moves the endpoint to match the prometheus section of the configuration
+     * 
+     * @param enabled Whether the endpoint should be served
+     * @param host The address to bind to
+     * @param port The port to bind to
+     */
+    public synchronized void configure(boolean enabled, String host, int port) {
+        if (!enabled) {
+            stop();
+            return;
+        }
+        if (server != null && host.equals(boundHost) && port == boundPort) {
+            return;
+        }
+        
+        stop();
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().warning("Failed to start the Prometheus endpoint on " + host + ":" + port + ": " + e.getMessage());
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FirstSpawn-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        boundHost = host;
+        boundPort = port;
+        plugin.getLogger().info("Serving Prometheus metrics on http://" + host + ":" + port + "/metrics");
+    }
+    
+    /**
+     * Stops the endpoint if it is running
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+        boundHost = null;
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+    
+    /**
+     * Renders every metric in the Prometheus text exposition format
+     * 
+     * @return The scrape body
+     */
+    String scrape() {
+        SpawnMetrics metrics = plugin.getSpawnMetrics();
+        StringBuilder out = new StringBuilder(8192);
+        
+        counter(out, "firstspawn_first_joins_total", "New players sent to first spawn", metrics.getFirstJoins());
+        counter(out, "firstspawn_teleports_total", "Completed teleports to first spawn, including returning players",
+            metrics.getSuccesses());
+        counter(out, "firstspawn_cancellations_total", "First spawns cancelled by a PlayerFirstSpawnEvent listener",
+            metrics.getCancellations());
+        counter(out, "firstspawn_failures_total", "First spawns that failed with an error", metrics.getFailures());
+        
+        out.append("# HELP firstspawn_phase_duration_seconds Time spent in each phase of a first spawn\n");
+        out.append("# TYPE firstspawn_phase_duration_seconds histogram\n");
+        for (SpawnMetrics.Phase phase : SpawnMetrics.Phase.values()) {
+            histogram(out, "firstspawn_phase_duration_seconds", phase.name().toLowerCase(Locale.ROOT),
+                metrics.getHistogram(phase));
+        }
+        
+        FirstJoinLedger ledger = plugin.getFirstJoinLedger();
+        if (ledger != null) {
+            gauge(out, "firstspawn_known_players", "Players in the first join ledger", ledger.size());
+        }
+        gauge(out, "firstspawn_queue_depth", "First spawns waiting for admission",
+            plugin.getFirstSpawnQueue().getQueueDepth());
+        
+        UpdateChecker updateChecker = plugin.getUpdateChecker();
+        gauge(out, "firstspawn_update_check_enabled", "Whether the update checker is enabled",
+            updateChecker != null ? 1 : 0);
+        if (updateChecker != null) {
+            gauge(out, "firstspawn_update_available", "Whether a newer version is available",
+                updateChecker.isUpdateAvailable() ? 1 : 0);
+            gauge(out, "firstspawn_update_check_timestamp_seconds", "When the latest version was last learned",
+                updateChecker.getLastCheckTime() / 1000.0);
+        }
+        String latest = updateChecker != null && updateChecker.getLatestVersion() != null
+            ? updateChecker.getLatestVersion() : "";
+        out.append("# HELP firstspawn_info The running version and the latest known version\n");
+        out.append("# TYPE firstspawn_info gauge\n");
+        out.append("firstspawn_info{version=\"").append(escape(plugin.getDescription().getVersion()))
+            .append("\",latest=\"").append(escape(latest)).append("\"} 1\n");
+        return out.toString();
+    }
+    
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+    
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+    
+    private static void histogram(StringBuilder out, String name, String phase, LatencyHistogram histogram) {
+        // Read the total first, so no bucket can exceed the +Inf count taken after it
+        long count = histogram.getCount();
+        long[] cumulative = histogram.getCumulativeCounts(BUCKET_NANOS);
+        for (int i = 0; i < BUCKETS.length; i++) {
+            out.append(name).append("_bucket{phase=\"").append(phase).append("\",le=\"").append(BUCKETS[i])
+                .append("\"} ").append(Math.min(cumulative[i], count)).append('\n');
+        }
+        out.append(name).append("_bucket{phase=\"").append(phase).append("\",le=\"+Inf\"} ").append(count).append('\n');
+        out.append(name).append("_sum{phase=\"").append(phase).append("\"} ")
+            .append(format(histogram.getSum() / 1_000_000_000.0)).append('\n');
+        out.append(name).append("_count{phase=\"").append(phase).append("\"} ").append(count).append('\n');
+    }
+    
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+            ? Long.toString((long) value) : String.format(Locale.ROOT, "%.9g", value);
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,215 @@
+package io.mckenz.firstspawn.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Latency histograms for each phase of a first spawn, plus outcome counters.
+ * Everything is lock-free so recording on the join path costs a few atomic increments.
+ */
+public class SpawnMetrics implements SpawnMetricsMBean {
+    
+    private static final String OBJECT_NAME = "io.mckenz.firstspawn:type=SpawnMetrics";
+    
+    /**
+     * A measured part of a first spawn
+     */
+    public enum Phase {
+        /** Choosing the spawn point and a safe location at it */
+        SELECT,
+        /** Firing PlayerFirstSpawnEvent */
+        PRE_EVENT,
+        /** Teleporting the player */
+        TELEPORT,
+        /** Setting the bed spawn */
+        BED_SPAWN,
+        /** Sending the welcome message */
+        MESSAGE,
+        /** Firing PlayerFirstSpawnedEvent */
+        POST_EVENT,
+        /** The whole first spawn, from selection to the post-teleport event */
+        TOTAL
+    }
+    
+    private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private final LongAdder firstJoins = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private ObjectName registeredName;
+    
+    /**
+     * Creates a new SpawnMetrics
+     */
+    public SpawnMetrics() {
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+    
+    /**
+     * Records the time since a phase started
+     * 
+     * @param phase The phase that finished
+     * @param startNanos The {@link System#nanoTime()} when the phase started
+     * @return The current {@link System#nanoTime()}, to use as the start of the next phase
+     */
+    public long record(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        histograms.get(phase).record(now - startNanos);
+        return now;
+    }
+    
+    /**
+     * Counts a new player sent to first spawn
+     */
+    public void recordFirstJoin() {
+        firstJoins.increment();
+    }
+    
+    /**
+     * Counts a completed first spawn
+     */
+    public void recordSuccess() {
+        successes.increment();
+    }
+    
+    /**
+     * Counts a first spawn cancelled by an event listener
+     */
+    public void recordCancellation() {
+        cancellations.increment();
+    }
+    
+    /**
+     * Counts a first spawn that failed with an error
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+    
+    /**
+     * Gets the histogram for a phase
+     * 
+     * @param phase The phase
+     * @return The phase's latency histogram
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms.get(phase);
+    }
+    
+    @Override
+    public long getFirstJoins() {
+        return firstJoins.sum();
+    }
+    
+    @Override
+    public long getSuccesses() {
+        return successes.sum();
+    }
+    
+    @Override
+    public long getCancellations() {
+        return cancellations.sum();
+    }
+    
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+    
+    @Override
+    public String[] getPhaseSummaries() {
+        String[] summaries = new String[Phase.values().length];
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = histograms.get(phase);
+            summaries[phase.ordinal()] = String.format(Locale.ROOT, "%s: %d, p50 %.3fms, p99 %.3fms, max %.3fms",
+                phase, histogram.getCount(), toMillis(histogram.getPercentile(50)),
+                toMillis(histogram.getPercentile(99)), toMillis(histogram.getMax()));
+        }
+        return summaries;
+    }
+    
+    @Override
+    public double percentileMillis(String phase, double percentile) {
+        LatencyHistogram histogram = find(phase);
+        return histogram == null ? -1 : toMillis(histogram.getPercentile(percentile));
+    }
+    
+    @Override
+    public double maxMillis(String phase) {
+        LatencyHistogram histogram = find(phase);
+        return histogram == null ? -1 : toMillis(histogram.getMax());
+    }
+    
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        firstJoins.reset();
+        successes.reset();
+        cancellations.reset();
+        failures.reset();
+    }
+    
+    /**
+     * Registers the metrics with the platform MBean server, replacing a registration
+     * left behind by a previous instance of the plugin
+     * 
+     * @param logger The logger to report failures to
+     */
+    public void register(Logger logger) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            registeredName = name;
+        } catch (JMException e) {
+            logger.warning("Failed to register JMX metrics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Removes the metrics from the platform MBean server
+     */
+    public void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException ignored) {
+            // Already gone
+        }
+        registeredName = null;
+    }
+    
+    /**
+     * Converts nanoseconds to milliseconds
+     * 
+     * @param nanos The time in nanoseconds
+     * @return The time in milliseconds
+     */
+    public static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    private LatencyHistogram find(String phase) {
+        try {
+            return histograms.get(Phase.valueOf(phase.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.mckenz.firstspawn.metrics;
+
+/**
+ * JMX view of the first spawn metrics, registered as io.mckenz.firstspawn:type=SpawnMetrics
+ */
+public interface SpawnMetricsMBean {
+    
+    /**
+     * Gets the number of new players sent to first spawn
+     * 
+     * @return The first join count
+     */
+    long getFirstJoins();
+    
+    /**
+     * Gets the number of first spawns that completed
+     * 
+     * @return The success count
+     */
+    long getSuccesses();
+    
+    /**
+     * Gets the number of first spawns cancelled by a PlayerFirstSpawnEvent listener
+     * 
+     * @return The cancellation count
+     */
+    long getCancellations();
+    
+    /**
+     * Gets the number of first spawns that failed with an error
+     * 
+     * @return The failure count
+     */
+    long getFailures();
+    
+    /**
+     * Gets a one-line summary of every phase
+     * 
+     * @return One "phase: count, p50, p99, max" line per phase
+     */
+    String[] getPhaseSummaries();
+    
+    /**
+     * Gets a percentile of a phase's latency
+     * 
+     * @param phase The phase name, such as TELEPORT
+     * @param percentile The percentile between 0 and 100
+     * @return The latency in milliseconds, or -1 if the phase does not exist
+     */
+    double percentileMillis(String phase, double percentile);
+    
+    /**
+     * Gets the largest latency recorded for a phase
+     * 
+     * @param phase The phase name, such as TELEPORT
+     * @return The latency in milliseconds, or -1 if the phase does not exist
+     */
+    double maxMillis(String phase);
+    
+    /**
+     * Clears every counter and histogram
+     */
+    void reset();
+}
@@ -0,0 +1,57 @@
+package io.mckenz.firstspawn.metrics;
+
+import org.bukkit.Location;
+
+import java.util.UUID;
+
+/**
+ * What happened to one player's first spawn
+ * 
+ * @param time When the outcome was recorded, in milliseconds since the epoch
+ * @param playerId The player's UUID
+ * @param playerName The player's name
+ * @param outcome How the first spawn ended
+ * @param spawnPoint The name of the chosen spawn point, or null if none was chosen
+ * @param world The name of the target world, or null if no target was chosen
+ * @param x The target X coordinate
+ * @param y The target Y coordinate
+ * @param z The target Z coordinate
+ * @param reason The cancel reason or error, or null
+ * @param durationNanos How long the first spawn took, or -1 if it was not measured
+ */
+public record SpawnTrace(long time, UUID playerId, String playerName, Outcome outcome, String spawnPoint,
+                         String world, double x, double y, double z, String reason, long durationNanos) {
+    
+    /**
+     * How a first spawn ended
+     */
+    public enum Outcome {
+        /** The player was placed at first spawn */
+        SUCCESS,
+        /** A PlayerFirstSpawnEvent listener cancelled it */
+        CANCELLED,
+        /** It failed with an error */
+        FAILED
+    }
+    
+    /**
+     * Creates a trace stamped with the current time
+     * 
+     * @param playerId The player's UUID
+     * @param playerName The player's name
+     * @param outcome How the first spawn ended
+     * @param spawnPoint The name of the chosen spawn point, or null
+     * @param target The target location, or null
+     * @param reason The cancel reason or error, or null
+     * @param durationNanos How long the first spawn took, or -1 if it was not measured
+     * @return The trace
+     */
+    public static SpawnTrace of(UUID playerId, String playerName, Outcome outcome, String spawnPoint,
+                                Location target, String reason, long durationNanos) {
+        boolean hasTarget = target != null && target.getWorld() != null;
+        return new SpawnTrace(System.currentTimeMillis(), playerId, playerName, outcome, spawnPoint,
+            hasTarget ? target.getWorld().getName() : null,
+            hasTarget ? target.getX() : 0, hasTarget ? target.getY() : 0, hasTarget ? target.getZ() : 0,
+            reason, durationNanos);
+    }
+}
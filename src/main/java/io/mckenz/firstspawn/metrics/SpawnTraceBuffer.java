@@ -0,0 +1,76 @@
+package io.mckenz.firstspawn.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-size ring of the most recent first spawn traces.
+ * Always on: adding a trace is one counter increment and one array store, and the oldest
+ * trace is overwritten once the ring is full, so incidents can be looked into after the fact
+ * without turning on debug logging.
+ */
+public final class SpawnTraceBuffer {
+    
+    private final AtomicReferenceArray<SpawnTrace> slots;
+    private final int mask;
+    private final AtomicLong written = new AtomicLong();
+    
+    /**
+     * Creates a new SpawnTraceBuffer
+     * 
+     * @param capacity The number of traces to keep, rounded up to a power of two
+     */
+    public SpawnTraceBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+    
+    /**
+     * Adds a trace, overwriting the oldest one if the ring is full
+     * 
+     * @param trace The trace to add
+     */
+    public void add(SpawnTrace trace) {
+        slots.set((int) (written.getAndIncrement() & mask), trace);
+    }
+    
+    /**
+     * Gets the most recent traces, newest first
+     * 
+     * @param limit The maximum number of traces to return
+     * @return The traces
+     */
+    public List<SpawnTrace> recent(int limit) {
+        long end = written.get();
+        int count = (int) Math.min(Math.min(limit, slots.length()), end);
+        List<SpawnTrace> traces = new ArrayList<>(count);
+        for (long i = end - 1; i >= end - count; i--) {
+            SpawnTrace trace = slots.get((int) (i & mask));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+    
+    /**
+     * Gets the number of traces the ring holds
+     * 
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+    
+    /**
+     * Gets the number of traces added since the ring was created
+     * 
+     * @return The total number of traces, including overwritten ones
+     */
+    public long getTotal() {
+        return written.get();
+    }
+}
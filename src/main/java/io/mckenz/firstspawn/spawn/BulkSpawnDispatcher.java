@@ -0,0 +1,148 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends many players back to first spawn at once, such as after an event or a map reset.
+ * Players are queued and released a fixed number per tick, and each one is teleported on the
+ * thread that owns them through their entity scheduler, so a large send never lands on a single
+ * tick and never touches a player from another Folia region.
+ */
+public class BulkSpawnDispatcher {
+    
+    private final FirstSpawn plugin;
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private int perTick;
+    private ScheduledTask dispatchTask;
+    
+    /**
+     * Creates a new BulkSpawnDispatcher
+     * 
+     * @param plugin The plugin instance
+     */
+    public BulkSpawnDispatcher(FirstSpawn plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Reads the send-all section of the configuration
+     * 
+     * @param config The plugin configuration
+     */
+    public synchronized void loadConfig(FileConfiguration config) {
+        perTick = Math.max(1, config.getInt("send-all.per-tick", 20));
+    }
+    
+    /**
+     * Queues players to be sent to first spawn
+     * 
+     * @param players The players to send
+     * @return A future completed with the number of players teleported once every player has been handled
+     */
+    public CompletableFuture<Integer> submit(Collection<? extends Player> players) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(players.size());
+        synchronized (this) {
+            for (Player player : players) {
+                if (player != null) {
+                    Pending pending = new Pending(player, new CompletableFuture<>());
+                    queue.addLast(pending);
+                    results.add(pending.result());
+                }
+            }
+            if (!queue.isEmpty() && dispatchTask == null) {
+                dispatchTask = SchedulerUtil.runTimerGlobal(plugin, this::dispatch, 1L, 1L);
+            }
+        }
+        
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            int teleported = 0;
+            for (CompletableFuture<Boolean> result : results) {
+                if (result.join()) {
+                    teleported++;
+                }
+            }
+            return teleported;
+        });
+    }
+    
+    /**
+     * Gets the number of players waiting to be dispatched
+     * 
+     * @return The queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * Drops queued players, completing their results as not teleported, and stops dispatching
+     */
+    public void shutdown() {
+        List<Pending> dropped;
+        synchronized (this) {
+            if (dispatchTask != null) {
+                dispatchTask.cancel();
+                dispatchTask = null;
+            }
+            dropped = new ArrayList<>(queue);
+            queue.clear();
+        }
+        for (Pending pending : dropped) {
+            pending.result().complete(false);
+        }
+    }
+    
+    /**
+     * Hands this tick's share of the queue to each player's own scheduler
+     */
+    private void dispatch() {
+        List<Pending> batch = new ArrayList<>();
+        synchronized (this) {
+            while (batch.size() < perTick && !queue.isEmpty()) {
+                batch.add(queue.pollFirst());
+            }
+            if (queue.isEmpty() && dispatchTask != null) {
+                dispatchTask.cancel();
+                dispatchTask = null;
+            }
+        }
+        
+        for (Pending pending : batch) {
+            Player player = pending.player();
+            SchedulerUtil.runDelayed(plugin,
+                () -> pending.result().complete(send(player)),
+                () -> pending.result().complete(false),
+                1L, player);
+        }
+    }
+    
+    /**
+     * Teleports a returning player to first spawn without changing their bed spawn or welcoming them again
+     */
+    private boolean send(Player player) {
+        try {
+            return plugin.teleportToFirstSpawn(player, false, false, false);
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Error sending " + player.getName() + " to first spawn: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * A player waiting to be sent, with the result handed back to the caller
+     */
+    private record Pending(Player player, CompletableFuture<Boolean> result) {
+    }
+}
@@ -0,0 +1,335 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.util.ChunkLoader;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.TickMonitor;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates the chunks around every spawn point ahead of time, so the first players on a fresh
+ * map do not trigger world generation on the main thread.
+ * Chunks are loaded a few at a time (asynchronously where the platform supports it), new loads
+ * are held back while ticks are slow, and progress is saved so a restart resumes the job.
+ */
+public class ChunkPregenerator {
+    
+    private static final long PROGRESS_INTERVAL_TICKS = 200L;
+    
+    private final FirstSpawn plugin;
+    private final TickMonitor tickMonitor;
+    private final File progressFile;
+    
+    private int maxInFlight;
+    private double targetTickMillis;
+    
+    // Current job, only touched on the global scheduler thread
+    private List<String> chunkWorlds;
+    private int[] chunkXs;
+    private int[] chunkZs;
+    private List<String> centers;
+    private int radius;
+    private int nextIndex;
+    private int completed;
+    // Indexes started but not yet finished, for the resume point
+    private final TreeSet<Integer> inFlight = new TreeSet<>();
+    private ScheduledTask task;
+    private CommandSender requester;
+    private boolean paused;
+    private long ticksSinceReport;
+    private int completedAtLastReport;
+    private long lastReportNanos;
+    private double chunksPerSecond;
+    
+    /**
+     * Creates a new ChunkPregenerator
+     * 
+     * @param plugin The plugin instance
+     * @param tickMonitor The tick monitor used to hold back loads while the server is lagging
+     */
+    public ChunkPregenerator(FirstSpawn plugin, TickMonitor tickMonitor) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+        this.progressFile = new File(plugin.getDataFolder(), "pregen.yml");
+    }
+    
+    /**
+     * Reads the pregen section of the configuration
+     * 
+     * @param config The plugin configuration
+     */
+    public void loadConfig(FileConfiguration config) {
+        maxInFlight = Math.max(1, config.getInt("pregen.max-in-flight", 8));
+        targetTickMillis = Math.max(1.0, config.getDouble("pregen.target-mspt", 45.0));
+    }
+    
+    /**
+     * Starts generating every chunk within a radius of the given spawn locations
+     * Must be called on the global scheduler thread.
+     * 
+     * @param locations The spawn locations to generate around
+     * @param radiusChunks The radius in chunks
+     * @param sender Who to send progress reports to, besides the console
+     * @return False if a job is already running
+     */
+    public boolean start(Collection<Location> locations, int radiusChunks, CommandSender sender) {
+        if (isRunning()) {
+            return false;
+        }
+        
+        List<String> centerList = new ArrayList<>();
+        for (Location location : locations) {
+            if (location.getWorld() != null) {
+                centerList.add(location.getWorld().getName() + "," + (location.getBlockX() >> 4) + "," + (location.getBlockZ() >> 4));
+            }
+        }
+        begin(centerList, radiusChunks, 0, sender);
+        return true;
+    }
+    
+    /**
+     * Resumes a job that was running when the server stopped
+     * Must be called on the global scheduler thread.
+     */
+    public void resume() {
+        if (isRunning() || !progressFile.exists()) {
+            return;
+        }
+        
+        YamlConfiguration saved = YamlConfiguration.loadConfiguration(progressFile);
+        List<String> savedCenters = saved.getStringList("centers");
+        if (savedCenters.isEmpty()) {
+            return;
+        }
+        plugin.getLogger().info("Resuming chunk pregeneration from a previous run");
+        try {
+            begin(savedCenters, saved.getInt("radius"), saved.getInt("completed"), null);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // Thrown while reading the centers, before any of the job is set up
+            plugin.getLogger().warning("Discarding unreadable pregeneration progress in " + progressFile.getName() + 
+                ": " + e.getMessage());
+            if (!progressFile.delete()) {
+                plugin.getLogger().warning("Failed to delete " + progressFile.getName());
+            }
+        }
+    }
+    
+    /**
+     * Stops the running job and forgets its progress
+     * Must be called on the global scheduler thread.
+     * 
+     * @return True if a job was running, false otherwise
+     */
+    public boolean cancel() {
+        if (!isRunning()) {
+            return false;
+        }
+        stopTask();
+        chunkWorlds = null;
+        if (progressFile.exists() && !progressFile.delete()) {
+            plugin.getLogger().warning("Failed to delete " + progressFile.getName());
+        }
+        return true;
+    }
+    
+    /**
+     * Stops the running job, keeping its progress so it resumes on the next start
+     */
+    public void shutdown() {
+        if (isRunning()) {
+            // Written on this thread, as async tasks no longer run once the plugin is disabled
+            writeProgress(progressSnapshot());
+            stopTask();
+        }
+    }
+    
+    /**
+     * Checks if a job is running
+     * 
+     * @return True if chunks are being generated, false otherwise
+     */
+    public boolean isRunning() {
+        return task != null;
+    }
+    
+    /**
+     * Describes the progress of the running job
+     * Must be called on the global scheduler thread.
+     * 
+     * @return A one-line progress report, or null if no job is running
+     */
+    public String getProgress() {
+        if (!isRunning()) {
+            return null;
+        }
+        int total = chunkXs.length;
+        return String.format("%.1f%% (%d/%d chunks, %.1f chunks/s)%s",
+            total == 0 ? 100.0 : completed * 100.0 / total, completed, total, chunksPerSecond,
+            paused ? ", paused while the server is lagging" : "");
+    }
+    
+    private void begin(List<String> centerList, int radiusChunks, int alreadyCompleted, CommandSender sender) {
+        // Deterministic order so a saved position means the same chunk after a restart
+        Set<String> seen = new HashSet<>();
+        List<String> worlds = new ArrayList<>();
+        List<int[]> coords = new ArrayList<>();
+        for (String center : centerList) {
+            String[] parts = center.split(",");
+            String worldName = parts[0];
+            int centerX = Integer.parseInt(parts[1]);
+            int centerZ = Integer.parseInt(parts[2]);
+            for (int ring = 0; ring <= radiusChunks; ring++) {
+                for (int dx = -ring; dx <= ring; dx++) {
+                    for (int dz = -ring; dz <= ring; dz++) {
+                        if (Math.max(Math.abs(dx), Math.abs(dz)) == ring
+                                && seen.add(worldName + "," + (centerX + dx) + "," + (centerZ + dz))) {
+                            worlds.add(worldName);
+                            coords.add(new int[] {centerX + dx, centerZ + dz});
+                        }
+                    }
+                }
+            }
+        }
+        
+        chunkWorlds = worlds;
+        chunkXs = new int[coords.size()];
+        chunkZs = new int[coords.size()];
+        for (int i = 0; i < coords.size(); i++) {
+            chunkXs[i] = coords.get(i)[0];
+            chunkZs[i] = coords.get(i)[1];
+        }
+        centers = centerList;
+        radius = radiusChunks;
+        nextIndex = Math.min(alreadyCompleted, chunkXs.length);
+        completed = nextIndex;
+        inFlight.clear();
+        requester = sender;
+        paused = false;
+        ticksSinceReport = 0;
+        completedAtLastReport = completed;
+        lastReportNanos = System.nanoTime();
+        chunksPerSecond = 0;
+        
+        tickMonitor.start();
+        saveProgress();
+        task = SchedulerUtil.runTimerGlobal(plugin, this::tick, 1L, 1L);
+        report("Pregenerating " + chunkXs.length + " chunks around " + centerList.size() + " spawn location(s)");
+    }
+    
+    private void tick() {
+        if (chunkWorlds == null) {
+            return;
+        }
+        
+        if (++ticksSinceReport >= PROGRESS_INTERVAL_TICKS) {
+            long now = System.nanoTime();
+            chunksPerSecond = (completed - completedAtLastReport) / ((now - lastReportNanos) / 1_000_000_000.0);
+            completedAtLastReport = completed;
+            lastReportNanos = now;
+            ticksSinceReport = 0;
+            saveProgress();
+            report("Pregeneration " + getProgress());
+        }
+        
+        if (nextIndex >= chunkXs.length && inFlight.isEmpty()) {
+            report("Pregeneration finished: " + chunkXs.length + " chunks generated");
+            stopTask();
+            chunkWorlds = null;
+            if (progressFile.exists() && !progressFile.delete()) {
+                plugin.getLogger().warning("Failed to delete " + progressFile.getName());
+            }
+            return;
+        }
+        
+        paused = tickMonitor.isAbove(targetTickMillis);
+        if (paused) {
+            return;
+        }
+        
+        while (inFlight.size() < maxInFlight && nextIndex < chunkXs.length) {
+            int index = nextIndex++;
+            World world = plugin.getServer().getWorld(chunkWorlds.get(index));
+            if (world == null) {
+                completed++;
+                continue;
+            }
+            
+            inFlight.add(index);
+            int x = chunkXs[index];
+            int z = chunkZs[index];
+            ChunkLoader.loadAsync(plugin, world, x, z, 1L).whenComplete((chunk, error) -> {
+                if (error != null) {
+                    plugin.getLogger().warning("Failed to generate chunk " + x + ", " + z + ": " + error.getMessage());
+                } else {
+                    // Let the server save and unload the chunk again unless something else holds it
+                    SchedulerUtil.runAtLocation(plugin, new Location(world, x << 4, 0, z << 4),
+                        () -> world.unloadChunkRequest(x, z));
+                }
+                SchedulerUtil.runDelayedGlobal(plugin, () -> finished(index), 1L);
+            });
+        }
+    }
+    
+    private void finished(int index) {
+        if (inFlight.remove(index)) {
+            completed++;
+        }
+    }
+    
+    private void saveProgress() {
+        String contents = progressSnapshot();
+        SchedulerUtil.runAsync(plugin, () -> writeProgress(contents));
+    }
+    
+    private String progressSnapshot() {
+        YamlConfiguration saved = new YamlConfiguration();
+        saved.set("centers", centers);
+        saved.set("radius", radius);
+        // Everything before the oldest chunk still in flight is done
+        saved.set("completed", inFlight.isEmpty() ? nextIndex : inFlight.first());
+        return saved.saveToString();
+    }
+    
+    private void writeProgress(String contents) {
+        try {
+            Files.createDirectories(progressFile.getParentFile().toPath());
+            Files.writeString(progressFile.toPath(), contents);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save pregeneration progress: " + e.getMessage());
+        }
+    }
+    
+    private void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        inFlight.clear();
+    }
+    
+    private void report(String message) {
+        plugin.getLogger().info(message);
+        CommandSender target = requester;
+        if (target != null && !(target instanceof ConsoleCommandSender)) {
+            target.sendMessage(ChatColor.YELLOW + message);
+        }
+    }
+}
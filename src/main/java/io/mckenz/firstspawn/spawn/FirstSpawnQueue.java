@@ -0,0 +1,238 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.TickMonitor;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Admission control for first spawns during join storms.
+ * Each tick refills a token bucket with the current per-tick budget and admits that many
+ * queued first spawns. The budget is halved while ticks run over the target tick time and
+ * grows back slowly once the server recovers, so a wave of new players is spread over
+ * several ticks instead of landing on one.
+ */
+public class FirstSpawnQueue {
+    
+    private static final int WAIT_SAMPLES = 1024;
+    private static final int DECREASE_COOLDOWN_TICKS = 20;
+    
+    private final FirstSpawn plugin;
+    private final TickMonitor tickMonitor;
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    
+    // Recent wait times in milliseconds, used for the percentiles in /firstspawn status
+    private final long[] waitSamples = new long[WAIT_SAMPLES];
+    private int waitSampleCount;
+    private int waitSampleIndex;
+    
+    private boolean enabled;
+    private double maxPerTick;
+    private double minPerTick;
+    private double burst;
+    private double increasePerTick;
+    private double targetTickMillis;
+    
+    private double budget;
+    private double tokens;
+    private int cooldown;
+    private ScheduledTask drainTask;
+    
+    /**
+     * Creates a new FirstSpawnQueue
+     * 
+     * @param plugin The plugin instance
+     * @param tickMonitor The monitor used to measure tick times
+     */
+    public FirstSpawnQueue(FirstSpawn plugin, TickMonitor tickMonitor) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+    }
+    
+    /**
+     * Reads the admission section of the configuration
+     * 
+     * @param config The plugin configuration
+     */
+    public synchronized void loadConfig(FileConfiguration config) {
+        enabled = config.getBoolean("admission.enabled", true);
+        maxPerTick = Math.max(0.05, config.getDouble("admission.max-per-tick", 5.0));
+        minPerTick = Math.min(maxPerTick, Math.max(0.05, config.getDouble("admission.min-per-tick", 1.0)));
+        burst = Math.max(1.0, config.getDouble("admission.burst", 10.0));
+        increasePerTick = Math.max(0.001, config.getDouble("admission.increase-per-tick", 0.05));
+        targetTickMillis = Math.max(1.0, config.getDouble("admission.target-mspt", 45.0));
+        budget = maxPerTick;
+        tokens = Math.min(tokens, burst);
+        
+        if (enabled) {
+            tickMonitor.start();
+            if (drainTask == null || drainTask.isCancelled()) {
+                drainTask = SchedulerUtil.runTimerGlobal(plugin, this::drain, 1L, 1L);
+            }
+        }
+    }
+    
+    /**
+     * Runs a first spawn now if the budget allows it, or queues it for a later tick.
+     * The action is always run on the thread that owns the player.
+     * 
+     * @param player The player being spawned
+     * @param action The first spawn work for the player
+     */
+    public void submit(Player player, Runnable action) {
+        synchronized (this) {
+            if (enabled && (!queue.isEmpty() || tokens < 1.0)) {
+                queue.addLast(new Pending(player, action, System.nanoTime()));
+                return;
+            }
+            if (enabled) {
+                tokens -= 1.0;
+                recordWait(0L);
+            }
+        }
+        action.run();
+    }
+    
+    /**
+     * Drops queued first spawns and stops draining
+     */
+    public synchronized void shutdown() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        queue.clear();
+    }
+    
+    /**
+     * Gets the number of first spawns waiting to be admitted
+     * 
+     * @return The queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * Gets the current number of first spawns admitted per tick
+     * 
+     * @return The current per-tick budget
+     */
+    public synchronized double getBudget() {
+        return budget;
+    }
+    
+    /**
+     * Checks if admission control is enabled
+     * 
+     * @return True if first spawns are being rate limited, false otherwise
+     */
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Gets a percentile of recent queue wait times
+     * 
+     * @param percentile The percentile between 0 and 100
+     * @return The wait time in milliseconds, or 0 if nothing has been admitted yet
+     */
+    public synchronized long getWaitPercentile(double percentile) {
+        if (waitSampleCount == 0) {
+            return 0L;
+        }
+        long[] sorted = Arrays.copyOf(waitSamples, waitSampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+    
+    /**
+     * Gets the smoothed server tick time the budget is adjusted against
+     * 
+     * @return The average tick time in milliseconds
+     */
+    public double getAverageTickMillis() {
+        return tickMonitor.getAverageTickMillis();
+    }
+    
+    /**
+     * Adjusts the budget, refills the bucket and admits as many queued first spawns as it allows
+     */
+    private void drain() {
+        Pending[] admitted;
+        synchronized (this) {
+            if (!enabled) {
+                admitted = queue.toArray(new Pending[0]);
+                queue.clear();
+            } else {
+                adjustBudget();
+                tokens = Math.min(burst, tokens + budget);
+                
+                int count = (int) Math.min(queue.size(), Math.floor(tokens));
+                admitted = new Pending[count];
+                long now = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    admitted[i] = queue.pollFirst();
+                    recordWait((now - admitted[i].enqueuedAt()) / 1_000_000L);
+                }
+                tokens -= count;
+            }
+        }
+        
+        for (Pending pending : admitted) {
+            Player player = pending.player();
+            if (!player.isOnline()) {
+                continue;
+            }
+            if (SchedulerUtil.isFolia()) {
+                SchedulerUtil.runDelayed(plugin, pending.action(), 1L, player);
+            } else {
+                pending.action().run();
+            }
+        }
+    }
+    
+    /**
+     * Halves the budget while ticks are over target, at most once a second,
+     * and grows it back additively otherwise
+     */
+    private void adjustBudget() {
+        if (cooldown > 0) {
+            cooldown--;
+        }
+        
+        if (tickMonitor.isAbove(targetTickMillis)) {
+            if (cooldown == 0 && budget > minPerTick) {
+                budget = Math.max(minPerTick, budget / 2.0);
+                cooldown = DECREASE_COOLDOWN_TICKS;
+                double lowered = budget;
+                plugin.logDebug(() -> String.format("Tick time %.1fms over target, first spawn budget lowered to %.2f/tick",
+                        tickMonitor.getAverageTickMillis(), lowered));
+            }
+        } else if (budget < maxPerTick) {
+            budget = Math.min(maxPerTick, budget + increasePerTick);
+        }
+    }
+    
+    private void recordWait(long waitMillis) {
+        waitSamples[waitSampleIndex] = waitMillis;
+        waitSampleIndex = (waitSampleIndex + 1) % WAIT_SAMPLES;
+        if (waitSampleCount < WAIT_SAMPLES) {
+            waitSampleCount++;
+        }
+    }
+    
+    /**
+     * A first spawn waiting to be admitted
+     */
+    private record Pending(Player player, Runnable action, long enqueuedAt) {
+    }
+}
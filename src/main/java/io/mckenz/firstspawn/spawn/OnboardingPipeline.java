@@ -0,0 +1,260 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.message.MessageTemplate;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the configured onboarding stages for new players after their first spawn: starter items,
+ * commands, chat lines and titles, each stage a set number of ticks after the one before.
+ * Stages run on the player's own thread through their entity scheduler, and at most a set number
+ * of stages run per tick across all players, so a wave of new players has its onboarding spread
+ * over the following ticks instead of landing on the join tick. A stage that finds the budget
+ * spent waits a tick and tries again; players who leave drop the rest of their stages.
+ */
+public class OnboardingPipeline {
+    
+    private final FirstSpawn plugin;
+    private final AtomicInteger budget = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile Stage[] stages = new Stage[0];
+    private volatile int stagesPerTick;
+    private ScheduledTask refillTask;
+    
+    /**
+     * Creates a new OnboardingPipeline
+     * 
+     * @param plugin The plugin instance
+     */
+    public OnboardingPipeline(FirstSpawn plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Compiles the stages from the onboarding section of the configuration
+     * Players already being onboarded finish with the stages they started with.
+     * 
+     * @param config The plugin configuration
+     */
+    public synchronized void loadConfig(FileConfiguration config) {
+        stagesPerTick = Math.max(1, config.getInt("onboarding.stages-per-tick", 40));
+        List<Stage> compiled = new ArrayList<>();
+        ConfigurationSection section = config.getConfigurationSection("onboarding.stages");
+        if (config.getBoolean("onboarding.enabled", false) && section != null) {
+            for (String name : section.getKeys(false)) {
+                Stage stage = readStage(name, section.getConfigurationSection(name));
+                if (stage != null) {
+                    compiled.add(stage);
+                }
+            }
+        }
+        stages = compiled.toArray(new Stage[0]);
+        budget.set(stagesPerTick);
+        
+        if (stages.length > 0 && refillTask == null) {
+            refillTask = SchedulerUtil.runTimerGlobal(plugin, () -> budget.set(stagesPerTick), 1L, 1L);
+        } else if (stages.length == 0 && refillTask != null) {
+            refillTask.cancel();
+            refillTask = null;
+        }
+        if (stages.length > 0) {
+            plugin.logDebug("Loaded " + stages.length + " onboarding stage(s), " + stagesPerTick + " per tick");
+        }
+    }
+    
+    /**
+     * Starts onboarding a player who was just sent to first spawn
+     * 
+     * @param player The new player
+     * @param spawnPoint The name of the spawn point the player was sent to
+     */
+    public void start(Player player, String spawnPoint) {
+        Stage[] current = stages;
+        if (current.length == 0) {
+            return;
+        }
+        active.incrementAndGet();
+        schedule(new Onboarding(player, spawnPoint, current), 0, current[0].delay());
+    }
+    
+    /**
+     * Gets the number of players whose onboarding has stages left to run
+     * 
+     * @return The number of players being onboarded
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+    
+    /**
+     * Gets the number of configured stages
+     * 
+     * @return The number of stages
+     */
+    public int getStageCount() {
+        return stages.length;
+    }
+    
+    /**
+     * Stops refilling the stage budget
+     */
+    public synchronized void shutdown() {
+        if (refillTask != null) {
+            refillTask.cancel();
+            refillTask = null;
+        }
+    }
+    
+    private void schedule(Onboarding onboarding, int index, long delayTicks) {
+        SchedulerUtil.runDelayed(plugin,
+            () -> run(onboarding, index),
+            active::decrementAndGet,
+            Math.max(1L, delayTicks), onboarding.player());
+    }
+    
+    /**
+     * Runs a stage on the player's thread if the budget allows, otherwise retries next tick
+     */
+    private void run(Onboarding onboarding, int index) {
+        Player player = onboarding.player();
+        if (!player.isOnline()) {
+            active.decrementAndGet();
+            return;
+        }
+        if (budget.getAndDecrement() <= 0) {
+            schedule(onboarding, index, 1L);
+            return;
+        }
+        
+        Stage stage = onboarding.stages()[index];
+        try {
+            stage.run(plugin, player, onboarding.spawnPoint());
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Error running onboarding stage '" + stage.name() + "' for " +
+                player.getName() + ": " + e.getMessage());
+        }
+        
+        if (index + 1 < onboarding.stages().length) {
+            schedule(onboarding, index + 1, onboarding.stages()[index + 1].delay());
+        } else {
+            active.decrementAndGet();
+            plugin.logDebug(() -> "Finished onboarding " + player.getName());
+        }
+    }
+    
+    /**
+     * Reads a single stage from its configuration section
+     */
+    private Stage readStage(String name, ConfigurationSection section) {
+        if (section == null) {
+            return null;
+        }
+        
+        List<ItemStack> items = new ArrayList<>();
+        for (String item : section.getStringList("items")) {
+            String[] parts = item.trim().split("\\s+");
+            Material material = Material.matchMaterial(parts[0]);
+            if (material == null || !material.isItem()) {
+                plugin.getLogger().warning("Unknown item '" + parts[0] + "' in onboarding stage '" + name + "'");
+                continue;
+            }
+            int amount = 1;
+            if (parts.length > 1) {
+                try {
+                    amount = Math.max(1, Integer.parseInt(parts[1]));
+                } catch (NumberFormatException e) {
+                    plugin.getLogger().warning("Invalid amount '" + parts[1] + "' in onboarding stage '" + name + "'");
+                }
+            }
+            items.add(new ItemStack(material, amount));
+        }
+        
+        List<MessageTemplate> messages = new ArrayList<>();
+        for (String message : section.getStringList("messages")) {
+            messages.add(MessageTemplate.compile(message));
+        }
+        
+        return new Stage(name,
+            Math.max(0L, section.getLong("delay", 0L)),
+            items.toArray(new ItemStack[0]),
+            section.getStringList("commands").toArray(new String[0]),
+            messages.toArray(new MessageTemplate[0]),
+            MessageTemplate.compile(section.getString("title", "")),
+            MessageTemplate.compile(section.getString("subtitle", "")));
+    }
+    
+    /**
+     * A player working through the stages that were configured when they spawned
+     */
+    private record Onboarding(Player player, String spawnPoint, Stage[] stages) {
+    }
+    
+    /**
+     * A compiled onboarding stage
+     * 
+     * @param name The stage name from the configuration
+     * @param delay Ticks to wait after the previous stage, or after the first spawn for the first stage
+     * @param items Items to give the player
+     * @param commands Commands to run, as the console unless prefixed with player:
+     * @param messages Chat lines to send the player
+     * @param title Title to show the player, may be empty
+     * @param subtitle Subtitle to show with the title, may be empty
+     */
+    private record Stage(String name, long delay, ItemStack[] items, String[] commands, MessageTemplate[] messages,
+                         MessageTemplate title, MessageTemplate subtitle) {
+        
+        /**
+         * Runs every action of the stage for a player, on the player's thread
+         */
+        void run(FirstSpawn plugin, Player player, String spawnPoint) {
+            if (items.length > 0) {
+                // addItem changes the amounts of the stacks it is given, so hand it copies
+                ItemStack[] copies = new ItemStack[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    copies[i] = items[i].clone();
+                }
+                player.getInventory().addItem(copies);
+            }
+            
+            for (String command : commands) {
+                String resolved = command.replace("{player}", player.getName()).replace("{spawn}", spawnPoint);
+                if (resolved.startsWith("player:")) {
+                    player.performCommand(resolved.substring(7).trim());
+                } else {
+                    String consoleCommand = resolved.startsWith("console:") ? resolved.substring(8).trim() : resolved;
+                    Runnable dispatch = () -> plugin.getServer().dispatchCommand(
+                        plugin.getServer().getConsoleSender(), consoleCommand);
+                    if (SchedulerUtil.isFolia()) {
+                        // Console commands belong to the global thread on Folia
+                        SchedulerUtil.runDelayedGlobal(plugin, dispatch, 1L);
+                    } else {
+                        dispatch.run();
+                    }
+                }
+            }
+            
+            if (messages.length == 0 && title.isEmpty() && subtitle.isEmpty()) {
+                return;
+            }
+            MessageTemplate.Context context = new MessageTemplate.Context(
+                player.getName(), plugin.getServer().getOnlinePlayers().size(), spawnPoint, 0L);
+            for (MessageTemplate message : messages) {
+                player.sendMessage(message.render(context));
+            }
+            if (!title.isEmpty() || !subtitle.isEmpty()) {
+                player.sendTitle(title.render(context), subtitle.render(context), 10, 70, 20);
+            }
+        }
+    }
+}
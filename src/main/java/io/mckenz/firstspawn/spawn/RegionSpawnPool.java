@@ -0,0 +1,362 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.util.ChunkLoader;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scatters new players across a spawn region.
+ * Chunks in the region are scanned in the background from chunk snapshots into a bitmap of
+ * safe columns, and a bounded pool of ready-to-use locations is drawn from that bitmap.
+ * Handing a player a location is a single poll from the pool, never a search.
+ */
+public class RegionSpawnPool {
+    
+    /**
+     * Spawn point name recorded for players placed in the spawn region
+     */
+    public static final String POINT_NAME = "region";
+    
+    private static final long REFILL_INTERVAL_TICKS = 20L;
+    
+    private final FirstSpawn plugin;
+    private final Queue<Location> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger readyCount = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    // Safe columns per scanned chunk, guarded by this
+    private final Map<Long, SafeCells> cells = new HashMap<>();
+    
+    private volatile SpawnRegion region;
+    private int poolSize;
+    private int chunksPerCycle;
+    private int maxScannedChunks;
+    private ScheduledTask refillTask;
+    
+    /**
+     * Safe columns found in one chunk
+     */
+    private static final class SafeCells {
+        private final long[] bits = new long[4];
+        private final short[] feetY = new short[256];
+        private int remaining;
+        
+        private void set(int index, int y) {
+            bits[index >> 6] |= 1L << index;
+            feetY[index] = (short) y;
+            remaining++;
+        }
+        
+        private boolean clear(int index) {
+            long mask = 1L << index;
+            if ((bits[index >> 6] & mask) == 0) {
+                return false;
+            }
+            bits[index >> 6] &= ~mask;
+            remaining--;
+            return true;
+        }
+        
+        // Takes the first safe column at or after a random start
+        private int take(int start) {
+            for (int i = 0; i < 256; i++) {
+                int index = (start + i) & 255;
+                if (clear(index)) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+    }
+    
+    /**
+     * Creates a new RegionSpawnPool
+     * 
+     * @param plugin The plugin instance
+     */
+    public RegionSpawnPool(FirstSpawn plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Reads the spawn-region section of the configuration and restarts background refilling
+     * 
+     * @param config The plugin configuration
+     * @param server The server, used to look up the region's world
+     */
+    public void loadConfig(FileConfiguration config, Server server) {
+        stop();
+        synchronized (this) {
+            cells.clear();
+        }
+        ready.clear();
+        readyCount.set(0);
+        region = null;
+        
+        if (!config.getBoolean("spawn-region.enabled", false)) {
+            return;
+        }
+        
+        String worldName = config.getString("spawn-region.world", "world");
+        World world = server.getWorld(worldName);
+        if (world == null) {
+            plugin.getLogger().warning("Spawn region world '" + worldName + "' not found! Spawn region will not be used.");
+            return;
+        }
+        
+        try {
+            if ("POLYGON".equalsIgnoreCase(config.getString("spawn-region.shape", "RADIUS"))) {
+                List<double[]> vertices = new ArrayList<>();
+                for (String vertex : config.getStringList("spawn-region.polygon")) {
+                    String[] parts = vertex.split(",");
+                    vertices.add(new double[] {Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim())});
+                }
+                region = SpawnRegion.polygon(world, vertices);
+            } else {
+                region = SpawnRegion.circle(world,
+                    config.getDouble("spawn-region.center-x", 0),
+                    config.getDouble("spawn-region.center-z", 0),
+                    config.getDouble("spawn-region.radius", 500));
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Invalid spawn region: " + e.getMessage() + ". Spawn region will not be used.");
+            return;
+        }
+        
+        poolSize = Math.max(1, config.getInt("spawn-region.pool-size", 64));
+        chunksPerCycle = Math.max(1, config.getInt("spawn-region.chunks-per-cycle", 4));
+        maxScannedChunks = Math.max(1, config.getInt("spawn-region.max-scanned-chunks", 256));
+        refillTask = SchedulerUtil.runTimerGlobal(plugin, this::refill, 1L, REFILL_INTERVAL_TICKS);
+        plugin.logDebug("Spawn region enabled in " + worldName + " with a pool of " + poolSize + " locations");
+    }
+    
+    /**
+     * Checks if new players are scattered across a spawn region
+     * 
+     * @return True if a spawn region is configured, false otherwise
+     */
+    public boolean isEnabled() {
+        return region != null;
+    }
+    
+    /**
+     * Takes a ready location for a new player
+     * 
+     * @return A safe location in the region, or null if the region is disabled or the pool is empty
+     */
+    public Location poll() {
+        Location location = ready.poll();
+        if (location != null) {
+            readyCount.decrementAndGet();
+        }
+        return location;
+    }
+    
+    /**
+     * Gets a copy of the location the next new player would take, without taking it
+     * 
+     * @return The next ready location, or null if the region is disabled or the pool is empty
+     */
+    public Location peek() {
+        Location location = ready.peek();
+        return location == null ? null : location.clone();
+    }
+    
+    /**
+     * Gets the number of locations ready to hand out
+     * 
+     * @return The number of pooled locations
+     */
+    public int getReadyCount() {
+        return readyCount.get();
+    }
+    
+    /**
+     * Gets the number of chunks with safe columns still available
+     * 
+     * @return The number of scanned chunks
+     */
+    public synchronized int getScannedChunkCount() {
+        return cells.size();
+    }
+    
+    /**
+     * Forgets a changed block column so no player is sent to it
+     * 
+     * @param world The world the block is in
+     * @param x The block X coordinate
+     * @param z The block Z coordinate
+     */
+    public void blockChanged(World world, int x, int z) {
+        SpawnRegion current = region;
+        if (current == null || !current.getWorld().equals(world) || !current.contains(x, z)) {
+            return;
+        }
+        
+        synchronized (this) {
+            SafeCells chunk = cells.get(SafeLocationResolver.chunkKey(x >> 4, z >> 4));
+            if (chunk != null) {
+                chunk.clear(((z & 15) << 4) | (x & 15));
+            }
+        }
+        if (ready.removeIf(location -> location.getBlockX() == x && location.getBlockZ() == z)) {
+            readyCount.set(ready.size());
+        }
+    }
+    
+    /**
+     * Stops background refilling
+     */
+    public void stop() {
+        if (refillTask != null) {
+            refillTask.cancel();
+            refillTask = null;
+        }
+    }
+    
+    /**
+     * Tops the pool up, scanning new chunks first if too few safe columns are known
+     */
+    private void refill() {
+        SpawnRegion current = region;
+        if (current == null || readyCount.get() >= poolSize || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        
+        List<long[]> toScan = pickChunksToScan(current);
+        if (toScan.isEmpty()) {
+            SchedulerUtil.runAsync(plugin, () -> fill(current));
+            return;
+        }
+        
+        World world = current.getWorld();
+        List<CompletableFuture<ChunkSnapshot>> snapshots = new ArrayList<>();
+        for (long[] chunk : toScan) {
+            snapshots.add(ChunkLoader.snapshotAsync(plugin, world, (int) chunk[0], (int) chunk[1], true));
+        }
+        
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+        CompletableFuture.allOf(snapshots.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to scan spawn region chunks: " + error.getMessage());
+            }
+            SchedulerUtil.runAsync(plugin, () -> {
+                for (CompletableFuture<ChunkSnapshot> snapshot : snapshots) {
+                    if (!snapshot.isCompletedExceptionally()) {
+                        scan(current, snapshot.join(), minY, maxY);
+                    }
+                }
+                fill(current);
+            });
+        });
+    }
+    
+    /**
+     * Picks random unscanned chunks in the region, while under the scanned chunk limit
+     */
+    private synchronized List<long[]> pickChunksToScan(SpawnRegion current) {
+        List<long[]> picked = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < chunksPerCycle * 4 && picked.size() < chunksPerCycle
+                && cells.size() + picked.size() < maxScannedChunks; attempt++) {
+            int[] column = current.randomColumn(random);
+            if (column == null) {
+                continue;
+            }
+            long[] chunk = {column[0] >> 4, column[1] >> 4};
+            long key = SafeLocationResolver.chunkKey((int) chunk[0], (int) chunk[1]);
+            boolean alreadyPicked = picked.stream().anyMatch(p -> p[0] == chunk[0] && p[1] == chunk[1]);
+            if (!cells.containsKey(key) && !alreadyPicked) {
+                picked.add(chunk);
+            }
+        }
+        return picked;
+    }
+    
+    /**
+     * Builds the safe-column bitmap for a scanned chunk, standing on the highest block of each column
+     */
+    private void scan(SpawnRegion current, ChunkSnapshot snapshot, int minY, int maxY) {
+        int baseX = snapshot.getX() << 4;
+        int baseZ = snapshot.getZ() << 4;
+        SafeCells found = new SafeCells();
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                if (!current.contains(baseX + x, baseZ + z)) {
+                    continue;
+                }
+                int feetY = snapshot.getHighestBlockYAt(x, z) + 1;
+                if (SafeLocationResolver.isStandable(snapshot, x, feetY, z, minY, maxY)) {
+                    found.set((z << 4) | x, feetY);
+                }
+            }
+        }
+        
+        synchronized (this) {
+            if (region == current && found.remaining > 0) {
+                cells.put(SafeLocationResolver.chunkKey(snapshot.getX(), snapshot.getZ()), found);
+            }
+        }
+    }
+    
+    /**
+     * Moves random safe columns from the bitmap into the ready pool, spread across chunks
+     */
+    private void fill(SpawnRegion current) {
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Location> drawn = new ArrayList<>();
+            synchronized (this) {
+                if (region != current) {
+                    return;
+                }
+                List<Long> available = new ArrayList<>(cells.keySet());
+                Collections.shuffle(available, random);
+                int needed = poolSize - readyCount.get();
+                // One column per chunk per round, so players are spread over every scanned chunk
+                while (drawn.size() < needed && !available.isEmpty()) {
+                    Iterator<Long> iterator = available.iterator();
+                    while (iterator.hasNext() && drawn.size() < needed) {
+                        long key = iterator.next();
+                        SafeCells chunk = cells.get(key);
+                        int index = chunk.take(random.nextInt(256));
+                        if (index >= 0) {
+                            int x = ((int) (key >> 32) << 4) + (index & 15);
+                            int z = ((int) key << 4) + (index >> 4);
+                            drawn.add(new Location(current.getWorld(), x + 0.5, chunk.feetY[index], z + 0.5));
+                        }
+                        if (chunk.remaining == 0) {
+                            // Used up, so it may be picked for a fresh scan later
+                            cells.remove(key);
+                            iterator.remove();
+                        }
+                    }
+                }
+            }
+            ready.addAll(drawn);
+            readyCount.addAndGet(drawn.size());
+        } finally {
+            refilling.set(false);
+        }
+    }
+}
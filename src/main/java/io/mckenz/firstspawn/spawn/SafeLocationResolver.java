@@ -0,0 +1,386 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.api.SpawnPoint;
+import io.mckenz.firstspawn.util.ChunkLoader;
+import io.mckenz.firstspawn.util.LocationFormatter;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes sure players are never sent to an unsafe spawn point.
+ * Each spawn point is checked against snapshots of the chunks around it on an async thread;
+ * if the configured block is unsafe, the nearest safe standable spot is searched for in an
+ * expanding neighborhood. The result is cached until a block change near the spawn point
+ * marks it stale and triggers a fresh scan. The join path only ever reads the cache, and sends
+ * players to the configured location while it is stale rather than reading blocks on the tick.
+ */
+public class SafeLocationResolver {
+    
+    // Blocks that hurt or trap a player standing in them
+    private static final Set<Material> UNSAFE_BODY = EnumSet.of(
+        Material.LAVA, Material.WATER, Material.FIRE, Material.SOUL_FIRE, Material.SWEET_BERRY_BUSH,
+        Material.POWDER_SNOW, Material.COBWEB, Material.WITHER_ROSE, Material.POINTED_DRIPSTONE,
+        Material.CACTUS, Material.CAMPFIRE, Material.SOUL_CAMPFIRE
+    );
+    
+    // Solid blocks that hurt a player standing on them
+    private static final Set<Material> UNSAFE_GROUND = EnumSet.of(
+        Material.MAGMA_BLOCK, Material.CACTUS, Material.CAMPFIRE, Material.SOUL_CAMPFIRE, Material.POINTED_DRIPSTONE
+    );
+    
+    // Wait this long after a block change before scanning again, so a burst of changes costs one scan
+    private static final long RESCAN_DELAY_TICKS = 20L;
+    
+    private final FirstSpawn plugin;
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+    private volatile ChunkIndex targetsByChunk = ChunkIndex.EMPTY;
+    
+    private boolean enabled;
+    private int searchRadius;
+    private int verticalRange;
+    
+    /**
+     * A spawn point being kept safe
+     */
+    private static final class Target {
+        private final String name;
+        private final Location location;
+        private final World world;
+        private final int minY;
+        private final int maxY;
+        private final AtomicBoolean rescanPending = new AtomicBoolean();
+        // Bumped on every nearby block change; a result is only current for the count it was scanned at
+        private final AtomicLong changes = new AtomicLong();
+        private volatile Result result;
+        
+        private Target(String name, Location location) {
+            this.name = name;
+            this.location = location;
+            this.world = location.getWorld();
+            this.minY = world.getMinHeight();
+            this.maxY = world.getMaxHeight();
+        }
+    }
+    
+    /**
+     * A safe spot, and the change count of its target when the blocks were read
+     */
+    private record Result(Location safe, long change) {
+    }
+    
+    /**
+     * Reads block types for the safety search
+     */
+    @FunctionalInterface
+    private interface Blocks {
+        
+        /**
+         * Gets a block type
+         * 
+         * @return The block type, or null if the block cannot be read
+         */
+        Material typeAt(int x, int y, int z);
+    }
+    
+    /**
+     * Immutable open-addressed map from chunk key to the targets watching that chunk
+     * Looked up on every block change event, so it takes primitive keys and never allocates
+     */
+    private static final class ChunkIndex {
+        
+        private static final ChunkIndex EMPTY = new ChunkIndex(Map.of());
+        
+        private final long[] keys;
+        private final Target[][] values;
+        private final int mask;
+        
+        private ChunkIndex(Map<Long, List<Target>> watching) {
+            int capacity = Integer.highestOneBit(Math.max(1, watching.size()) * 4 - 1) << 1;
+            keys = new long[capacity];
+            values = new Target[capacity][];
+            mask = capacity - 1;
+            watching.forEach((key, list) -> {
+                int slot = slot(key);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = list.toArray(new Target[0]);
+            });
+        }
+        
+        private Target[] get(long key) {
+            for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+        
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+    
+    /**
+     * Creates a new SafeLocationResolver
+     * 
+     * @param plugin The plugin instance
+     */
+    public SafeLocationResolver(FirstSpawn plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Reads the safe-spawn section of the configuration
+     * 
+     * @param config The plugin configuration
+     */
+    public void loadConfig(FileConfiguration config) {
+        enabled = config.getBoolean("safe-spawn.enabled", true);
+        searchRadius = Math.max(0, Math.min(15, config.getInt("safe-spawn.search-radius", 8)));
+        verticalRange = Math.max(0, config.getInt("safe-spawn.vertical-range", 6));
+    }
+    
+    /**
+     * Scans every spawn point again, replacing all cached results
+     * Called on enable, on reload and whenever the spawn points change
+     * 
+     * @param points The spawn points new players can be sent to
+     */
+    public void refresh(Collection<SpawnPoint> points) {
+        targets.clear();
+        targetsByChunk = ChunkIndex.EMPTY;
+        if (!enabled) {
+            return;
+        }
+        
+        Map<Long, List<Target>> watching = new HashMap<>();
+        for (SpawnPoint point : points) {
+            Location location = point.getLocation();
+            if (location.getWorld() == null) {
+                continue;
+            }
+            
+            Target target = new Target(point.getName(), location);
+            targets.put(point.getName().toLowerCase(), target);
+            for (long chunk : chunksAround(location)) {
+                watching.computeIfAbsent(chunk, key -> new ArrayList<>()).add(target);
+            }
+            scan(target);
+        }
+        targetsByChunk = new ChunkIndex(watching);
+    }
+    
+    /**
+     * Gets where a player should actually be placed for a spawn point
+     * Only reads the cached scan result, never the blocks themselves
+     * 
+     * @param point The spawn point selected for the player
+     * @return The nearest safe location to the spawn point, or the spawn point's own location
+     *         if it has not been scanned yet, a block near it changed since the last scan,
+     *         or no safe spot was found
+     */
+    public Location getSafeLocation(SpawnPoint point) {
+        Location location = point.getLocation();
+        if (!enabled) {
+            return location;
+        }
+        
+        Target target = targets.get(point.getName().toLowerCase());
+        if (target == null || !sameBlock(target.location, location)) {
+            return location;
+        }
+        Result result = target.result;
+        // Not scanned yet, or a nearby block changed since the scan and the rescan is already scheduled
+        if (result == null || result.change() != target.changes.get()) {
+            return location;
+        }
+        return result.safe().clone();
+    }
+    
+    /**
+     * Marks any spawn point near a changed block stale and schedules a new scan
+     * Called from block change events, so blocks away from spawn cost one primitive lookup
+     * 
+     * @param world The world the block is in
+     * @param x The block X coordinate
+     * @param y The block Y coordinate
+     * @param z The block Z coordinate
+     */
+    public void blockChanged(World world, int x, int y, int z) {
+        Target[] watching = targetsByChunk.get(chunkKey(x >> 4, z >> 4));
+        if (watching == null) {
+            return;
+        }
+        
+        for (Target target : watching) {
+            Location location = target.location;
+            if (target.world.equals(world)
+                    && Math.abs(x - location.getBlockX()) <= searchRadius
+                    && Math.abs(z - location.getBlockZ()) <= searchRadius
+                    && Math.abs(y - location.getBlockY()) <= verticalRange + 2) {
+                target.changes.incrementAndGet();
+                if (target.rescanPending.compareAndSet(false, true)) {
+                    SchedulerUtil.runDelayedGlobal(plugin, () -> {
+                        target.rescanPending.set(false);
+                        if (targets.get(target.name.toLowerCase()) == target) {
+                            scan(target);
+                        }
+                    }, RESCAN_DELAY_TICKS);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Snapshots the chunks around a spawn point on the threads that own them,
+     * then searches the snapshots for a safe spot on an async thread
+     */
+    private void scan(Target target) {
+        // Changes after this point may not be in the snapshots, and leave the result stale
+        long change = target.changes.get();
+        Map<Long, CompletableFuture<ChunkSnapshot>> snapshots = new HashMap<>();
+        for (long chunk : chunksAround(target.location)) {
+            snapshots.put(chunk, ChunkLoader.snapshotAsync(plugin, target.world, (int) (chunk >> 32), (int) chunk, false));
+        }
+        
+        CompletableFuture.allOf(snapshots.values().toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to check spawn point '" + target.name + "' for safety: " + error.getMessage());
+                return;
+            }
+            
+            Map<Long, ChunkSnapshot> loaded = new HashMap<>();
+            snapshots.forEach((chunk, future) -> loaded.put(chunk, future.join()));
+            SchedulerUtil.runAsync(plugin, () -> {
+                Location safe = findSafe(target, (x, y, z) -> {
+                    ChunkSnapshot snapshot = loaded.get(chunkKey(x >> 4, z >> 4));
+                    return snapshot != null ? snapshot.getBlockType(x & 15, y, z & 15) : null;
+                });
+                if (safe == null) {
+                    plugin.getLogger().warning("No safe location found within " + searchRadius + " blocks of spawn point '" +
+                            target.name + "', players will be sent to the configured location");
+                    safe = target.location;
+                } else if (!sameBlock(safe, target.location)) {
+                    plugin.logDebug("Spawn point '" + target.name + "' is unsafe, using " +
+                            LocationFormatter.formatLocationRaw(safe) + " instead");
+                }
+                target.result = new Result(safe, change);
+            });
+        });
+    }
+    
+    /**
+     * Searches outward from the spawn point, ring by ring, preferring spots at the same height
+     * 
+     * @return The nearest safe location, or null if there is none within range
+     */
+    private Location findSafe(Target target, Blocks blocks) {
+        Location origin = target.location;
+        int originX = origin.getBlockX();
+        int originY = origin.getBlockY();
+        int originZ = origin.getBlockZ();
+        if (isStandable(blocks, originX, originY, originZ, target.minY, target.maxY)) {
+            return origin.clone();
+        }
+        
+        for (int radius = 0; radius <= searchRadius; radius++) {
+            for (int step = 0; step <= verticalRange * 2; step++) {
+                // 0, +1, -1, +2, -2, ...
+                int dy = (step + 1) / 2 * (step % 2 == 0 ? -1 : 1);
+                int y = originY + dy;
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dz = -radius; dz <= radius; dz++) {
+                        if (Math.max(Math.abs(dx), Math.abs(dz)) != radius) {
+                            continue;
+                        }
+                        if (isStandable(blocks, originX + dx, y, originZ + dz, target.minY, target.maxY)) {
+                            return new Location(target.world, originX + dx + 0.5, y, originZ + dz + 0.5,
+                                    origin.getYaw(), origin.getPitch());
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+    
+
+    /**
+     * Checks if a player can safely stand at a position in a chunk snapshot: solid, harmless
+     * ground below and two clear, harmless blocks for the body
+     * 
+     * @param snapshot The chunk snapshot
+     * @param x The X coordinate within the chunk (0-15)
+     * @param y The Y coordinate of the player's feet
+     * @param z The Z coordinate within the chunk (0-15)
+     * @param minY The world's minimum height
+     * @param maxY The world's maximum height
+     * @return True if the position is safe, false otherwise
+     */
+    static boolean isStandable(ChunkSnapshot snapshot, int x, int y, int z, int minY, int maxY) {
+        return isStandable(snapshot::getBlockType, x, y, z, minY, maxY);
+    }
+    
+    private static boolean isStandable(Blocks blocks, int x, int y, int z, int minY, int maxY) {
+        if (y - 1 < minY || y + 1 >= maxY) {
+            return false;
+        }
+        
+        Material ground = blocks.typeAt(x, y - 1, z);
+        if (ground == null || !ground.isSolid() || UNSAFE_GROUND.contains(ground)) {
+            return false;
+        }
+        return isClear(blocks.typeAt(x, y, z)) && isClear(blocks.typeAt(x, y + 1, z));
+    }
+    
+    private static boolean isClear(Material material) {
+        return material != null && !material.isSolid() && !UNSAFE_BODY.contains(material);
+    }
+    
+    private List<Long> chunksAround(Location location) {
+        List<Long> chunks = new ArrayList<>(4);
+        int minChunkX = (location.getBlockX() - searchRadius) >> 4;
+        int maxChunkX = (location.getBlockX() + searchRadius) >> 4;
+        int minChunkZ = (location.getBlockZ() - searchRadius) >> 4;
+        int maxChunkZ = (location.getBlockZ() + searchRadius) >> 4;
+        for (int x = minChunkX; x <= maxChunkX; x++) {
+            for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                chunks.add(chunkKey(x, z));
+            }
+        }
+        return chunks;
+    }
+    
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+    
+    private static boolean sameBlock(Location a, Location b) {
+        return a.getWorld() == b.getWorld()
+            && a.getBlockX() == b.getBlockX()
+            && a.getBlockY() == b.getBlockY()
+            && a.getBlockZ() == b.getBlockZ();
+    }
+}
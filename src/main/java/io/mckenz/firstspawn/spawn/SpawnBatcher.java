@@ -0,0 +1,68 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.api.events.PlayerFirstSpawnBatchEvent;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects completed first spawns and calls one {@link PlayerFirstSpawnBatchEvent} per tick for them.
+ * Spawns complete on whichever thread owns the player, so they are gathered in a lock-free queue
+ * and a flush is scheduled on the global thread only when the first spawn of a tick arrives.
+ * Nothing is collected while no plugin listens for the batch event.
+ */
+public class SpawnBatcher {
+    
+    private final FirstSpawn plugin;
+    private final ConcurrentLinkedQueue<PlayerFirstSpawnBatchEvent.Spawn> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    
+    /**
+     * Creates a new SpawnBatcher
+     * 
+     * @param plugin The plugin instance
+     */
+    public SpawnBatcher(FirstSpawn plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Checks if any plugin listens for batches, so callers can skip building spawns nobody reads
+     * 
+     * @return True if the batch event has listeners, false otherwise
+     */
+    public boolean isListened() {
+        return PlayerFirstSpawnBatchEvent.getHandlerList().getRegisteredListeners().length > 0;
+    }
+    
+    /**
+     * Adds a completed first spawn to the current batch
+     * 
+     * @param spawn The completed first spawn
+     */
+    public void add(PlayerFirstSpawnBatchEvent.Spawn spawn) {
+        pending.add(spawn);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SchedulerUtil.runDelayedGlobal(plugin, this::flush, 1L);
+        }
+    }
+    
+    /**
+     * Calls the batch event for every spawn collected so far
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        List<PlayerFirstSpawnBatchEvent.Spawn> batch = new ArrayList<>();
+        PlayerFirstSpawnBatchEvent.Spawn spawn;
+        while ((spawn = pending.poll()) != null) {
+            batch.add(spawn);
+        }
+        if (!batch.isEmpty() && isListened()) {
+            plugin.getServer().getPluginManager().callEvent(new PlayerFirstSpawnBatchEvent(batch));
+        }
+    }
+}
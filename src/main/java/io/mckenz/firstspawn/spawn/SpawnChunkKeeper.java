@@ -0,0 +1,249 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.util.ChunkLoader;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the chunks around the first spawn location loaded with plugin chunk tickets.
+ * Chunks are loaded asynchronously before the ticket is added, so the first join
+ * after the spawn area went idle does not pay for a synchronous chunk load.
+ * In adaptive mode the ticket radius grows while players are joining for the first time
+ * and shrinks back once the server has been quiet for a while.
+ */
+public class SpawnChunkKeeper {
+    
+    private final FirstSpawn plugin;
+    private final AtomicInteger recentFirstJoins = new AtomicInteger();
+    
+    // Chunks we currently hold (or are acquiring) a ticket on
+    private final Set<ChunkKey> held = ConcurrentHashMap.newKeySet();
+    private List<Location> centers = List.of();
+    
+    private boolean enabled;
+    private int baseRadius;
+    private boolean adaptive;
+    private int maxRadius;
+    private int checkIntervalSeconds;
+    private int growThreshold;
+    private int shrinkThreshold;
+    private int shrinkDelayChecks;
+    
+    private int currentRadius;
+    private int quietChecks;
+    private ScheduledTask checkTask;
+    
+    /**
+     * Creates a new SpawnChunkKeeper
+     * 
+     * @param plugin The plugin instance
+     */
+    public SpawnChunkKeeper(FirstSpawn plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Reads the spawn-chunks section of the configuration
+     * 
+     * @param config The plugin configuration
+     */
+    public void loadConfig(FileConfiguration config) {
+        enabled = config.getBoolean("spawn-chunks.enabled", true);
+        baseRadius = Math.max(0, config.getInt("spawn-chunks.radius", 1));
+        adaptive = config.getBoolean("spawn-chunks.adaptive.enabled", true);
+        maxRadius = Math.max(baseRadius, config.getInt("spawn-chunks.adaptive.max-radius", 3));
+        checkIntervalSeconds = Math.max(1, config.getInt("spawn-chunks.adaptive.check-interval", 30));
+        growThreshold = Math.max(1, config.getInt("spawn-chunks.adaptive.grow-threshold", 10));
+        shrinkThreshold = Math.min(growThreshold, Math.max(0, config.getInt("spawn-chunks.adaptive.shrink-threshold", 2)));
+        int shrinkDelaySeconds = Math.max(0, config.getInt("spawn-chunks.adaptive.shrink-delay", 300));
+        shrinkDelayChecks = Math.max(1, shrinkDelaySeconds / checkIntervalSeconds);
+    }
+    
+    /**
+     * Re-acquires tickets around the given spawn locations.
+     * Called on enable, on reload and whenever the first spawn location changes.
+     * 
+     * @param locations The spawn locations to keep loaded
+     */
+    public void refresh(Collection<Location> locations) {
+        List<Location> snapshot = locations.stream()
+            .filter(location -> location != null && location.getWorld() != null)
+            .map(Location::clone)
+            .toList();
+        
+        SchedulerUtil.runDelayedGlobal(plugin, () -> {
+            centers = snapshot;
+            if (!enabled) {
+                currentRadius = 0;
+                apply(Set.of());
+                return;
+            }
+            
+            if (!adaptive || currentRadius < baseRadius) {
+                currentRadius = baseRadius;
+            }
+            apply(desiredChunks(currentRadius));
+            
+            // Restart the check so a changed check-interval takes effect
+            if (checkTask != null) {
+                checkTask.cancel();
+                checkTask = null;
+            }
+            if (adaptive) {
+                long period = checkIntervalSeconds * 20L;
+                checkTask = SchedulerUtil.runTimerGlobal(plugin, this::adjustRadius, period, period);
+            }
+        }, 1L);
+    }
+    
+    /**
+     * Records a first join so the adaptive radius can follow the join rate.
+     * Safe to call from any thread.
+     */
+    public void recordFirstJoin() {
+        recentFirstJoins.incrementAndGet();
+    }
+    
+    /**
+     * Releases every ticket held by the plugin
+     */
+    public void shutdown() {
+        if (checkTask != null) {
+            checkTask.cancel();
+            checkTask = null;
+        }
+        centers = List.of();
+        held.clear();
+        if (!SchedulerUtil.isFolia()) {
+            for (World world : plugin.getServer().getWorlds()) {
+                world.removePluginChunkTickets(plugin);
+            }
+        }
+    }
+    
+    /**
+     * Gets the radius, in chunks, that is currently being kept loaded
+     * 
+     * @return The current ticket radius
+     */
+    public int getCurrentRadius() {
+        return currentRadius;
+    }
+    
+    /**
+     * Gets the number of chunks currently held with a ticket
+     * 
+     * @return The number of held chunks
+     */
+    public int getHeldChunkCount() {
+        return held.size();
+    }
+    
+    /**
+     * Grows the radius as soon as the join rate crosses the grow threshold, and shrinks it
+     * only after the rate has stayed under the shrink threshold for the configured delay
+     */
+    private void adjustRadius() {
+        if (!enabled || !adaptive) {
+            return;
+        }
+        
+        int joins = recentFirstJoins.getAndSet(0);
+        int target = currentRadius;
+        
+        if (joins >= growThreshold) {
+            quietChecks = 0;
+            target = maxRadius;
+        } else if (joins <= shrinkThreshold) {
+            if (++quietChecks >= shrinkDelayChecks) {
+                target = baseRadius;
+            }
+        } else {
+            quietChecks = 0;
+        }
+        
+        if (target != currentRadius) {
+            plugin.logDebug("Spawn chunk radius " + currentRadius + " -> " + target +
+                    " (" + joins + " first joins in " + checkIntervalSeconds + "s)");
+            currentRadius = target;
+            apply(desiredChunks(currentRadius));
+        }
+    }
+    
+    /**
+     * Computes the chunks within the given radius of every spawn center
+     * 
+     * @param radius The radius in chunks
+     * @return The chunks that should hold a ticket
+     */
+    private Set<ChunkKey> desiredChunks(int radius) {
+        Set<ChunkKey> desired = new HashSet<>();
+        for (Location center : centers) {
+            int cx = center.getBlockX() >> 4;
+            int cz = center.getBlockZ() >> 4;
+            for (int x = cx - radius; x <= cx + radius; x++) {
+                for (int z = cz - radius; z <= cz + radius; z++) {
+                    desired.add(new ChunkKey(center.getWorld(), x, z));
+                }
+            }
+        }
+        return desired;
+    }
+    
+    /**
+     * Adds tickets for newly desired chunks and removes tickets that are no longer needed.
+     * New chunks are loaded asynchronously before their ticket is added, and ticket
+     * removals run on the region owning the chunk.
+     * 
+     * @param desired The chunks that should hold a ticket
+     */
+    private void apply(Set<ChunkKey> desired) {
+        for (ChunkKey key : Set.copyOf(held)) {
+            if (!desired.contains(key)) {
+                held.remove(key);
+                SchedulerUtil.runAtLocation(plugin, key.toLocation(),
+                    () -> key.world().removePluginChunkTicket(key.x(), key.z(), plugin));
+            }
+        }
+        
+        long delay = 1L;
+        for (ChunkKey key : desired) {
+            if (held.add(key)) {
+                ChunkLoader.loadAsync(plugin, key.world(), key.x(), key.z(), delay++)
+                    .thenAccept(chunk -> {
+                        // Skip if the chunk was released while it was loading
+                        if (held.contains(key)) {
+                            chunk.addPluginChunkTicket(plugin);
+                        }
+                    })
+                    .exceptionally(e -> {
+                        held.remove(key);
+                        plugin.getLogger().warning("Failed to load spawn chunk " + key.x() + ", " + key.z() + ": " + e.getMessage());
+                        return null;
+                    });
+            }
+        }
+    }
+    
+    /**
+     * Identifies a chunk in a specific world
+     */
+    private record ChunkKey(World world, int x, int z) {
+        
+        Location toLocation() {
+            return new Location(world, (x << 4) + 8, 0, (z << 4) + 8);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.api.SpawnPoint;
+import io.mckenz.firstspawn.api.SpawnStrategy;
+import io.mckenz.firstspawn.util.LocationFormatter;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Pool of named spawn points that new players are spread across.
+ * The pool contents are replaced as a whole on reload, so selection never sees a half-loaded pool.
+ * Occupancy is counted on each point's own region every second rather than on the join path,
+ * and every player sent to a point counts towards it until the next count.
+ */
+public class SpawnPointPool {
+    
+    /**
+     * Name of the implicit spawn point built from the firstSpawn section
+     */
+    public static final String DEFAULT_POINT = "default";
+    
+    // How often the players near each point are counted
+    private static final long OCCUPANCY_PERIOD_TICKS = 20L;
+    
+    private final FirstSpawn plugin;
+    private final Logger logger;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private volatile State state = new State(List.of(), Map.of(), Map.of(), new int[0], SpawnStrategy.ROUND_ROBIN, 16);
+    private ScheduledTask occupancyTask;
+    
+    /**
+     * Creates a new SpawnPointPool
+     * 
+     * @param plugin The plugin instance
+     */
+    public SpawnPointPool(FirstSpawn plugin) {
+        this(plugin, plugin.getLogger());
+    }
+    
+    /**
+     * Creates a new SpawnPointPool logging to the given logger
+     * 
+     * @param plugin The plugin instance, only used to schedule occupancy counts
+     * @param logger The logger for configuration warnings
+     */
+    SpawnPointPool(FirstSpawn plugin, Logger logger) {
+        this.plugin = plugin;
+        this.logger = logger;
+    }
+    
+    /**
+     * Starts counting the players near each spawn point
+     */
+    public synchronized void start() {
+        if (occupancyTask == null) {
+            occupancyTask = SchedulerUtil.runTimerGlobal(plugin, this::countOccupancy, 1L, OCCUPANCY_PERIOD_TICKS);
+        }
+    }
+    
+    /**
+     * Stops counting the players near each spawn point
+     */
+    public synchronized void shutdown() {
+        if (occupancyTask != null) {
+            occupancyTask.cancel();
+            occupancyTask = null;
+        }
+    }
+    
+    /**
+     * Loads the pool from the spawn-points section of the configuration.
+     * If no points are configured the pool holds only the given default location.
+     * 
+     * @param section The spawn-points configuration section, may be null
+     * @param server The server used to resolve world names
+     * @param defaultLocation The location from the firstSpawn section, may be null
+     */
+    public void load(ConfigurationSection section, Server server, Location defaultLocation) {
+        List<SpawnPoint> points = new ArrayList<>();
+        SpawnStrategy strategy = SpawnStrategy.ROUND_ROBIN;
+        int occupancyRadius = 16;
+        
+        if (section != null) {
+            String strategyName = section.getString("strategy", "ROUND_ROBIN");
+            strategy = SpawnStrategy.fromString(strategyName);
+            if (strategy == null) {
+                logger.warning("Unknown spawn strategy '" + strategyName + "', using ROUND_ROBIN");
+                strategy = SpawnStrategy.ROUND_ROBIN;
+            }
+            occupancyRadius = Math.max(1, section.getInt("occupancy-radius", 16));
+            
+            ConfigurationSection pointsSection = section.getConfigurationSection("points");
+            if (pointsSection != null) {
+                for (String name : pointsSection.getKeys(false)) {
+                    SpawnPoint point = readPoint(name, pointsSection.getConfigurationSection(name), server);
+                    if (point != null) {
+                        points.add(point);
+                    }
+                }
+            }
+        }
+        
+        if (points.isEmpty() && defaultLocation != null && defaultLocation.getWorld() != null) {
+            points.add(new SpawnPoint(DEFAULT_POINT, defaultLocation));
+        }
+        
+        setPoints(points, strategy, occupancyRadius);
+    }
+    
+    /**
+     * Replaces the points in the pool, keeping the current strategy and occupancy radius
+     * 
+     * @param points The new spawn points
+     */
+    public void setPoints(List<SpawnPoint> points) {
+        State current = state;
+        setPoints(points, current.strategy(), current.occupancyRadius());
+    }
+    
+    /**
+     * Changes the strategy used to pick spawn points
+     * 
+     * @param strategy The new strategy
+     */
+    public void setStrategy(SpawnStrategy strategy) {
+        State current = state;
+        setPoints(current.points(), strategy, current.occupancyRadius());
+    }
+    
+    /**
+     * Gets the strategy used to pick spawn points
+     * 
+     * @return The current strategy
+     */
+    public SpawnStrategy getStrategy() {
+        return state.strategy();
+    }
+    
+    /**
+     * Gets all spawn points in the pool, in configuration order
+     * 
+     * @return An unmodifiable list of spawn points
+     */
+    public List<SpawnPoint> getPoints() {
+        return state.points();
+    }
+    
+    /**
+     * Gets a spawn point by name
+     * 
+     * @param name The spawn point name
+     * @return The spawn point, or null if not found
+     */
+    public SpawnPoint getPoint(String name) {
+        return name == null ? null : state.byName().get(name.toLowerCase());
+    }
+    
+    /**
+     * Picks the spawn point a new player should be sent to, following overflow
+     * targets while the chosen point is at capacity
+     * 
+     * @param player The player being spawned
+     * @return The chosen spawn point, or null if the pool is empty
+     */
+    public SpawnPoint select(Player player) {
+        State current = state;
+        List<SpawnPoint> points = current.points();
+        if (points.isEmpty()) {
+            return null;
+        }
+        
+        SpawnPoint point = points.size() == 1 ? points.get(0) : choose(current, player.getUniqueId(), true);
+        point = followOverflow(current, point);
+        
+        // Count the player now, so a burst of joins between two counts is still spread out
+        current.occupancy().get(point).incrementAndGet();
+        return point;
+    }
+    
+    /**
+     * Picks the spawn point a new player would be sent to without advancing the round robin
+     * With the WEIGHTED strategy the preview is a fresh random pick, so it may differ from the real one.
+     * 
+     * @param player The player being spawned
+     * @return The spawn point, or null if the pool is empty
+     */
+    public SpawnPoint preview(Player player) {
+        State current = state;
+        List<SpawnPoint> points = current.points();
+        if (points.isEmpty()) {
+            return null;
+        }
+        
+        SpawnPoint point = points.size() == 1 ? points.get(0) : choose(current, player.getUniqueId(), false);
+        return followOverflow(current, point);
+    }
+    
+    /**
+     * Starts at a named spawn point and follows overflow targets while it is at capacity,
+     * for players routed to a specific point by a spawn rule
+     * 
+     * @param name The name of the spawn point to start at
+     * @return The spawn point, or null if no point has that name
+     */
+    public SpawnPoint selectFrom(String name) {
+        State current = state;
+        SpawnPoint point = name == null ? null : current.byName().get(name.toLowerCase());
+        return point == null ? null : followOverflow(current, point);
+    }
+    
+    /**
+     * Follows overflow targets from a point while it is at capacity
+     */
+    private static SpawnPoint followOverflow(State current, SpawnPoint point) {
+        List<SpawnPoint> points = current.points();
+        
+        // Follow overflow targets, bounded by the pool size so a cycle cannot loop forever
+        for (int hops = 0; hops < points.size(); hops++) {
+            if (point.getCapacity() <= 0 || point.getOverflow() == null
+                    || current.occupancy().get(point).get() < point.getCapacity()) {
+                break;
+            }
+            SpawnPoint next = current.byName().get(point.getOverflow().toLowerCase());
+            if (next == null) {
+                break;
+            }
+            point = next;
+        }
+        return point;
+    }
+    
+    /**
+     * Applies the configured strategy to choose a starting point
+     */
+    private SpawnPoint choose(State current, UUID uuid, boolean advance) {
+        List<SpawnPoint> points = current.points();
+        switch (current.strategy()) {
+            case WEIGHTED: {
+                int[] cumulative = current.cumulativeWeights();
+                int roll = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+                return points.get(indexForWeight(cumulative, roll));
+            }
+            case LEAST_OCCUPIED: {
+                SpawnPoint best = null;
+                double bestLoad = Double.MAX_VALUE;
+                for (SpawnPoint point : points) {
+                    double load = (double) current.occupancy().get(point).get() / point.getWeight();
+                    if (load < bestLoad) {
+                        bestLoad = load;
+                        best = point;
+                    }
+                }
+                return best;
+            }
+            case HASH: {
+                // Mix both halves of the UUID so sequential UUIDs still spread evenly
+                long bits = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+                bits ^= (bits >>> 33);
+                bits *= 0xff51afd7ed558ccdL;
+                bits ^= (bits >>> 33);
+                int[] cumulative = current.cumulativeWeights();
+                return points.get(indexForWeight(cumulative, (int) Math.floorMod(bits, (long) cumulative[cumulative.length - 1])));
+            }
+            case ROUND_ROBIN:
+            default:
+                int next = advance ? roundRobin.getAndIncrement() : roundRobin.get();
+                return points.get(Math.floorMod(next, points.size()));
+        }
+    }
+    
+    /**
+     * Finds the point whose cumulative weight range contains the given value
+     */
+    private static int indexForWeight(int[] cumulative, int value) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] > value) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Recounts the players near every point that needs it, each on the thread that owns the point
+     */
+    private void countOccupancy() {
+        State current = state;
+        boolean leastOccupied = current.strategy() == SpawnStrategy.LEAST_OCCUPIED;
+        for (SpawnPoint point : current.points()) {
+            if (!leastOccupied && (point.getCapacity() <= 0 || point.getOverflow() == null)) {
+                continue;
+            }
+            AtomicInteger occupancy = current.occupancy().get(point);
+            int radius = current.occupancyRadius();
+            SchedulerUtil.runAtLocation(plugin, point.getLocation(), () -> occupancy.set(countNearby(point, radius)));
+        }
+    }
+    
+    /**
+     * Counts the online players within the occupancy radius of a spawn point.
+     * Only looks at entities near the point, so on Folia it reads nothing outside the point's region.
+     */
+    private static int countNearby(SpawnPoint point, int radius) {
+        Location center = point.getLocation();
+        World world = center.getWorld();
+        double radiusSquared = (double) radius * radius;
+        int count = 0;
+        for (Entity entity : world.getNearbyEntities(center, radius, radius, radius)) {
+            if (entity instanceof Player && entity.getLocation().distanceSquared(center) <= radiusSquared) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Builds and publishes a new immutable pool state
+     */
+    private void setPoints(List<SpawnPoint> points, SpawnStrategy strategy, int occupancyRadius) {
+        Map<String, SpawnPoint> byName = new LinkedHashMap<>();
+        for (SpawnPoint point : points) {
+            byName.put(point.getName().toLowerCase(), point);
+        }
+        
+        List<SpawnPoint> unique = List.copyOf(byName.values());
+        int[] cumulative = new int[unique.size()];
+        int total = 0;
+        Map<SpawnPoint, AtomicInteger> occupancy = new IdentityHashMap<>();
+        State previous = state;
+        for (int i = 0; i < unique.size(); i++) {
+            SpawnPoint point = unique.get(i);
+            total += point.getWeight();
+            cumulative[i] = total;
+            
+            // Carry the last count over by name, so a reload, which builds new points, does not make every point look empty
+            SpawnPoint old = previous.byName().get(point.getName().toLowerCase());
+            AtomicInteger last = old == null ? null : previous.occupancy().get(old);
+            occupancy.put(point, new AtomicInteger(last == null ? 0 : last.get()));
+        }
+        
+        state = new State(unique, Collections.unmodifiableMap(byName), occupancy, cumulative, strategy, occupancyRadius);
+    }
+    
+    /**
+     * Reads a single spawn point from its configuration section
+     */
+    private SpawnPoint readPoint(String name, ConfigurationSection section, Server server) {
+        if (section == null) {
+            return null;
+        }
+        
+        String worldName = section.getString("world");
+        World world = worldName == null ? null : server.getWorld(worldName);
+        if (world == null) {
+            logger.warning("World '" + worldName + "' for spawn point '" + name + "' not found! Skipping it.");
+            return null;
+        }
+        
+        Location location = new Location(world,
+            section.getDouble("x"), section.getDouble("y"), section.getDouble("z"));
+        float yaw = LocationFormatter.getYawFromDirection(section.getString("direction", ""));
+        if (yaw >= 0) {
+            location.setYaw(yaw);
+        }
+        
+        return new SpawnPoint(name, location,
+            section.getInt("weight", 1),
+            section.getInt("capacity", 0),
+            section.getString("overflow", ""));
+    }
+    
+    /**
+     * Immutable snapshot of the pool contents, with the players counted near each point
+     */
+    private record State(List<SpawnPoint> points, Map<String, SpawnPoint> byName,
+                         Map<SpawnPoint, AtomicInteger> occupancy, int[] cumulativeWeights,
+                         SpawnStrategy strategy, int occupancyRadius) {
+    }
+}
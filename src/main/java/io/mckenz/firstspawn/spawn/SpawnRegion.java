@@ -0,0 +1,142 @@
+package io.mckenz.firstspawn.spawn;
+
+import org.bukkit.World;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The area new players are scattered across, either a circle or a polygon in the X/Z plane
+ */
+public final class SpawnRegion {
+    
+    private final World world;
+    private final double centerX;
+    private final double centerZ;
+    private final double radius;
+    // Polygon vertices, or null for a circle
+    private final double[] polygonX;
+    private final double[] polygonZ;
+    private final int minX;
+    private final int maxX;
+    private final int minZ;
+    private final int maxZ;
+    
+    private SpawnRegion(World world, double centerX, double centerZ, double radius, double[] polygonX, double[] polygonZ,
+                        int minX, int maxX, int minZ, int maxZ) {
+        this.world = world;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.polygonX = polygonX;
+        this.polygonZ = polygonZ;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minZ = minZ;
+        this.maxZ = maxZ;
+    }
+    
+    /**
+     * Creates a circular region
+     * 
+     * @param world The world the region is in
+     * @param centerX The X coordinate of the center
+     * @param centerZ The Z coordinate of the center
+     * @param radius The radius in blocks
+     * @return The region
+     */
+    public static SpawnRegion circle(World world, double centerX, double centerZ, double radius) {
+        double r = Math.max(1.0, radius);
+        return new SpawnRegion(world, centerX, centerZ, r, null, null,
+            (int) Math.floor(centerX - r), (int) Math.ceil(centerX + r),
+            (int) Math.floor(centerZ - r), (int) Math.ceil(centerZ + r));
+    }
+    
+    /**
+     * Creates a polygonal region
+     * 
+     * @param world The world the region is in
+     * @param vertices The polygon's corners as {x, z} pairs, in order around the edge
+     * @return The region
+     * @throws IllegalArgumentException If fewer than three vertices are given
+     */
+    public static SpawnRegion polygon(World world, List<double[]> vertices) {
+        if (vertices.size() < 3) {
+            throw new IllegalArgumentException("A polygon needs at least 3 points");
+        }
+        
+        double[] xs = new double[vertices.size()];
+        double[] zs = new double[vertices.size()];
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minZ = Double.MAX_VALUE;
+        double maxZ = -Double.MAX_VALUE;
+        for (int i = 0; i < vertices.size(); i++) {
+            xs[i] = vertices.get(i)[0];
+            zs[i] = vertices.get(i)[1];
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minZ = Math.min(minZ, zs[i]);
+            maxZ = Math.max(maxZ, zs[i]);
+        }
+        return new SpawnRegion(world, 0, 0, 0, xs, zs,
+            (int) Math.floor(minX), (int) Math.ceil(maxX), (int) Math.floor(minZ), (int) Math.ceil(maxZ));
+    }
+    
+    /**
+     * Gets the world the region is in
+     * 
+     * @return The world
+     */
+    public World getWorld() {
+        return world;
+    }
+    
+    /**
+     * Checks if the center of a block column lies inside the region
+     * 
+     * @param blockX The block X coordinate
+     * @param blockZ The block Z coordinate
+     * @return True if the column is inside the region, false otherwise
+     */
+    public boolean contains(int blockX, int blockZ) {
+        if (blockX < minX || blockX > maxX || blockZ < minZ || blockZ > maxZ) {
+            return false;
+        }
+        
+        double x = blockX + 0.5;
+        double z = blockZ + 0.5;
+        if (polygonX == null) {
+            double dx = x - centerX;
+            double dz = z - centerZ;
+            return dx * dx + dz * dz <= radius * radius;
+        }
+        
+        // Even-odd ray casting
+        boolean inside = false;
+        for (int i = 0, j = polygonX.length - 1; i < polygonX.length; j = i++) {
+            if ((polygonZ[i] > z) != (polygonZ[j] > z)
+                    && x < (polygonX[j] - polygonX[i]) * (z - polygonZ[i]) / (polygonZ[j] - polygonZ[i]) + polygonX[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+    
+    /**
+     * Picks a random block column inside the region
+     * 
+     * @param random The random source
+     * @return The column as {x, z}, or null if none was found after a few attempts
+     */
+    public int[] randomColumn(Random random) {
+        for (int attempt = 0; attempt < 32; attempt++) {
+            int x = minX + random.nextInt(maxX - minX + 1);
+            int z = minZ + random.nextInt(maxZ - minZ + 1);
+            if (contains(x, z)) {
+                return new int[] {x, z};
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,239 @@
+package io.mckenz.firstspawn.spawn;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Routes new players to a spawn point by the hostname they connected through, the world
+ * they load into and their permissions.
+ * Rules are compiled into a decision table on load: the hostname and world each narrow the
+ * candidates with a hash lookup, and only the permission checks of the remaining rules run,
+ * in priority order. More specific rules win, so a rule matching both hostname and world is
+ * tried before one matching only the hostname, then only the world, then neither.
+ */
+public class SpawnRules {
+    
+    // Stands in for a hostname or world a rule doesn't restrict
+    private static final String ANY = "";
+    
+    private final Logger logger;
+    private final Map<UUID, String> hostnames = new ConcurrentHashMap<>();
+    private volatile Table table = new Table(Map.of(), 0, false);
+    
+    /**
+     * Creates a new SpawnRules
+     * 
+     * @param logger The logger used for configuration warnings
+     */
+    public SpawnRules(Logger logger) {
+        this.logger = logger;
+    }
+    
+    /**
+     * Compiles the rules from the spawn-rules section of the configuration
+     * 
+     * @param section The spawn-rules configuration section, may be null
+     * @param pointNames The lower case names of the configured spawn points, used to warn about typos
+     */
+    public void load(ConfigurationSection section, Set<String> pointNames) {
+        List<Rule> rules = new ArrayList<>();
+        ConfigurationSection rulesSection = section == null || !section.getBoolean("enabled", true)
+                ? null : section.getConfigurationSection("rules");
+        if (rulesSection != null) {
+            for (String name : rulesSection.getKeys(false)) {
+                Rule rule = readRule(name, rulesSection.getConfigurationSection(name), rules.size());
+                if (rule == null) {
+                    continue;
+                }
+                if (!pointNames.contains(rule.spawnPoint())) {
+                    logger.warning("Spawn rule '" + name + "' sends players to unknown spawn point '" +
+                            rule.spawnPoint() + "', it will be skipped until that point exists");
+                }
+                rules.add(rule);
+            }
+        }
+        
+        // Highest priority first, configuration order breaking ties
+        rules.sort(Comparator.comparingInt(Rule::priority).reversed().thenComparingInt(Rule::order));
+        
+        Map<String, Map<String, List<Rule>>> building = new HashMap<>();
+        boolean usesHostnames = false;
+        for (Rule rule : rules) {
+            usesHostnames |= !rule.hostname().equals(ANY);
+            building.computeIfAbsent(rule.hostname(), host -> new HashMap<>())
+                .computeIfAbsent(rule.world(), world -> new ArrayList<>())
+                .add(rule);
+        }
+        
+        Map<String, Map<String, Rule[]>> byHost = new HashMap<>();
+        for (Map.Entry<String, Map<String, List<Rule>>> host : building.entrySet()) {
+            Map<String, Rule[]> byWorld = new HashMap<>();
+            for (Map.Entry<String, List<Rule>> world : host.getValue().entrySet()) {
+                byWorld.put(world.getKey(), world.getValue().toArray(new Rule[0]));
+            }
+            byHost.put(host.getKey(), Map.copyOf(byWorld));
+        }
+        
+        table = new Table(Map.copyOf(byHost), rules.size(), usesHostnames);
+        if (!usesHostnames) {
+            hostnames.clear();
+        }
+    }
+    
+    /**
+     * Finds the first rule that matches a player
+     * 
+     * @param player The player being spawned
+     * @return The matching rule, or null if no rule matches
+     */
+    public Rule match(Player player) {
+        Table current = table;
+        if (current.size() == 0) {
+            return null;
+        }
+        
+        String world = player.getWorld() != null ? player.getWorld().getName() : ANY;
+        String hostname = current.usesHostnames() ? hostnames.get(player.getUniqueId()) : null;
+        Rule rule = null;
+        if (hostname != null) {
+            Map<String, Rule[]> byWorld = current.byHost().get(hostname);
+            if (byWorld != null) {
+                rule = firstMatch(byWorld, world, player);
+            }
+        }
+        if (rule == null) {
+            Map<String, Rule[]> byWorld = current.byHost().get(ANY);
+            if (byWorld != null) {
+                rule = firstMatch(byWorld, world, player);
+            }
+        }
+        return rule;
+    }
+    
+    /**
+     * Remembers the hostname a player connected through, for hostname rules
+     * 
+     * @param playerId The player's UUID
+     * @param hostname The hostname from the login, with or without a port
+     */
+    public void rememberHostname(UUID playerId, String hostname) {
+        if (table.usesHostnames() && hostname != null) {
+            hostnames.put(playerId, normalizeHostname(hostname));
+        }
+    }
+    
+    /**
+     * Forgets the hostname of a player who left
+     * 
+     * @param playerId The player's UUID
+     */
+    public void forget(UUID playerId) {
+        hostnames.remove(playerId);
+    }
+    
+    /**
+     * Gets the number of compiled rules
+     * 
+     * @return The number of rules
+     */
+    public int size() {
+        return table.size();
+    }
+    
+    /**
+     * Tries the rules for the player's world, then the rules for any world
+     */
+    private static Rule firstMatch(Map<String, Rule[]> byWorld, String world, Player player) {
+        Rule rule = firstMatch(byWorld.get(world), player);
+        return rule != null ? rule : firstMatch(byWorld.get(ANY), player);
+    }
+    
+    /**
+     * Returns the first rule in priority order whose permission the player has
+     */
+    private static Rule firstMatch(Rule[] rules, Player player) {
+        if (rules == null) {
+            return null;
+        }
+        for (Rule rule : rules) {
+            if (rule.permission() == null || player.hasPermission(rule.permission())) {
+                return rule;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Lower cases a hostname and strips the port, any trailing dot and any client markers
+     */
+    static String normalizeHostname(String hostname) {
+        // Modded clients append their own markers after a null character
+        int marker = hostname.indexOf('\0');
+        String host = (marker >= 0 ? hostname.substring(0, marker) : hostname).trim().toLowerCase(Locale.ROOT);
+        int colon = host.lastIndexOf(':');
+        if (colon >= 0 && host.indexOf(']') < colon) {
+            host = host.substring(0, colon);
+        }
+        if (host.endsWith(".")) {
+            host = host.substring(0, host.length() - 1);
+        }
+        return host;
+    }
+    
+    /**
+     * Reads a single rule from its configuration section
+     */
+    private Rule readRule(String name, ConfigurationSection section, int order) {
+        if (section == null) {
+            return null;
+        }
+        
+        String spawnPoint = section.getString("spawn-point", "");
+        if (spawnPoint.isEmpty()) {
+            logger.warning("Spawn rule '" + name + "' has no spawn-point! Skipping it.");
+            return null;
+        }
+        
+        String hostname = section.getString("hostname", "");
+        String permission = section.getString("permission", "");
+        return new Rule(name,
+            hostname.isEmpty() ? ANY : normalizeHostname(hostname),
+            section.getString("world", ANY),
+            permission.isEmpty() ? null : permission,
+            spawnPoint.toLowerCase(),
+            section.getInt("priority", 0),
+            order);
+    }
+    
+    /**
+     * A compiled spawn rule
+     * 
+     * @param name The rule name from the configuration
+     * @param hostname The lower case hostname the rule applies to, or empty for any
+     * @param world The world the rule applies to, or empty for any
+     * @param permission The permission a player needs for the rule to apply, or null for none
+     * @param spawnPoint The lower case name of the spawn point the rule sends players to
+     * @param priority The priority among rules with the same hostname and world, highest first
+     * @param order The position of the rule in the configuration
+     */
+    public record Rule(String name, String hostname, String world, String permission, String spawnPoint,
+                       int priority, int order) {
+    }
+    
+    /**
+     * Immutable decision table, rules grouped by hostname and then by world, each group in priority order
+     */
+    private record Table(Map<String, Map<String, Rule[]>> byHost, int size, boolean usesHostnames) {
+    }
+}
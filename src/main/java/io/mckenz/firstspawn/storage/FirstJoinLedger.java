@@ -0,0 +1,880 @@
+package io.mckenz.firstspawn.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.logging.Logger;
+
+/**
+ * Compact on-disk record of every player that has joined, independent of vanilla playerdata.
+ * <p>
+ * The table is an open-addressed hash table of fixed-size slots in a memory-mapped file, so
+ * lookups are a few absolute reads from the mapping with no allocation. Every new entry is
+ * also appended to a small log that is fsynced off the calling thread, entries that arrive
+ * together sharing one fsync; on startup the log is replayed into the table, and once the
+ * table has been forced to disk the log is truncated.
+ * A crash therefore never loses an entry that reached the log, even if the table was torn.
+ * <p>
+ * The table lock only ever covers memory writes to the mapping: the log and every fsync belong
+ * to the background writer thread. The writer also grows the table before it fills up, rehashing
+ * into a second file a slice at a time while lookups and inserts carry on against the first,
+ * and only takes the lock long enough to switch over once the new table is on disk. A join that
+ * finds the table full anyway is held in memory, and in the log, until that grow merges it in,
+ * so recording a join never waits for a resize or an fsync.
+ */
+public class FirstJoinLedger {
+    
+    private static final int MAGIC = 0x46534C47; // "FSLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 32;
+    private static final int LOG_RECORD_SIZE = 32;
+    private static final int INITIAL_CAPACITY = 1024;
+    // The writer thread starts growing the table at GROW_LOAD; past MAX_LOAD joins overflow until it is done
+    private static final double GROW_LOAD = 0.375;
+    private static final double MAX_LOAD = 0.75;
+    private static final int CHECKPOINT_RECORDS = 256;
+    // Slots copied per hold of the read lock while growing, and entries inserted per hold of the write lock
+    private static final int GROW_SLICE = 4096;
+    private static final int RECORD_SLICE = 64;
+    
+    // Header offsets
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_SIZE = 12;
+    private static final int H_GENERATION = 16;
+    
+    // Slot offsets
+    private static final int S_MSB = 0;
+    private static final int S_LSB = 8;
+    private static final int S_TIME = 16;
+    private static final int S_SPAWN = 24;
+    private static final int S_STATE = 28;
+    
+    /**
+     * Spawn id recorded when the player was not sent to a spawn point
+     */
+    public static final int NO_SPAWN = 0;
+    
+    private final Path[] tableFiles;
+    private final Path logFile;
+    private final Path namesFile;
+    private final Logger logger;
+    private final StampedLock lock = new StampedLock();
+    // Held while growing or checkpointing, so a checkpoint never forces a table that is about to be replaced
+    private final Object growLock = new Object();
+    // Joins recorded while the table was full, until the next grow merges them in; only changed under the write lock
+    private final Map<UUID, Overflow> overflow = new ConcurrentHashMap<>();
+    private final Map<Integer, String> spawnNames = new ConcurrentHashMap<>();
+    private final Map<String, Integer> spawnIds = new ConcurrentHashMap<>();
+    private final ExecutorService logWriter;
+    private final FileChannel[] tableChannels = new FileChannel[2];
+    // Names and log records waiting for the writer thread, written together with one fsync
+    private final Object pendingLock = new Object();
+    private final StringBuilder pendingNames = new StringBuilder();
+    private ByteBuffer pendingRecords = ByteBuffer.allocate(LOG_RECORD_SIZE * 64);
+    private ByteBuffer spareRecords = ByteBuffer.allocate(LOG_RECORD_SIZE * 64);
+    private int pendingCount;
+    private boolean drainQueued;
+    
+    private FileChannel logChannel;
+    private MappedByteBuffer table;
+    private int capacity;
+    private int current;
+    private long generation;
+    private volatile int size;
+    private MappedByteBuffer growTarget;
+    private int growCapacity;
+    private boolean growQueued;
+    private int nextSpawnId = NO_SPAWN + 1;
+    private int unflushedRecords;
+    
+    /**
+     * A join recorded while the table was full
+     */
+    private record Overflow(long time, int spawnId) {
+    }
+    
+    /**
+     * Opens the ledger in the given directory, creating it if needed and replaying the log
+     * 
+     * @param directory The directory holding the ledger files
+     * @param logger The logger used for recovery messages
+     * @throws IOException If the ledger could not be opened
+     */
+    public FirstJoinLedger(Path directory, Logger logger) throws IOException {
+        this.tableFiles = new Path[] { directory.resolve("first-joins.dat"), directory.resolve("first-joins.dat.alt") };
+        this.logFile = directory.resolve("first-joins.log");
+        this.namesFile = directory.resolve("first-joins.names");
+        this.logger = logger;
+        this.logWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FirstSpawn-Ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        Files.createDirectories(directory);
+        openTable();
+        loadNames();
+        replayLog();
+    }
+    
+    /**
+     * Checks if a player is in the ledger. Lock-free and allocation-free in the common case.
+     * 
+     * @param uuid The player's UUID
+     * @return True if the player has joined before, false otherwise
+     */
+    public boolean contains(UUID uuid) {
+        return overflowed(uuid) != null || find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >= 0;
+    }
+    
+    /**
+     * Gets when a player first joined
+     * 
+     * @param uuid The player's UUID
+     * @return The first join time in milliseconds since the epoch, or -1 if not recorded
+     */
+    public long getFirstJoinTime(UUID uuid) {
+        Overflow overflowed = overflowed(uuid);
+        if (overflowed != null) {
+            return overflowed.time();
+        }
+        
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        long time = readTime(msb, lsb);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                time = readTime(msb, lsb);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return time;
+    }
+    
+    /**
+     * Gets the spawn point a player was sent to on their first join
+     * 
+     * @param uuid The player's UUID
+     * @return The spawn point name, or null if unknown or not recorded
+     */
+    public String getSpawnPoint(UUID uuid) {
+        Overflow overflowed = overflowed(uuid);
+        if (overflowed != null) {
+            return overflowed.spawnId() == NO_SPAWN ? null : spawnNames.get(overflowed.spawnId());
+        }
+        
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        int spawnId = readSpawnId(msb, lsb);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                spawnId = readSpawnId(msb, lsb);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return spawnId == NO_SPAWN ? null : spawnNames.get(spawnId);
+    }
+    
+    /**
+     * Records a player's first join. Does nothing if the player is already recorded.
+     * 
+     * @param uuid The player's UUID
+     * @param time The first join time in milliseconds since the epoch
+     * @param spawnPoint The name of the spawn point the player was sent to, or null for none
+     * @return True if the player was added, false if already recorded
+     */
+    public boolean record(UUID uuid, long time, String spawnPoint) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int spawnId = spawnIdFor(spawnPoint);
+        
+        int result;
+        long stamp = lock.writeLock();
+        try {
+            result = insert(msb, lsb, time, spawnId);
+            if (result < 0) {
+                // The table filled up before the writer thread grew it, so the grow merges this entry in
+                overflow.put(uuid, new Overflow(time, spawnId));
+                queueGrow();
+                result = 1;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (result == 0) {
+            return false;
+        }
+        
+        appendLog(msb, lsb, time, spawnId);
+        return true;
+    }
+    
+    /**
+     * Records many players at once, such as when importing existing playerdata
+     * Entries are inserted a small slice at a time so lookups from other threads are never held up
+     * for long, and the new entries are appended to the log in one write with a single fsync.
+     * 
+     * @param uuids The players' UUIDs
+     * @param times The first join times, in the same order as the UUIDs
+     * @return The number of players that were not already recorded
+     */
+    public int recordAll(List<UUID> uuids, long[] times) {
+        // msb, lsb and time of each added entry
+        long[] added = new long[uuids.size() * 3];
+        int count = 0;
+        int i = 0;
+        while (i < uuids.size()) {
+            boolean full = false;
+            int end = Math.min(uuids.size(), i + RECORD_SLICE);
+            long stamp = lock.writeLock();
+            try {
+                for (; i < end; i++) {
+                    UUID uuid = uuids.get(i);
+                    long msb = uuid.getMostSignificantBits();
+                    long lsb = uuid.getLeastSignificantBits();
+                    int result = insert(msb, lsb, times[i], NO_SPAWN);
+                    if (result < 0) {
+                        full = true;
+                        break;
+                    }
+                    if (result > 0) {
+                        added[count * 3] = msb;
+                        added[count * 3 + 1] = lsb;
+                        added[count * 3 + 2] = times[i];
+                        count++;
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            if (full) {
+                grow();
+            }
+        }
+        
+        appendLogBatch(added, count);
+        return count;
+    }
+    
+    /**
+     * Gets the number of players in the ledger
+     * 
+     * @return The number of recorded players
+     */
+    public int size() {
+        return size + overflow.size();
+    }
+    
+    /**
+     * Flushes the table and log to disk and releases the files
+     */
+    public void close() {
+        logWriter.shutdown();
+        try {
+            // Names and records that arrived after the writer stopped are written here
+            if (logWriter.awaitTermination(5, TimeUnit.SECONDS)) {
+                drainLog();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        try {
+            checkpoint();
+            logChannel.close();
+            for (FileChannel channel : tableChannels) {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to close first join ledger: " + e.getMessage());
+        }
+    }
+    
+    private int find(long msb, long lsb) {
+        long stamp = lock.tryOptimisticRead();
+        int slot = probe(table, capacity, msb, lsb);
+        if (lock.validate(stamp)) {
+            return slot;
+        }
+        
+        stamp = lock.readLock();
+        try {
+            return probe(table, capacity, msb, lsb);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    private long readTime(long msb, long lsb) {
+        MappedByteBuffer buffer = table;
+        int slot = probe(buffer, capacity, msb, lsb);
+        return slot >= 0 ? buffer.getLong(slotOffset(slot) + S_TIME) : -1L;
+    }
+    
+    private int readSpawnId(long msb, long lsb) {
+        MappedByteBuffer buffer = table;
+        int slot = probe(buffer, capacity, msb, lsb);
+        return slot >= 0 ? buffer.getInt(slotOffset(slot) + S_SPAWN) : NO_SPAWN;
+    }
+    
+    /**
+     * Linear probe for a key. Safe to run optimistically; the result is discarded if a
+     * writer ran concurrently.
+     */
+    private static int probe(MappedByteBuffer buffer, int tableCapacity, long msb, long lsb) {
+        int mask = tableCapacity - 1;
+        if (buffer == null || mask < 0) {
+            return -1;
+        }
+        
+        int slot = hash(msb, lsb) & mask;
+        for (int i = 0; i <= mask; i++) {
+            int offset = slotOffset(slot);
+            if (offset + SLOT_SIZE > buffer.capacity() || buffer.getInt(offset + S_STATE) == 0) {
+                return -1;
+            }
+            if (buffer.getLong(offset + S_MSB) == msb && buffer.getLong(offset + S_LSB) == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Inserts a key under the write lock, and into the table being grown if there is one
+     * 
+     * @return 1 if added, 0 if already present, -1 if the table is too full and must grow first
+     */
+    private int insert(long msb, long lsb, long time, int spawnId) {
+        if (probe(table, capacity, msb, lsb) >= 0 || (!overflow.isEmpty() && overflow.containsKey(new UUID(msb, lsb)))) {
+            return 0;
+        }
+        if (size + 1 > capacity * MAX_LOAD) {
+            return -1;
+        }
+        
+        put(table, capacity, msb, lsb, time, spawnId);
+        if (growTarget != null && probe(growTarget, growCapacity, msb, lsb) < 0) {
+            put(growTarget, growCapacity, msb, lsb, time, spawnId);
+        }
+        size++;
+        table.putInt(H_SIZE, size);
+        
+        if (size >= capacity * GROW_LOAD) {
+            queueGrow();
+        }
+        return 1;
+    }
+    
+    /**
+     * Hands a grow to the writer thread, under the write lock, unless one is queued already
+     */
+    private void queueGrow() {
+        if (!growQueued && !logWriter.isShutdown()) {
+            growQueued = true;
+            logWriter.execute(() -> {
+                try {
+                    grow();
+                } catch (IllegalStateException e) {
+                    logger.warning(e.getMessage() + ": " + e.getCause().getMessage());
+                }
+            });
+        }
+    }
+    
+    /**
+     * Moves overflowed entries into the table, under the write lock, as far as the load allows
+     * Each entry is in the table before it leaves the overflow, so lookups always find it in one of them.
+     */
+    private void mergeOverflow() {
+        Iterator<Map.Entry<UUID, Overflow>> entries = overflow.entrySet().iterator();
+        while (entries.hasNext() && size + 1 <= capacity * MAX_LOAD) {
+            Map.Entry<UUID, Overflow> entry = entries.next();
+            long msb = entry.getKey().getMostSignificantBits();
+            long lsb = entry.getKey().getLeastSignificantBits();
+            if (probe(table, capacity, msb, lsb) < 0) {
+                put(table, capacity, msb, lsb, entry.getValue().time(), entry.getValue().spawnId());
+                size++;
+            }
+            entries.remove();
+        }
+        table.putInt(H_SIZE, size);
+        if (!overflow.isEmpty() || size >= capacity * GROW_LOAD) {
+            queueGrow();
+        }
+    }
+    
+    /**
+     * Gets an entry recorded while the table was full. Checked before the table, as a merge
+     * adds an entry to the table before removing it from the overflow.
+     */
+    private Overflow overflowed(UUID uuid) {
+        return overflow.isEmpty() ? null : overflow.get(uuid);
+    }
+    
+    /**
+     * Writes an entry into the first free slot of its probe sequence
+     */
+    private static void put(MappedByteBuffer buffer, int tableCapacity, long msb, long lsb, long time, int spawnId) {
+        int mask = tableCapacity - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (buffer.getInt(slotOffset(slot) + S_STATE) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        
+        int offset = slotOffset(slot);
+        buffer.putLong(offset + S_MSB, msb);
+        buffer.putLong(offset + S_LSB, lsb);
+        buffer.putLong(offset + S_TIME, time);
+        buffer.putInt(offset + S_SPAWN, spawnId);
+        buffer.putInt(offset + S_STATE, 1);
+    }
+    
+    /**
+     * Doubles the table into the other table file. Usually runs on the writer thread well before
+     * the table is full. Entries are copied a slice at a time under the read lock, while inserts
+     * go to both tables, and the new table is forced to disk before it is switched to, so a crash
+     * at any point leaves the old table in place. Entries that overflowed meanwhile are merged in
+     * on the switch. Does nothing if another thread already grew it.
+     */
+    private void grow() {
+        synchronized (growLock) {
+            long stamp = lock.writeLock();
+            try {
+                growQueued = false;
+                if (size < capacity * GROW_LOAD && overflow.isEmpty()) {
+                    return;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            
+            // Only this method replaces the table, so it can be read here without the lock
+            MappedByteBuffer old = table;
+            int oldCapacity = capacity;
+            int next = 1 - current;
+            // Large enough for the overflowed entries too, so a burst of joins is caught up with in one grow
+            int newCapacity = oldCapacity * 2;
+            while (newCapacity < 1 << 30 && size + overflow.size() >= newCapacity * GROW_LOAD) {
+                newCapacity *= 2;
+            }
+            try {
+                MappedByteBuffer target = mapTable(next, newCapacity, true);
+                
+                stamp = lock.writeLock();
+                growTarget = target;
+                growCapacity = newCapacity;
+                lock.unlockWrite(stamp);
+                
+                for (int start = 0; start < oldCapacity; start += GROW_SLICE) {
+                    stamp = lock.readLock();
+                    try {
+                        int end = Math.min(oldCapacity, start + GROW_SLICE);
+                        for (int slot = start; slot < end; slot++) {
+                            int offset = slotOffset(slot);
+                            if (old.getInt(offset + S_STATE) == 0) {
+                                continue;
+                            }
+                            long msb = old.getLong(offset + S_MSB);
+                            long lsb = old.getLong(offset + S_LSB);
+                            if (probe(target, newCapacity, msb, lsb) < 0) {
+                                put(target, newCapacity, msb, lsb, old.getLong(offset + S_TIME), old.getInt(offset + S_SPAWN));
+                            }
+                        }
+                    } finally {
+                        lock.unlockRead(stamp);
+                    }
+                }
+                
+                // The generation marks the new table complete, so it is written only once the entries are on disk
+                target.force();
+                target.putLong(H_GENERATION, generation + 1);
+                target.force();
+                
+                stamp = lock.writeLock();
+                try {
+                    table = target;
+                    capacity = newCapacity;
+                    current = next;
+                    generation++;
+                    growTarget = null;
+                    mergeOverflow();
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            } catch (IOException e) {
+                stamp = lock.writeLock();
+                growTarget = null;
+                lock.unlockWrite(stamp);
+                throw new IllegalStateException("Failed to grow first join ledger", e);
+            }
+        }
+    }
+    
+    private void appendLog(long msb, long lsb, long time, int spawnId) {
+        synchronized (pendingLock) {
+            putRecord(msb, lsb, time, spawnId);
+            scheduleDrain();
+        }
+    }
+    
+    private void appendLogBatch(long[] entries, int count) {
+        if (count == 0) {
+            return;
+        }
+        synchronized (pendingLock) {
+            for (int i = 0; i < count; i++) {
+                putRecord(entries[i * 3], entries[i * 3 + 1], entries[i * 3 + 2], NO_SPAWN);
+            }
+            scheduleDrain();
+        }
+    }
+    
+    /**
+     * Adds a record to the pending buffer, under the pending lock
+     */
+    private void putRecord(long msb, long lsb, long time, int spawnId) {
+        if (pendingRecords.remaining() < LOG_RECORD_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocate(pendingRecords.capacity() * 2);
+            pendingRecords.flip();
+            larger.put(pendingRecords);
+            pendingRecords = larger;
+        }
+        pendingRecords.putLong(msb).putLong(lsb).putLong(time).putInt(spawnId).putInt(checksum(msb, lsb, time, spawnId));
+        pendingCount++;
+    }
+    
+    /**
+     * Queues a drain of the pending names and records, under the pending lock, unless one is queued already
+     */
+    private void scheduleDrain() {
+        if (!drainQueued && !logWriter.isShutdown()) {
+            drainQueued = true;
+            logWriter.execute(this::drainLog);
+        }
+    }
+    
+    /**
+     * Writes every pending name and record with a single fsync of the log, on the writer thread.
+     * Only the writer thread touches the log, so this never takes the table lock, and records
+     * logged while a drain is being written are picked up together by the next one.
+     */
+    private void drainLog() {
+        ByteBuffer records;
+        int count;
+        String names;
+        synchronized (pendingLock) {
+            drainQueued = false;
+            records = pendingRecords;
+            count = pendingCount;
+            pendingRecords = spareRecords;
+            pendingCount = 0;
+            names = pendingNames.toString();
+            pendingNames.setLength(0);
+        }
+        
+        // Names first, so a logged record never refers to a spawn id that was not saved
+        if (!names.isEmpty()) {
+            try {
+                Files.writeString(namesFile, names, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                logger.warning("Failed to save spawn point names for the ledger: " + e.getMessage());
+            }
+        }
+        
+        if (count > 0) {
+            try {
+                records.flip();
+                while (records.hasRemaining()) {
+                    logChannel.write(records);
+                }
+                logChannel.force(false);
+                unflushedRecords += count;
+                if (unflushedRecords >= CHECKPOINT_RECORDS) {
+                    checkpoint();
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to write first join log: " + e.getMessage());
+            }
+        }
+        
+        records.clear();
+        synchronized (pendingLock) {
+            spareRecords = records;
+        }
+    }
+    
+    /**
+     * Forces the table to disk, after which the log is no longer needed.
+     * Every logged entry was inserted before its record was written, so the forced table holds
+     * all of them; inserts running meanwhile only reach the log after the truncation.
+     * Skipped while entries are overflowed, so the log keeps them until they are in the table.
+     */
+    private void checkpoint() throws IOException {
+        synchronized (growLock) {
+            // Overflowed entries are only in the log until a grow merges them, which cannot run meanwhile
+            if (!overflow.isEmpty()) {
+                return;
+            }
+            table.force();
+            logChannel.truncate(0);
+            logChannel.position(0);
+            unflushedRecords = 0;
+        }
+    }
+    
+    /**
+     * Opens whichever table file holds the latest complete generation, or creates a new table
+     */
+    private void openTable() throws IOException {
+        long[] generations = { -1L, -1L };
+        boolean damaged = false;
+        for (int i = 0; i < tableFiles.length; i++) {
+            if (Files.exists(tableFiles[i])) {
+                generations[i] = readGeneration(tableFiles[i]);
+                // An incomplete alternate table is just an interrupted grow, and is overwritten by the next one
+                damaged |= i == 0 && generations[i] < 0;
+            }
+        }
+        current = generations[1] > generations[0] ? 1 : 0;
+        generation = Math.max(0L, generations[current]);
+        
+        if (generations[current] < 0 && damaged) {
+            Path corrupt = tableFiles[0].resolveSibling(tableFiles[0].getFileName() + ".corrupt");
+            Files.move(tableFiles[0], corrupt, StandardCopyOption.REPLACE_EXISTING);
+            logger.warning("First join ledger was damaged and has been moved to " + corrupt.getFileName() +
+                    "; rebuilding from the log");
+        }
+        logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        if (generations[current] >= 0) {
+            FileChannel channel = tableChannel(current);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            table = mapTable(current, header.getInt(H_CAPACITY), false);
+        } else {
+            table = mapTable(current, INITIAL_CAPACITY, true);
+            table.putLong(H_GENERATION, 0L);
+        }
+        capacity = table.getInt(H_CAPACITY);
+        
+        // Count the entries rather than trusting the header, which is not forced with every insert
+        int count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (table.getInt(slotOffset(slot) + S_STATE) != 0) {
+                count++;
+            }
+        }
+        size = count;
+        table.putInt(H_SIZE, count);
+    }
+    
+    /**
+     * Reads the generation of a table file
+     * 
+     * @return The generation, or -1 if the file is damaged or an unfinished grow
+     */
+    private static long readGeneration(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE) {
+                return -1L;
+            }
+            int tableCapacity = header.getInt(H_CAPACITY);
+            boolean valid = header.getInt(H_MAGIC) == MAGIC
+                && header.getInt(H_VERSION) == VERSION
+                && tableCapacity > 0 && Integer.bitCount(tableCapacity) == 1
+                && channel.size() >= HEADER_SIZE + (long) tableCapacity * SLOT_SIZE;
+            return valid ? header.getLong(H_GENERATION) : -1L;
+        }
+    }
+    
+    private FileChannel tableChannel(int index) throws IOException {
+        if (tableChannels[index] == null) {
+            tableChannels[index] = FileChannel.open(tableFiles[index],
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return tableChannels[index];
+    }
+    
+    /**
+     * Maps a table file at the given capacity, optionally clearing it first.
+     * A cleared table is marked unfinished, so it is not picked on startup until a generation is written.
+     */
+    private MappedByteBuffer mapTable(int index, int newCapacity, boolean clear) throws IOException {
+        long length = HEADER_SIZE + (long) newCapacity * SLOT_SIZE;
+        // Files are only ever extended, never truncated, so optimistic readers still holding
+        // an earlier mapping never touch pages past the end of the file
+        MappedByteBuffer mapped = tableChannel(index).map(FileChannel.MapMode.READ_WRITE, 0, length);
+        if (clear) {
+            for (int offset = 0; offset < length; offset += Long.BYTES) {
+                mapped.putLong(offset, 0L);
+            }
+            mapped.putInt(H_MAGIC, MAGIC);
+            mapped.putInt(H_VERSION, VERSION);
+            mapped.putInt(H_CAPACITY, newCapacity);
+            mapped.putInt(H_SIZE, 0);
+            // Not a usable table until a generation is written
+            mapped.putLong(H_GENERATION, -1L);
+        }
+        return mapped;
+    }
+    
+    /**
+     * Replays records that were logged but may not have reached the table before a crash
+     */
+    private void replayLog() throws IOException {
+        long length = logChannel.size();
+        if (length == 0) {
+            return;
+        }
+        
+        ByteBuffer record = ByteBuffer.allocate(LOG_RECORD_SIZE);
+        int replayed = 0;
+        long position = 0;
+        while (position + LOG_RECORD_SIZE <= length) {
+            record.clear();
+            logChannel.read(record, position);
+            record.flip();
+            long msb = record.getLong();
+            long lsb = record.getLong();
+            long time = record.getLong();
+            int spawnId = record.getInt();
+            if (record.getInt() != checksum(msb, lsb, time, spawnId)) {
+                // A torn write at the end of the log, nothing after it is valid
+                break;
+            }
+            
+            int result;
+            do {
+                long stamp = lock.writeLock();
+                try {
+                    result = insert(msb, lsb, time, spawnId);
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                if (result < 0) {
+                    grow();
+                }
+            } while (result < 0);
+            replayed += result;
+            position += LOG_RECORD_SIZE;
+        }
+        
+        checkpoint();
+        if (replayed > 0) {
+            logger.info("Recovered " + replayed + " first join record(s) from the ledger log");
+        }
+    }
+    
+    /**
+     * Gets the id of a spawn point name, assigning the next unused id to names not seen before.
+     * Assigned ids are saved to the names file before any entry that uses them reaches the log,
+     * and ids already in the names file are never reused, so two names can never share an id.
+     */
+    private int spawnIdFor(String spawnPoint) {
+        if (spawnPoint == null) {
+            return NO_SPAWN;
+        }
+        
+        String key = spawnPoint.toLowerCase();
+        Integer known = spawnIds.get(key);
+        if (known != null) {
+            return known;
+        }
+        
+        synchronized (spawnIds) {
+            known = spawnIds.get(key);
+            if (known != null) {
+                return known;
+            }
+            int id = nextSpawnId;
+            while (id == NO_SPAWN || spawnNames.containsKey(id)) {
+                id++;
+            }
+            nextSpawnId = id + 1;
+            spawnNames.put(id, spawnPoint);
+            spawnIds.put(key, id);
+            
+            synchronized (pendingLock) {
+                pendingNames.append(id).append('\t').append(spawnPoint).append('\n');
+                scheduleDrain();
+            }
+            return id;
+        }
+    }
+    
+    private void loadNames() throws IOException {
+        if (!Files.exists(namesFile)) {
+            return;
+        }
+        for (String line : Files.readAllLines(namesFile, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab <= 0) {
+                continue;
+            }
+            int id;
+            try {
+                id = Integer.parseInt(line.substring(0, tab));
+            } catch (NumberFormatException e) {
+                // Skip damaged lines
+                continue;
+            }
+            String name = line.substring(tab + 1);
+            String previous = spawnNames.putIfAbsent(id, name);
+            if (previous != null && !previous.equalsIgnoreCase(name)) {
+                logger.warning("Spawn points '" + previous + "' and '" + name + "' share ledger id " + id +
+                        "; players recorded with it will show as '" + previous + "'");
+                continue;
+            }
+            spawnIds.putIfAbsent(name.toLowerCase(), id);
+        }
+    }
+    
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+    
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return (int) h;
+    }
+    
+    private static int checksum(long msb, long lsb, long time, int spawnId) {
+        long h = msb * 31 + lsb;
+        h = h * 31 + time;
+        h = h * 31 + spawnId;
+        return (int) (h ^ (h >>> 32)) ^ MAGIC;
+    }
+}
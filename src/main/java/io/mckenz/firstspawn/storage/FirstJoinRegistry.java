@@ -0,0 +1,257 @@
+package io.mckenz.firstspawn.storage;
+
+import io.mckenz.firstspawn.api.FirstJoinInfo;
+import io.mckenz.firstspawn.api.FirstJoinStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Cached, batching client for a network-wide {@link FirstJoinStore}
+ * Lookups are read-through: cached answers are returned straight away, and misses are collected
+ * for a short interval and sent to the store as one batch on a background thread. Players who
+ * have joined are cached until evicted; players who have not are cached for a short time only,
+ * since another server may record them at any moment. Writes are queued and flushed in batches.
+ * Nothing here ever blocks the calling thread on the store.
+ */
+public class FirstJoinRegistry {
+    
+    private static final int MAX_BATCH = 500;
+    private static final long RETRY_DELAY_MILLIS = 5000L;
+    
+    private final FirstJoinStore store;
+    private final boolean ownsStore;
+    private final Logger logger;
+    private final int cacheSize;
+    private final long negativeTtlMillis;
+    private final long batchIntervalMillis;
+    private final ScheduledExecutorService worker;
+    private final Map<UUID, CacheEntry> cache;
+    private final Map<UUID, CompletableFuture<FirstJoinInfo>> pendingLookups = new ConcurrentHashMap<>();
+    private final Queue<FirstJoinInfo> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile long retryWritesAt;
+    
+    /**
+     * A cached answer; a null info means the player had not joined when it was cached
+     */
+    private record CacheEntry(FirstJoinInfo info, long expiresAt) {
+    }
+    
+    /**
+     * Creates a new FirstJoinRegistry
+     * 
+     * @param store The store shared with the other servers
+     * @param logger The logger used for store errors
+     * @param cacheSize The most players kept in the local cache
+     * @param negativeTtlMillis How long a "not joined" answer stays cached
+     * @param batchIntervalMillis How long to collect lookups and writes before sending them to the store
+     * @param ownsStore Whether the store should be closed along with the registry
+     */
+    public FirstJoinRegistry(FirstJoinStore store, Logger logger, int cacheSize, long negativeTtlMillis, 
+                             long batchIntervalMillis, boolean ownsStore) {
+        this.store = store;
+        this.ownsStore = ownsStore;
+        this.logger = logger;
+        this.cacheSize = Math.max(1, cacheSize);
+        this.negativeTtlMillis = Math.max(0L, negativeTtlMillis);
+        this.batchIntervalMillis = Math.max(0L, batchIntervalMillis);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CacheEntry> eldest) {
+                return size() > FirstJoinRegistry.this.cacheSize;
+            }
+        };
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FirstSpawn-Registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Gets the cached answer for a player without contacting the store
+     * 
+     * @param playerId The player's UUID
+     * @return The player's first join if they have joined, an empty Optional if they have not,
+     *         or null if the answer is not cached
+     */
+    public Optional<FirstJoinInfo> getCached(UUID playerId) {
+        synchronized (cache) {
+            CacheEntry entry = cache.get(playerId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.info() == null && entry.expiresAt() < System.currentTimeMillis()) {
+                cache.remove(playerId);
+                return null;
+            }
+            return Optional.ofNullable(entry.info());
+        }
+    }
+    
+    /**
+     * Looks up a player, from the cache if possible and otherwise in the next batch sent to the store
+     * 
+     * @param playerId The player's UUID
+     * @return A future completed with the player's first join, or null if they have not joined.
+     *         Completed exceptionally if the store could not be read.
+     */
+    public CompletableFuture<FirstJoinInfo> lookup(UUID playerId) {
+        Optional<FirstJoinInfo> cached = getCached(playerId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.orElse(null));
+        }
+        
+        CompletableFuture<FirstJoinInfo> future = pendingLookups.computeIfAbsent(playerId, id -> new CompletableFuture<>());
+        scheduleFlush();
+        return future;
+    }
+    
+    /**
+     * Records a first join in the cache straight away and in the store with the next batch
+     * 
+     * @param info The first join to record
+     */
+    public void record(FirstJoinInfo info) {
+        synchronized (cache) {
+            CacheEntry existing = cache.get(info.getPlayerId());
+            if (existing != null && existing.info() != null) {
+                return;
+            }
+            cache.put(info.getPlayerId(), new CacheEntry(info, Long.MAX_VALUE));
+        }
+        pendingWrites.add(info);
+        scheduleFlush();
+    }
+    
+    /**
+     * Sends everything still queued to the store and closes it if the registry owns it
+     */
+    public void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        while (!pendingWrites.isEmpty() && flushWrites()) {
+            // Keep sending batches until everything is saved or the store fails
+        }
+        for (CompletableFuture<FirstJoinInfo> future : pendingLookups.values()) {
+            future.completeExceptionally(new IOException("First join registry closed"));
+        }
+        if (!ownsStore) {
+            return;
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close first join store: " + e.getMessage());
+        }
+    }
+    
+    private void scheduleFlush() {
+        if (!worker.isShutdown() && flushScheduled.compareAndSet(false, true)) {
+            worker.schedule(() -> {
+                flushScheduled.set(false);
+                flush();
+                if (!pendingLookups.isEmpty() || !pendingWrites.isEmpty()) {
+                    scheduleFlush();
+                }
+            }, Math.max(batchIntervalMillis, retryWritesAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void flush() {
+        if (System.currentTimeMillis() >= retryWritesAt) {
+            flushWrites();
+        }
+        flushLookups();
+    }
+    
+    /**
+     * Sends one batch of queued writes to the store
+     * 
+     * @return True if the batch was saved, false if the store failed
+     */
+    private boolean flushWrites() {
+        List<FirstJoinInfo> batch = new ArrayList<>();
+        FirstJoinInfo next;
+        while (batch.size() < MAX_BATCH && (next = pendingWrites.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            store.record(batch);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to save " + batch.size() + " first join(s) to the network store, will retry: " + e.getMessage());
+            pendingWrites.addAll(batch);
+            retryWritesAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+            return false;
+        }
+    }
+    
+    private void flushLookups() {
+        Map<UUID, CompletableFuture<FirstJoinInfo>> batch = new HashMap<>();
+        for (Map.Entry<UUID, CompletableFuture<FirstJoinInfo>> entry : pendingLookups.entrySet()) {
+            if (batch.size() >= MAX_BATCH) {
+                break;
+            }
+            batch.put(entry.getKey(), entry.getValue());
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        Map<UUID, FirstJoinInfo> found;
+        try {
+            found = new HashMap<>(store.lookup(batch.keySet()));
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to look up " + batch.size() + " player(s) in the network store: " + e.getMessage());
+            batch.forEach((id, future) -> {
+                pendingLookups.remove(id, future);
+                future.completeExceptionally(e);
+            });
+            return;
+        }
+        
+        long negativeExpiry = System.currentTimeMillis() + negativeTtlMillis;
+        synchronized (cache) {
+            for (UUID id : batch.keySet()) {
+                CacheEntry existing = cache.get(id);
+                if (existing != null && existing.info() != null) {
+                    // Recorded locally while the lookup was in flight, keep that answer
+                    found.putIfAbsent(id, existing.info());
+                } else {
+                    FirstJoinInfo info = found.get(id);
+                    cache.put(id, new CacheEntry(info, info != null ? Long.MAX_VALUE : negativeExpiry));
+                }
+            }
+        }
+        batch.forEach((id, future) -> {
+            pendingLookups.remove(id, future);
+            future.complete(found.get(id));
+        });
+    }
+}
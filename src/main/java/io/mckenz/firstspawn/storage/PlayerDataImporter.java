@@ -0,0 +1,246 @@
+package io.mckenz.firstspawn.storage;
+
+import io.mckenz.firstspawn.FirstSpawn;
+import io.mckenz.firstspawn.util.SchedulerUtil;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeds the first join ledger from the main world's playerdata folder, for servers that had
+ * players before FirstSpawn was installed.
+ * The folder is streamed rather than listed, and files are handed out in fixed-size batches to a
+ * small pool of workers that read only the UUID from the file name and the first join time from
+ * the file's metadata, never the file contents. At most two batches per worker are in flight, so
+ * memory stays flat however many players the server has, and nothing runs on a tick thread.
+ */
+public class PlayerDataImporter {
+    
+    private static final int BATCH_SIZE = 4096;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+    
+    private final FirstSpawn plugin;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile CommandSender requester;
+    private int threads;
+    
+    /**
+     * Creates a new PlayerDataImporter
+     * 
+     * @param plugin The plugin instance
+     */
+    public PlayerDataImporter(FirstSpawn plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Sets the number of worker threads used by the next import
+     * 
+     * @param threads The number of worker threads
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+    
+    /**
+     * Starts importing every player in a playerdata folder into the ledger
+     * 
+     * @param ledger The ledger to import into
+     * @param playerData The playerdata folder of the main world
+     * @param sender Who to send progress reports to, besides the console
+     * @return False if an import is already running
+     */
+    public boolean start(FirstJoinLedger ledger, Path playerData, CommandSender sender) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        
+        cancelled = false;
+        requester = sender;
+        scanned.set(0);
+        added.set(0);
+        skipped.set(0);
+        int workerCount = threads;
+        SchedulerUtil.runAsync(plugin, () -> {
+            try {
+                run(ledger, playerData, workerCount);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Stops the running import after the batches already started
+     * Players imported so far stay in the ledger.
+     * 
+     * @return True if an import was running, false otherwise
+     */
+    public boolean cancel() {
+        if (!running.get()) {
+            return false;
+        }
+        cancelled = true;
+        return true;
+    }
+    
+    /**
+     * Checks if an import is running
+     * 
+     * @return True if playerdata is being imported, false otherwise
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    /**
+     * Describes the progress of the running import
+     * 
+     * @return A one-line progress report
+     */
+    public String getProgress() {
+        return scanned.get() + " files scanned, " + added.get() + " players added" +
+            (skipped.get() > 0 ? ", " + skipped.get() + " skipped" : "");
+    }
+    
+    private void run(FirstJoinLedger ledger, Path playerData, int workerCount) {
+        if (!Files.isDirectory(playerData)) {
+            report("No playerdata folder found at " + playerData);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        report("Importing players from " + playerData + " using " + workerCount + " thread(s)");
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "FirstSpawn-Import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore permits = new Semaphore(workerCount * 2);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(playerData, "*.dat")) {
+            long lastReport = start;
+            List<Path> batch = new ArrayList<>(BATCH_SIZE);
+            for (Path file : files) {
+                if (cancelled) {
+                    break;
+                }
+                batch.add(file);
+                if (batch.size() == BATCH_SIZE) {
+                    submit(workers, permits, ledger, batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+                
+                long now = System.nanoTime();
+                if (now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport = now;
+                    report("Import " + getProgress());
+                }
+            }
+            if (!batch.isEmpty() && !cancelled) {
+                submit(workers, permits, ledger, batch);
+            }
+            
+            // Wait for the batches still in flight
+            permits.acquire(workerCount * 2);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read playerdata folder: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdown();
+        }
+        
+        report((cancelled ? "Import cancelled: " : "Import finished: ") + getProgress() +
+            String.format(" in %.1fs", (System.nanoTime() - start) / 1_000_000_000.0));
+    }
+    
+    private void submit(ExecutorService workers, Semaphore permits, FirstJoinLedger ledger, List<Path> batch)
+            throws InterruptedException {
+        permits.acquire();
+        workers.execute(() -> {
+            try {
+                importBatch(ledger, batch);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Failed to import playerdata batch: " + e.getMessage());
+            } finally {
+                permits.release();
+            }
+        });
+    }
+    
+    private void importBatch(FirstJoinLedger ledger, List<Path> batch) {
+        List<UUID> uuids = new ArrayList<>(batch.size());
+        long[] times = new long[batch.size()];
+        for (Path file : batch) {
+            UUID uuid = parseUuid(file.getFileName().toString());
+            long time = uuid == null ? -1L : firstJoinTime(file);
+            if (time < 0) {
+                skipped.incrementAndGet();
+                continue;
+            }
+            times[uuids.size()] = time;
+            uuids.add(uuid);
+        }
+        
+        scanned.addAndGet(batch.size());
+        added.addAndGet(ledger.recordAll(uuids, times));
+    }
+    
+    /**
+     * Gets the UUID from a playerdata file name such as 069a79f4-44e9-4726-a5be-fca90e38aaf5.dat
+     */
+    private static UUID parseUuid(String fileName) {
+        if (fileName.length() != 40) {
+            return null;
+        }
+        try {
+            return UUID.fromString(fileName.substring(0, 36));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Estimates when a player first joined from when their playerdata file was created,
+     * falling back to when it was last written on file systems that don't record creation times
+     */
+    private static long firstJoinTime(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long created = attributes.creationTime().toMillis();
+            long modified = attributes.lastModifiedTime().toMillis();
+            return created > 0 ? Math.min(created, modified) : modified;
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+    
+    private void report(String message) {
+        plugin.getLogger().info(message);
+        CommandSender target = requester;
+        if (target != null && !(target instanceof ConsoleCommandSender)) {
+            SchedulerUtil.runDelayedGlobal(plugin, () -> target.sendMessage(ChatColor.YELLOW + message), 1L);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.mckenz.firstspawn.storage;
+
+import io.mckenz.firstspawn.api.FirstJoinInfo;
+import io.mckenz.firstspawn.api.FirstJoinStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * First join store backed by an append-only text file that several servers can share,
+ * for example on a network mount
+ * Each line holds one first join. Servers append under an exclusive file lock and only ever
+ * read the lines added since their last read, so the file is never rewritten.
+ */
+public class SharedFileFirstJoinStore implements FirstJoinStore {
+    
+    private final FileChannel channel;
+    private final Map<UUID, FirstJoinInfo> known = new HashMap<>();
+    private long readPosition;
+    // Bytes of a line another server was still writing when we last read
+    private byte[] partialLine = new byte[0];
+    
+    /**
+     * Opens or creates the shared file
+     * 
+     * @param file The shared file
+     * @throws IOException If the file could not be opened
+     */
+    public SharedFileFirstJoinStore(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+    
+    @Override
+    public synchronized Map<UUID, FirstJoinInfo> lookup(Collection<UUID> playerIds) throws IOException {
+        try (FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)) {
+            catchUp();
+        }
+        
+        Map<UUID, FirstJoinInfo> found = new HashMap<>();
+        for (UUID id : playerIds) {
+            FirstJoinInfo info = known.get(id);
+            if (info != null) {
+                found.put(id, info);
+            }
+        }
+        return found;
+    }
+    
+    @Override
+    public synchronized void record(Collection<FirstJoinInfo> joins) throws IOException {
+        if (joins.isEmpty()) {
+            return;
+        }
+        
+        try (FileLock ignored = channel.lock()) {
+            // Another server may have recorded some of these players since we last read
+            catchUp();
+            
+            // Terminate a line left unfinished by a server that crashed mid-write
+            StringBuilder lines = new StringBuilder(partialLine.length > 0 ? "\n" : "");
+            for (FirstJoinInfo join : joins) {
+                if (known.putIfAbsent(join.getPlayerId(), join) == null) {
+                    lines.append(join.getPlayerId()).append('\t')
+                         .append(join.getFirstJoinTime()).append('\t')
+                         .append(join.getSpawnPoint() == null ? "" : join.getSpawnPoint()).append('\n');
+                }
+            }
+            if (lines.length() <= 1) {
+                return;
+            }
+            
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            long position = channel.size();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+            readPosition = position;
+            partialLine = new byte[0];
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+    
+    /**
+     * Reads the lines appended since the last read
+     */
+    private void catchUp() throws IOException {
+        long size = channel.size();
+        if (size <= readPosition) {
+            return;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - readPosition, 1 << 20));
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        line.write(partialLine);
+        while (readPosition < size) {
+            buffer.clear();
+            int read = channel.read(buffer, readPosition);
+            if (read <= 0) {
+                break;
+            }
+            readPosition += read;
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    parse(line.toString(StandardCharsets.UTF_8));
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+        }
+        partialLine = line.toByteArray();
+    }
+    
+    private void parse(String line) {
+        String[] parts = line.split("\t", -1);
+        if (parts.length < 2) {
+            return;
+        }
+        try {
+            UUID id = UUID.fromString(parts[0]);
+            String spawnPoint = parts.length > 2 && !parts[2].isEmpty() ? parts[2] : null;
+            known.putIfAbsent(id, new FirstJoinInfo(id, Long.parseLong(parts[1]), spawnPoint));
+        } catch (IllegalArgumentException e) {
+            // Skip damaged lines
+        }
+    }
+}
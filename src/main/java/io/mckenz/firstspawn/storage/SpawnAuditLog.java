@@ -0,0 +1,486 @@
+package io.mckenz.firstspawn.storage;
+
+import io.mckenz.firstspawn.metrics.SpawnTrace;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only history of every first spawn: who, when, where, which spawn point and how it ended.
+ * <p>
+ * Each outcome is a fixed-size binary record in a segment file per day. Records are queued by the
+ * calling thread and written in batches by a single writer thread, one channel write and one
+ * force per batch, so no tick thread ever waits on the disk. Segments from earlier days can be
+ * gzipped once they are closed. Names of players, worlds and spawn points are stored once in a
+ * side file and referred to by id. Queries map open segments read-only and read compressed ones
+ * as a stream, and only decode the fields a query needs, so counting a week of joins allocates
+ * nothing per record.
+ */
+public class SpawnAuditLog {
+    
+    private static final int RECORD_SIZE = 64;
+    private static final int MAGIC = 0x46534155; // "FSAU"
+    private static final int BATCH_RECORDS = 256;
+    private static final String PREFIX = "spawns-";
+    private static final String SUFFIX = ".log";
+    private static final String COMPRESSED_SUFFIX = ".log.gz";
+    
+    // Record layout
+    private static final int R_TIME = 0;
+    private static final int R_MSB = 8;
+    private static final int R_LSB = 16;
+    private static final int R_OUTCOME = 24;
+    private static final int R_SPAWN = 28;
+    private static final int R_WORLD = 32;
+    private static final int R_X = 36;
+    private static final int R_Y = 40;
+    private static final int R_Z = 44;
+    private static final int R_DURATION = 48;
+    private static final int R_NAME = 52;
+    private static final int R_CHECKSUM = 60;
+    
+    private static final int NO_NAME = 0;
+    private static final SpawnTrace.Outcome[] OUTCOMES = SpawnTrace.Outcome.values();
+    
+    private final Path directory;
+    private final Path namesFile;
+    private final Logger logger;
+    private final boolean compress;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<SpawnTrace> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService writer;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(RECORD_SIZE * BATCH_RECORDS);
+    private final StringBuilder newNames = new StringBuilder();
+    
+    // Only touched on the writer thread
+    private FileChannel channel;
+    private LocalDate segmentDate;
+    
+    /**
+     * Opens the audit log, compressing segments left over from earlier days if asked to
+     * 
+     * @param directory The directory holding the segments
+     * @param logger The logger used for warnings
+     * @param compress Whether to gzip segments once their day is over
+     * @throws IOException If the directory or the names file cannot be read
+     */
+    public SpawnAuditLog(Path directory, Logger logger, boolean compress) throws IOException {
+        this.directory = directory;
+        this.namesFile = directory.resolve("names.tsv");
+        this.logger = logger;
+        this.compress = compress;
+        Files.createDirectories(directory);
+        loadNames();
+        
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FirstSpawn-Audit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (compress) {
+            writer.execute(this::compressClosedSegments);
+        }
+    }
+    
+    /**
+     * Queues a first spawn outcome to be written
+     * 
+     * @param trace The outcome
+     */
+    public void append(SpawnTrace trace) {
+        if (writer.isShutdown()) {
+            return;
+        }
+        pending.add(trace);
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.execute(this::flush);
+        }
+    }
+    
+    /**
+     * Counts successful first spawns in fixed-size time buckets
+     * 
+     * @param from The start of the first bucket, in milliseconds since the epoch
+     * @param bucketMillis The length of each bucket in milliseconds
+     * @param buckets The number of buckets
+     * @return The number of new players in each bucket
+     * @throws IOException If a segment cannot be read
+     */
+    public long[] countFirstSpawns(long from, long bucketMillis, int buckets) throws IOException {
+        long to = from + bucketMillis * buckets;
+        long[] counts = new long[buckets];
+        scan(from, to, (record, offset) -> {
+            long time = record.getLong(offset + R_TIME);
+            if (time >= from && time < to && record.getInt(offset + R_OUTCOME) == SpawnTrace.Outcome.SUCCESS.ordinal()) {
+                counts[(int) ((time - from) / bucketMillis)]++;
+            }
+            return true;
+        });
+        return counts;
+    }
+    
+    /**
+     * Finds the recorded first spawns of a player, oldest first
+     * 
+     * @param playerId The player's UUID, or null to match by name
+     * @param playerName The player's name, used when the UUID is null
+     * @param limit The most records to return
+     * @return The player's records
+     * @throws IOException If a segment cannot be read
+     */
+    public List<SpawnTrace> findPlayer(UUID playerId, String playerName, int limit) throws IOException {
+        List<SpawnTrace> found = new ArrayList<>();
+        int nameId = playerId == null ? nameId('p', playerName) : NO_NAME;
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, (record, offset) -> {
+            boolean matches = playerId != null
+                ? record.getLong(offset + R_MSB) == playerId.getMostSignificantBits()
+                    && record.getLong(offset + R_LSB) == playerId.getLeastSignificantBits()
+                : record.getInt(offset + R_NAME) == nameId && playerName.equalsIgnoreCase(names.get(nameId));
+            if (matches) {
+                found.add(decode(record, offset));
+            }
+            return found.size() < limit;
+        });
+        return found;
+    }
+    
+    /**
+     * Gets the number of segment files
+     * 
+     * @return The number of days with a segment
+     * @throws IOException If the directory cannot be listed
+     */
+    public int getSegmentCount() throws IOException {
+        return segments(Long.MIN_VALUE, Long.MAX_VALUE).size();
+    }
+    
+    /**
+     * Writes the queued records and closes the current segment
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Timed out writing the first spawn audit log");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        closeSegment();
+    }
+    
+    /**
+     * Writes every queued record, switching segments when the day changes
+     */
+    private synchronized void flush() {
+        flushScheduled.set(false);
+        try {
+            SpawnTrace trace;
+            while ((trace = pending.poll()) != null) {
+                LocalDate date = Instant.ofEpochMilli(trace.time()).atZone(zone).toLocalDate();
+                if (!date.equals(segmentDate)) {
+                    writeBatch();
+                    openSegment(date);
+                }
+                encode(trace);
+                if (!batch.hasRemaining()) {
+                    writeBatch();
+                }
+            }
+            writeBatch();
+        } catch (IOException e) {
+            logger.warning("Failed to write the first spawn audit log: " + e.getMessage());
+            batch.clear();
+        }
+    }
+    
+    private void encode(SpawnTrace trace) {
+        long msb = trace.playerId().getMostSignificantBits();
+        long lsb = trace.playerId().getLeastSignificantBits();
+        int outcome = trace.outcome().ordinal();
+        int spawn = intern('s', trace.spawnPoint());
+        int world = intern('w', trace.world());
+        int x = (int) Math.floor(trace.x());
+        int y = (int) Math.floor(trace.y());
+        int z = (int) Math.floor(trace.z());
+        int duration = trace.durationNanos() < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, trace.durationNanos() / 1000);
+        int name = intern('p', trace.playerName());
+        
+        int base = batch.position();
+        batch.putLong(base + R_TIME, trace.time())
+            .putLong(base + R_MSB, msb)
+            .putLong(base + R_LSB, lsb)
+            .putInt(base + R_OUTCOME, outcome)
+            .putInt(base + R_SPAWN, spawn)
+            .putInt(base + R_WORLD, world)
+            .putInt(base + R_X, x)
+            .putInt(base + R_Y, y)
+            .putInt(base + R_Z, z)
+            .putInt(base + R_DURATION, duration)
+            .putInt(base + R_NAME, name)
+            .putInt(base + 56, 0)
+            .putInt(base + R_CHECKSUM, checksum(trace.time(), msb, lsb, outcome ^ spawn ^ world ^ x ^ y ^ z ^ name));
+        batch.position(base + RECORD_SIZE);
+    }
+    
+    private void writeBatch() throws IOException {
+        if (newNames.length() > 0) {
+            Files.writeString(namesFile, newNames, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            newNames.setLength(0);
+        }
+        if (batch.position() == 0) {
+            return;
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        channel.force(false);
+        batch.clear();
+    }
+    
+    private void openSegment(LocalDate date) throws IOException {
+        LocalDate previous = segmentDate;
+        closeSegment();
+        channel = FileChannel.open(segmentFile(date), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentDate = date;
+        if (compress && previous != null && previous.isBefore(date)) {
+            compressSegment(segmentFile(previous));
+        }
+    }
+    
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close audit log segment: " + e.getMessage());
+        }
+        channel = null;
+        segmentDate = null;
+    }
+    
+    /**
+     * Compresses the segments of earlier days, such as one left open by a restart before midnight
+     */
+    private void compressClosedSegments() {
+        LocalDate today = LocalDate.now(zone);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                LocalDate date = segmentDate(file);
+                if (date != null && date.isBefore(today)) {
+                    compressSegment(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to list audit log segments: " + e.getMessage());
+        }
+    }
+    
+    private void compressSegment(Path file) {
+        Path compressed = file.resolveSibling(file.getFileName() + ".gz");
+        Path partial = file.resolveSibling(file.getFileName() + ".gz.tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+            Files.copy(file, out);
+        } catch (IOException e) {
+            logger.warning("Failed to compress audit log segment " + file.getFileName() + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(partial, compressed);
+            Files.delete(file);
+        } catch (IOException e) {
+            logger.warning("Failed to replace audit log segment " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Visits every intact record of the segments covering a time range, oldest first
+     */
+    private void scan(long from, long to, RecordVisitor visitor) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (Path file : segments(from, to)) {
+            if (file.getFileName().toString().endsWith(COMPRESSED_SUFFIX)) {
+                try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+                    while (true) {
+                        in.readFully(record.array());
+                        if (isIntact(record, 0) && !visitor.visit(record, 0)) {
+                            return;
+                        }
+                    }
+                } catch (EOFException e) {
+                    // End of segment, or a torn last record
+                }
+                continue;
+            }
+            
+            try (FileChannel segment = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = segment.size() - segment.size() % RECORD_SIZE;
+                if (size == 0) {
+                    continue;
+                }
+                MappedByteBuffer mapped = segment.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                for (int offset = 0; offset < size; offset += RECORD_SIZE) {
+                    if (isIntact(mapped, offset) && !visitor.visit(mapped, offset)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Lists the segments of the days a time range touches, oldest first
+     */
+    private List<Path> segments(long from, long to) throws IOException {
+        LocalDate first = from == Long.MIN_VALUE ? LocalDate.MIN : Instant.ofEpochMilli(from).atZone(zone).toLocalDate();
+        LocalDate last = to == Long.MAX_VALUE ? LocalDate.MAX : Instant.ofEpochMilli(to).atZone(zone).toLocalDate();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                LocalDate date = segmentDate(file);
+                if (date != null && !date.isBefore(first) && !date.isAfter(last)
+                        && (name.endsWith(SUFFIX) || name.endsWith(COMPRESSED_SUFFIX))) {
+                    files.add(file);
+                }
+            }
+        }
+        // ISO dates sort chronologically by name
+        files.sort(null);
+        return files;
+    }
+    
+    private Path segmentFile(LocalDate date) {
+        return directory.resolve(PREFIX + date + SUFFIX);
+    }
+    
+    private static LocalDate segmentDate(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf('.');
+        if (!name.startsWith(PREFIX) || end < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(name.substring(PREFIX.length(), end));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    private SpawnTrace decode(ByteBuffer record, int offset) {
+        int duration = record.getInt(offset + R_DURATION);
+        return new SpawnTrace(record.getLong(offset + R_TIME),
+            new UUID(record.getLong(offset + R_MSB), record.getLong(offset + R_LSB)),
+            names.get(record.getInt(offset + R_NAME)),
+            OUTCOMES[record.getInt(offset + R_OUTCOME)],
+            names.get(record.getInt(offset + R_SPAWN)),
+            names.get(record.getInt(offset + R_WORLD)),
+            record.getInt(offset + R_X), record.getInt(offset + R_Y), record.getInt(offset + R_Z),
+            null, duration < 0 ? -1L : duration * 1000L);
+    }
+    
+    private static boolean isIntact(ByteBuffer buffer, int offset) {
+        int outcome = buffer.getInt(offset + R_OUTCOME);
+        if (outcome < 0 || outcome >= OUTCOMES.length) {
+            return false;
+        }
+        int mixed = outcome ^ buffer.getInt(offset + R_SPAWN) ^ buffer.getInt(offset + R_WORLD)
+            ^ buffer.getInt(offset + R_X) ^ buffer.getInt(offset + R_Y) ^ buffer.getInt(offset + R_Z)
+            ^ buffer.getInt(offset + R_NAME);
+        return buffer.getInt(offset + R_CHECKSUM) == checksum(buffer.getLong(offset + R_TIME),
+            buffer.getLong(offset + R_MSB), buffer.getLong(offset + R_LSB), mixed);
+    }
+    
+    private static int checksum(long time, long msb, long lsb, int fields) {
+        long h = time * 31 + msb;
+        h = h * 31 + lsb;
+        h = h * 31 + fields;
+        return (int) (h ^ (h >>> 32)) ^ MAGIC;
+    }
+    
+    /**
+     * Gets the id a name is stored under, adding it to the names file if it is new.
+     * Only called on the writer thread.
+     */
+    private int intern(char kind, String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        int id = nameId(kind, name);
+        if (names.putIfAbsent(id, name) == null) {
+            newNames.append(id).append('\t').append(name).append('\n');
+        }
+        return id;
+    }
+    
+    private static int nameId(char kind, String name) {
+        int id = (kind + name.toLowerCase()).hashCode();
+        return id == NO_NAME ? 1 : id;
+    }
+    
+    private void loadNames() throws IOException {
+        if (!Files.exists(namesFile)) {
+            return;
+        }
+        for (String line : Files.readAllLines(namesFile, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab > 0) {
+                try {
+                    names.put(Integer.parseInt(line.substring(0, tab)), line.substring(tab + 1));
+                } catch (NumberFormatException ignored) {
+                    // Skip damaged lines
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reads records in place, without copying them out of the segment
+     */
+    @FunctionalInterface
+    private interface RecordVisitor {
+        /**
+         * Visits a record
+         * 
+         * @param buffer The buffer holding the record, read with absolute gets
+         * @param offset The offset of the record's first byte
+         * @return False to stop scanning
+         */
+        boolean visit(ByteBuffer buffer, int offset);
+    }
+}
@@ -0,0 +1,126 @@
+package io.mckenz.firstspawn.storage;
+
+import io.mckenz.firstspawn.api.FirstJoinInfo;
+import io.mckenz.firstspawn.api.FirstJoinStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * First join store backed by an SQLite database
+ * Several servers on the same machine can share one database file; WAL mode lets them read
+ * while another server is writing. Uses the SQLite driver bundled with the server.
+ */
+public class SqliteFirstJoinStore implements FirstJoinStore {
+    
+    // SQLite limits the number of bound parameters per statement
+    private static final int MAX_BATCH = 500;
+    
+    private final Connection connection;
+    
+    /**
+     * Opens or creates the database
+     * 
+     * @param file The database file
+     * @throws IOException If the database could not be opened
+     */
+    public SqliteFirstJoinStore(Path file) throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA busy_timeout=5000");
+                statement.execute("CREATE TABLE IF NOT EXISTS first_joins (" +
+                        "uuid TEXT PRIMARY KEY, " +
+                        "first_join INTEGER NOT NULL, " +
+                        "spawn_point TEXT)");
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("SQLite driver is not available on this server", e);
+        } catch (SQLException e) {
+            throw new IOException("Failed to open " + file.getFileName() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public synchronized Map<UUID, FirstJoinInfo> lookup(Collection<UUID> playerIds) throws IOException {
+        Map<UUID, FirstJoinInfo> found = new HashMap<>();
+        List<UUID> ids = new ArrayList<>(playerIds);
+        try {
+            for (int start = 0; start < ids.size(); start += MAX_BATCH) {
+                List<UUID> batch = ids.subList(start, Math.min(ids.size(), start + MAX_BATCH));
+                StringBuilder sql = new StringBuilder("SELECT uuid, first_join, spawn_point FROM first_joins WHERE uuid IN (");
+                for (int i = 0; i < batch.size(); i++) {
+                    sql.append(i == 0 ? "?" : ",?");
+                }
+                sql.append(')');
+                
+                try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        statement.setString(i + 1, batch.get(i).toString());
+                    }
+                    try (ResultSet results = statement.executeQuery()) {
+                        while (results.next()) {
+                            UUID id = UUID.fromString(results.getString(1));
+                            found.put(id, new FirstJoinInfo(id, results.getLong(2), results.getString(3)));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to look up first joins: " + e.getMessage(), e);
+        }
+        return found;
+    }
+    
+    @Override
+    public synchronized void record(Collection<FirstJoinInfo> joins) throws IOException {
+        if (joins.isEmpty()) {
+            return;
+        }
+        
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT OR IGNORE INTO first_joins (uuid, first_join, spawn_point) VALUES (?, ?, ?)")) {
+                for (FirstJoinInfo join : joins) {
+                    statement.setString(1, join.getPlayerId().toString());
+                    statement.setLong(2, join.getFirstJoinTime());
+                    statement.setString(3, join.getSpawnPoint());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to record first joins: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
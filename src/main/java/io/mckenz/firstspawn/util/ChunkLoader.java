@@ -0,0 +1,103 @@
+package io.mckenz.firstspawn.util;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cross-platform chunk loading utility.
+ * Uses Paper's asynchronous chunk loading when available and falls back to
+ * loading on the main thread, one chunk per tick, on plain Spigot.
+ */
+public class ChunkLoader {
+    
+    private static MethodHandle getChunkAtAsync = null;
+    
+    static {
+        try {
+            getChunkAtAsync = MethodHandles.publicLookup().findVirtual(World.class, "getChunkAtAsync",
+                MethodType.methodType(CompletableFuture.class, int.class, int.class));
+        } catch (Exception e) {
+            getChunkAtAsync = null;
+        }
+    }
+    
+    /**
+     * Checks if the server supports asynchronous chunk loading
+     * 
+     * @return True if chunks can be loaded asynchronously, false otherwise
+     */
+    public static boolean isAsyncSupported() {
+        return getChunkAtAsync != null;
+    }
+    
+    /**
+     * Loads a chunk without blocking the calling tick where the platform allows it.
+     * On Paper and Folia the future completes on the thread owning the chunk.
+     * On Spigot the load is deferred by the given number of ticks so that callers can
+     * spread many loads over several ticks.
+     * 
+     * @param plugin The plugin instance
+     * @param world The world containing the chunk
+     * @param x The chunk X coordinate
+     * @param z The chunk Z coordinate
+     * @param fallbackDelayTicks The delay used when loading on the main thread
+     * @return A future completed with the loaded chunk
+     */
+    @SuppressWarnings("unchecked")
+    public static CompletableFuture<Chunk> loadAsync(Plugin plugin, World world, int x, int z, long fallbackDelayTicks) {
+        if (getChunkAtAsync != null) {
+            try {
+                return (CompletableFuture<Chunk>) (CompletableFuture<?>) getChunkAtAsync.invokeExact(world, x, z);
+            } catch (Throwable t) {
+                plugin.getLogger().warning("Failed to load chunk asynchronously, falling back to main thread: " + t.getMessage());
+            }
+        }
+        
+        CompletableFuture<Chunk> future = new CompletableFuture<>();
+        SchedulerUtil.runDelayedGlobal(plugin, () -> {
+            try {
+                future.complete(world.getChunkAt(x, z));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }, Math.max(1L, fallbackDelayTicks));
+        return future;
+    }
+    
+    /**
+     * Loads a chunk as with {@link #loadAsync} and takes a snapshot of it on the thread that
+     * owns the chunk, so the snapshot can then be read from any thread
+     * 
+     * @param plugin The plugin instance
+     * @param world The world containing the chunk
+     * @param x The chunk X coordinate
+     * @param z The chunk Z coordinate
+     * @param includeHeightMap Whether the snapshot needs the highest block of each column
+     * @return A future completed with the chunk snapshot
+     */
+    public static CompletableFuture<ChunkSnapshot> snapshotAsync(Plugin plugin, World world, int x, int z, boolean includeHeightMap) {
+        CompletableFuture<ChunkSnapshot> future = new CompletableFuture<>();
+        loadAsync(plugin, world, x, z, 1L).whenComplete((chunk, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+                return;
+            }
+            SchedulerUtil.runAtLocation(plugin, new Location(world, x << 4, 0, z << 4), () -> {
+                try {
+                    future.complete(chunk.getChunkSnapshot(includeHeightMap, false, false));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        });
+        return future;
+    }
+}
@@ -0,0 +1,215 @@
+package io.mckenz.firstspawn.util;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence for config.yml
+ * Changes are applied to the in-memory configuration straight away and the file is written
+ * later on a background thread, so a burst of setting changes results in a single write.
+ * Files are written to a temporary file first and then moved into place, so a crash mid-write
+ * never leaves a truncated config behind.
+ * The background thread keeps its own copy of the file and replays each change onto it, so the
+ * YAML is serialized without holding up the threads making changes.
+ */
+public class ConfigWriter {
+    
+    // A failed write is retried after the coalescing delay, at least this long, doubling per failure up to the maximum
+    private static final long MIN_RETRY_MILLIS = 1000L;
+    private static final long MAX_RETRY_MILLIS = 60_000L;
+    
+    private final Plugin plugin;
+    private final Supplier<FileConfiguration> config;
+    private final Path target;
+    private final Object lock = new Object();
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService executor;
+    
+    private long delayMillis;
+    private ScheduledFuture<?> pending;
+    private boolean dirty;
+    private boolean reloaded = true;
+    private int failures;
+    // Changes not yet replayed onto the copy, and changes replayed but not yet on disk
+    private List<Consumer<FileConfiguration>> queued = new ArrayList<>();
+    private final List<Consumer<FileConfiguration>> unwritten = new ArrayList<>();
+    
+    // The background thread's copy of the file, only touched while holding writeLock
+    private FileConfiguration copy;
+    
+    /**
+     * Creates a new ConfigWriter
+     * 
+     * @param plugin The plugin instance
+     * @param config Supplies the configuration currently in use
+     * @param file The file the configuration is written to
+     * @param delayMillis How long to wait for further changes before writing
+     */
+    public ConfigWriter(Plugin plugin, Supplier<FileConfiguration> config, File file, long delayMillis) {
+        this.plugin = plugin;
+        this.config = config;
+        this.target = file.toPath();
+        this.delayMillis = Math.max(0L, delayMillis);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, plugin.getName() + "-ConfigWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Sets how long to wait for further changes before writing
+     * 
+     * @param delayMillis The coalescing delay in milliseconds
+     */
+    public void setDelayMillis(long delayMillis) {
+        synchronized (lock) {
+            this.delayMillis = Math.max(0L, delayMillis);
+        }
+    }
+    
+    /**
+     * Applies a change to the configuration and schedules it to be written
+     * 
+     * @param change The change to apply
+     */
+    public void update(Consumer<FileConfiguration> change) {
+        synchronized (lock) {
+            change.accept(config.get());
+            queued.add(change);
+            dirty = true;
+            if (pending == null && !executor.isShutdown()) {
+                pending = executor.schedule(this::writeIfDirty, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+    
+    /**
+     * Reapplies changes that are not on disk yet to a configuration just reloaded from disk,
+     * then writes them on the background thread straight away
+     * Called after the configuration is reloaded, so a reload never has to wait for a write.
+     */
+    public void reloaded() {
+        synchronized (lock) {
+            FileConfiguration current = config.get();
+            unwritten.forEach(change -> change.accept(current));
+            queued.forEach(change -> change.accept(current));
+            
+            // The file may have been edited by hand, so start the copy again from disk
+            reloaded = true;
+            if (!dirty || executor.isShutdown()) {
+                return;
+            }
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            pending = executor.schedule(this::writeIfDirty, 0L, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Writes any pending changes and stops the background thread
+     */
+    public void close() {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeIfDirty();
+    }
+    
+    private void writeIfDirty() {
+        // Held across replay and write so an older copy never overwrites a newer one
+        synchronized (writeLock) {
+            List<Consumer<FileConfiguration>> batch;
+            List<Consumer<FileConfiguration>> replay = List.of();
+            synchronized (lock) {
+                pending = null;
+                if (!dirty) {
+                    return;
+                }
+                dirty = false;
+                batch = queued;
+                queued = new ArrayList<>();
+                if (reloaded || copy == null) {
+                    reloaded = false;
+                    replay = List.copyOf(unwritten);
+                    copy = null;
+                }
+                unwritten.addAll(batch);
+            }
+            
+            if (copy == null) {
+                copy = YamlConfiguration.loadConfiguration(target.toFile());
+                replay.forEach(change -> change.accept(copy));
+            }
+            batch.forEach(change -> change.accept(copy));
+            
+            try {
+                write(copy.saveToString());
+                synchronized (lock) {
+                    unwritten.clear();
+                    failures = 0;
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    dirty = true;
+                    long retryMillis = retryDelay(++failures);
+                    if (pending == null && !executor.isShutdown()) {
+                        pending = executor.schedule(this::writeIfDirty, retryMillis, TimeUnit.MILLISECONDS);
+                        plugin.getLogger().warning("Failed to save config.yml, retrying in " + retryMillis + "ms: " + e.getMessage());
+                    } else {
+                        plugin.getLogger().warning("Failed to save config.yml: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gets how long to wait before retrying a write that failed
+     * 
+     * @param failures How many writes in a row have failed
+     * @return The delay in milliseconds
+     */
+    private long retryDelay(int failures) {
+        long base = Math.max(MIN_RETRY_MILLIS, delayMillis);
+        return Math.min(MAX_RETRY_MILLIS, base << Math.min(failures - 1, 6));
+    }
+    
+    private void write(String contents) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, contents.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
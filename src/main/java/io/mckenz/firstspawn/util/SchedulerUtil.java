@@ -1,52 +1,62 @@
 package io.mckenz.firstspawn.util;
 
-import org.bukkit.Bukkit;
+import io.mckenz.firstspawn.util.scheduler.BukkitTaskScheduler;
+import io.mckenz.firstspawn.util.scheduler.FoliaTaskScheduler;
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+import io.mckenz.firstspawn.util.scheduler.TaskScheduler;
+
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
-import java.lang.reflect.Method;
-
 /**
  * Cross-platform scheduler utility that works with both Spigot/Paper and Folia
+ * Calls are forwarded to a {@link TaskScheduler} chosen once on first use
  */
 public class SchedulerUtil {
     
-    private static boolean isFolia = false;
-    private static Method getAsyncScheduler = null;
-    private static Method getGlobalRegionScheduler = null;
-    private static Method getRegionScheduler = null;
-    private static Method runNow = null;
-    private static Method runDelayed = null;
-    private static Method runDelayedEntity = null;
-    private static Method getEntityScheduler = null;
+    private static volatile TaskScheduler scheduler = null;
+    
+    /**
+     * Gets the scheduler all tasks are dispatched through, detecting the platform on first use
+     * 
+     * @return The active task scheduler
+     */
+    public static TaskScheduler getScheduler() {
+        TaskScheduler current = scheduler;
+        if (current == null) {
+            synchronized (SchedulerUtil.class) {
+                current = scheduler;
+                if (current == null) {
+                    current = detect();
+                    scheduler = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Replaces the scheduler all tasks are dispatched through
+     * Intended for tests and benchmarks that drive a virtual clock
+     * 
+     * @param taskScheduler The scheduler to use, or null to detect the platform again
+     */
+    public static void setScheduler(TaskScheduler taskScheduler) {
+        scheduler = taskScheduler;
+    }
     
-    static {
+    private static TaskScheduler detect() {
         try {
-            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
-            isFolia = true;
-            
-            // Initialize reflection methods for Folia
-            Class<?> bukkitClass = Bukkit.class;
-            getAsyncScheduler = bukkitClass.getMethod("getAsyncScheduler");
-            getGlobalRegionScheduler = bukkitClass.getMethod("getGlobalRegionScheduler");
-            getRegionScheduler = bukkitClass.getMethod("getRegionScheduler");
-            
-            Class<?> asyncSchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.AsyncScheduler");
-            runNow = asyncSchedulerClass.getMethod("runNow", Plugin.class, Runnable.class);
-            
-            Class<?> globalRegionSchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler");
-            runDelayed = globalRegionSchedulerClass.getMethod("runDelayed", Plugin.class, Runnable.class, long.class);
-            
-            Class<?> entityClass = Class.forName("org.bukkit.entity.Entity");
-            getEntityScheduler = entityClass.getMethod("getScheduler");
-            
-            Class<?> entitySchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.EntityScheduler");
-            runDelayedEntity = entitySchedulerClass.getMethod("runDelayed", Plugin.class, Runnable.class, Runnable.class, long.class);
-            
-        } catch (Exception e) {
-            isFolia = false;
+            TaskScheduler folia = FoliaTaskScheduler.createIfAvailable();
+            if (folia != null) {
+                return folia;
+            }
+        } catch (IllegalStateException e) {
+            java.util.logging.Logger.getLogger("FirstSpawn").warning(
+                "Running on Folia but its schedulers could not be bound, falling back to Bukkit: " + e.getMessage());
         }
+        return new BukkitTaskScheduler();
     }
     
     /**
@@ -55,7 +65,7 @@ public class SchedulerUtil {
      * @return True if running on Folia, false otherwise
      */
     public static boolean isFolia() {
-        return isFolia;
+        return getScheduler().isFolia();
     }
     
     /**
@@ -63,21 +73,10 @@ public class SchedulerUtil {
      * 
      * @param plugin The plugin instance
      * @param task The task to run
+     * @return The scheduled task
      */
-    public static void runAsync(Plugin plugin, Runnable task) {
-        if (isFolia) {
-            try {
-                // Use Folia's async scheduler
-                Object asyncScheduler = getAsyncScheduler.invoke(null);
-                runNow.invoke(asyncScheduler, plugin, task);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to use Folia async scheduler, falling back to Bukkit: " + e.getMessage());
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
-            }
-        } else {
-            // Use traditional Bukkit scheduler
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
-        }
+    public static ScheduledTask runAsync(Plugin plugin, Runnable task) {
+        return getScheduler().runAsync(plugin, task);
     }
     
     /**
@@ -87,21 +86,39 @@ public class SchedulerUtil {
      * @param task The task to run
      * @param delayTicks The delay in ticks
      * @param player The player (used for entity scheduling in Folia)
+     * @return The scheduled task
      */
-    public static void runDelayed(Plugin plugin, Runnable task, long delayTicks, Player player) {
-        if (isFolia) {
-            try {
-                // Use Folia's entity scheduler for player-related tasks
-                Object entityScheduler = getEntityScheduler.invoke(player);
-                runDelayedEntity.invoke(entityScheduler, plugin, task, null, delayTicks);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to use Folia entity scheduler, falling back to Bukkit: " + e.getMessage());
-                Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
-            }
-        } else {
-            // Use traditional Bukkit scheduler
-            Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
-        }
+    public static ScheduledTask runDelayed(Plugin plugin, Runnable task, long delayTicks, Player player) {
+        return getScheduler().runForEntity(plugin, player, task, delayTicks);
+    }
+    
+    /**
+     * Runs a delayed task for a player on the appropriate scheduler, or a fallback if they leave first
+     * 
+     * @param plugin The plugin instance
+     * @param task The task to run
+     * @param retired The task to run instead if the player leaves before the task runs
+     * @param delayTicks The delay in ticks
+     * @param player The player (used for entity scheduling in Folia)
+     * @return The scheduled task
+     */
+    public static ScheduledTask runDelayed(Plugin plugin, Runnable task, Runnable retired, long delayTicks, Player player) {
+        return getScheduler().runForEntity(plugin, player, task, retired, delayTicks);
+    }
+    
+    /**
+     * Runs a repeating task for a player on the appropriate scheduler
+     * The task stops once the player leaves
+     * 
+     * @param plugin The plugin instance
+     * @param task The task to run
+     * @param delayTicks The delay before the first run in ticks
+     * @param periodTicks The period between runs in ticks
+     * @param player The player (used for entity scheduling in Folia)
+     * @return The scheduled task
+     */
+    public static ScheduledTask runTimer(Plugin plugin, Runnable task, long delayTicks, long periodTicks, Player player) {
+        return getScheduler().runForEntityTimer(plugin, player, task, delayTicks, periodTicks);
     }
     
     /**
@@ -110,21 +127,23 @@ public class SchedulerUtil {
      * @param plugin The plugin instance
      * @param task The task to run
      * @param delayTicks The delay in ticks
+     * @return The scheduled task
      */
-    public static void runDelayedGlobal(Plugin plugin, Runnable task, long delayTicks) {
-        if (isFolia) {
-            try {
-                // Use Folia's global scheduler for non-entity tasks
-                Object globalScheduler = getGlobalRegionScheduler.invoke(null);
-                runDelayed.invoke(globalScheduler, plugin, task, delayTicks);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to use Folia global scheduler, falling back to Bukkit: " + e.getMessage());
-                Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
-            }
-        } else {
-            // Use traditional Bukkit scheduler
-            Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
-        }
+    public static ScheduledTask runDelayedGlobal(Plugin plugin, Runnable task, long delayTicks) {
+        return getScheduler().runGlobal(plugin, task, delayTicks);
+    }
+    
+    /**
+     * Runs a repeating task on the global scheduler (for non-entity related tasks)
+     * 
+     * @param plugin The plugin instance
+     * @param task The task to run
+     * @param delayTicks The delay before the first run in ticks
+     * @param periodTicks The period between runs in ticks
+     * @return The scheduled task
+     */
+    public static ScheduledTask runTimerGlobal(Plugin plugin, Runnable task, long delayTicks, long periodTicks) {
+        return getScheduler().runGlobalTimer(plugin, task, delayTicks, periodTicks);
     }
     
     /**
@@ -133,21 +152,9 @@ public class SchedulerUtil {
      * @param plugin The plugin instance
      * @param location The location
      * @param task The task to run
+     * @return The scheduled task
      */
-    public static void runAtLocation(Plugin plugin, Location location, Runnable task) {
-        if (isFolia) {
-            try {
-                // Use Folia's region scheduler
-                Object regionScheduler = getRegionScheduler.invoke(null);
-                Method run = regionScheduler.getClass().getMethod("run", Plugin.class, Location.class, Runnable.class);
-                run.invoke(regionScheduler, plugin, location, task);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to use Folia region scheduler, falling back to Bukkit: " + e.getMessage());
-                Bukkit.getScheduler().runTask(plugin, task);
-            }
-        } else {
-            // Use traditional Bukkit scheduler
-            Bukkit.getScheduler().runTask(plugin, task);
-        }
+    public static ScheduledTask runAtLocation(Plugin plugin, Location location, Runnable task) {
+        return getScheduler().runAtLocation(plugin, location, task);
     }
 }
@@ -0,0 +1,107 @@
+package io.mckenz.firstspawn.util;
+
+import io.mckenz.firstspawn.util.scheduler.ScheduledTask;
+
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Tracks how long server ticks are taking.
+ * Uses Paper's average tick time when available and otherwise measures the interval between
+ * consecutive ticks of a global task, which only rises above 50ms once the server is lagging.
+ */
+public class TickMonitor {
+    
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double SMOOTHING = 0.1;
+    private static final double HEALTHY_INTERVAL_MILLIS = 52.0;
+    
+    private final Plugin plugin;
+    private MethodHandle getAverageTickTime;
+    
+    private volatile double averageTickMillis = 50.0;
+    private long lastTickNanos;
+    private ScheduledTask sampleTask;
+    
+    /**
+     * Creates a new TickMonitor
+     * 
+     * @param plugin The plugin instance
+     */
+    public TickMonitor(Plugin plugin) {
+        this.plugin = plugin;
+        try {
+            getAverageTickTime = MethodHandles.publicLookup()
+                .findVirtual(plugin.getServer().getClass(), "getAverageTickTime", MethodType.methodType(double.class))
+                .bindTo(plugin.getServer());
+        } catch (Exception e) {
+            getAverageTickTime = null;
+        }
+    }
+    
+    /**
+     * Starts sampling tick times on the global scheduler
+     */
+    public void start() {
+        if (sampleTask != null && !sampleTask.isCancelled()) {
+            return;
+        }
+        lastTickNanos = System.nanoTime();
+        sampleTask = SchedulerUtil.runTimerGlobal(plugin, this::sample, 1L, 1L);
+    }
+    
+    /**
+     * Stops sampling tick times
+     */
+    public void stop() {
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+    }
+    
+    /**
+     * Gets the smoothed duration of recent ticks
+     * 
+     * @return The average tick time in milliseconds
+     */
+    public double getAverageTickMillis() {
+        return averageTickMillis;
+    }
+    
+    /**
+     * Checks if recent ticks are taking longer than the given target
+     * 
+     * @param targetMillis The target tick time in milliseconds
+     * @return True if the average tick time is above the target, false otherwise
+     */
+    public boolean isAbove(double targetMillis) {
+        if (getAverageTickTime == null) {
+            // Tick intervals never drop below 50ms, so only treat them as slow once they
+            // are noticeably longer than a healthy tick
+            return averageTickMillis > Math.max(targetMillis, HEALTHY_INTERVAL_MILLIS);
+        }
+        return averageTickMillis > targetMillis;
+    }
+    
+    private void sample() {
+        long now = System.nanoTime();
+        double interval = (now - lastTickNanos) / NANOS_PER_MILLI;
+        lastTickNanos = now;
+        
+        if (getAverageTickTime != null) {
+            try {
+                averageTickMillis = (double) getAverageTickTime.invokeExact();
+                return;
+            } catch (Throwable t) {
+                // Not supported on this platform (e.g. Folia), measure tick intervals instead
+                getAverageTickTime = null;
+            }
+        }
+        
+        averageTickMillis += (interval - averageTickMillis) * SMOOTHING;
+    }
+}
@@ -1,115 +1,237 @@
 package io.mckenz.firstspawn.util;
 
 import io.mckenz.firstspawn.FirstSpawn;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.util.Scanner;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Checks for updates to the plugin
+ * The check is a single non-blocking request with connect and response timeouts, conditional on
+ * the validators of the last answer, and the answer is cached on disk so restarts within the
+ * cache time don't touch the network at all. The join listener that tells admins about an update
+ * is only registered once an update has been found.
  */
 public class UpdateChecker implements Listener {
+    
+    /**
+     * The SpigotMC endpoint, with {resource} standing in for the resource ID
+     */
+    public static final String DEFAULT_ENDPOINT = "https://api.spigotmc.org/legacy/update.php?resource={resource}";
+    
+    private static final String CACHE_FILE = "update-cache.properties";
+    
     private final FirstSpawn plugin;
     private final int resourceId;
     private final boolean notifyAdmins;
-    private boolean updateAvailable = false;
-    private String latestVersion = null;
-
+    private final URI endpoint;
+    private final Duration cacheTime;
+    private final Duration timeout;
+    private final HttpClient client;
+    private final AtomicBoolean listening = new AtomicBoolean();
+    private volatile boolean updateAvailable = false;
+    private volatile String latestVersion = null;
+    private volatile long lastCheckTime = 0L;
+    
     /**
      * Creates a new UpdateChecker instance
      * 
      * @param plugin The plugin instance
      * @param resourceId The SpigotMC resource ID
      * @param notifyAdmins Whether to notify admins when they join
+     * @param endpoint The URL answering with the latest version, {resource} is replaced with the resource ID
+     * @param cacheTime How long a fetched version is reused before asking again
+     * @param timeout How long to wait to connect and for the answer
+     * @throws IllegalArgumentException If the endpoint is not a valid URL
      */
-    public UpdateChecker(FirstSpawn plugin, int resourceId, boolean notifyAdmins) {
+    public UpdateChecker(FirstSpawn plugin, int resourceId, boolean notifyAdmins, String endpoint, 
+                         Duration cacheTime, Duration timeout) {
         this.plugin = plugin;
         this.resourceId = resourceId;
         this.notifyAdmins = notifyAdmins;
-        
-        // Register this class as an event listener
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        this.endpoint = URI.create(endpoint.replace("{resource}", String.valueOf(resourceId)));
+        if (!"http".equalsIgnoreCase(this.endpoint.getScheme()) && !"https".equalsIgnoreCase(this.endpoint.getScheme())) {
+            throw new IllegalArgumentException("Endpoint must be an http or https URL");
+        }
+        this.cacheTime = cacheTime;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(timeout)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
     }
     
     /**
-     * Checks for updates to the plugin
+     * Checks for updates to the plugin, from the cache if it is fresh enough
      */
     public void checkForUpdates() {
         SchedulerUtil.runAsync(plugin, () -> {
-            try {
-                String currentVersion = plugin.getDescription().getVersion();
-                latestVersion = fetchLatestVersion();
-                
-                if (latestVersion == null) {
-                    plugin.getLogger().warning("Failed to check for updates.");
-                    return;
+            Properties cache = readCache();
+            String cachedVersion = cache.getProperty("version");
+            long checked = parseLong(cache.getProperty("checked"));
+            boolean sameEndpoint = endpoint.toString().equals(cache.getProperty("endpoint"));
+            if (cachedVersion != null && sameEndpoint && System.currentTimeMillis() - checked < cacheTime.toMillis()) {
+                plugin.logDebug(() -> "Using cached update check from " + CACHE_FILE);
+                handleLatestVersion(cachedVersion);
+                return;
+            }
+            
+            HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("User-Agent", "FirstSpawn/" + plugin.getDescription().getVersion())
+                .GET();
+            if (cachedVersion != null && sameEndpoint) {
+                String etag = cache.getProperty("etag");
+                String lastModified = cache.getProperty("last-modified");
+                if (etag != null) {
+                    request.header("If-None-Match", etag);
                 }
-                
-                // Normalize versions for logging
-                String normalizedCurrent = normalizeVersion(currentVersion);
-                String normalizedLatest = normalizeVersion(latestVersion);
-                
-                // Compare versions using semantic versioning
-                if (!versionsEqual(currentVersion, latestVersion)) {
-                    // Check if the latest version is actually newer
-                    String[] currentParts = normalizedCurrent.split("\\.");
-                    String[] latestParts = normalizedLatest.split("\\.");
-                    
-                    boolean isNewer = false;
-                    for (int i = 0; i < Math.min(currentParts.length, latestParts.length); i++) {
-                        int currentPart = Integer.parseInt(currentParts[i]);
-                        int latestPart = Integer.parseInt(latestParts[i]);
-                        
-                        if (latestPart > currentPart) {
-                            isNewer = true;
-                            break;
-                        } else if (latestPart < currentPart) {
-                            // Current version is actually newer than "latest"
-                            break;
-                        }
-                    }
-                    
-                    if (isNewer) {
-                        updateAvailable = true;
-                        plugin.getLogger().info("A new update is available: " + latestVersion);
-                        plugin.getLogger().info("You are currently running: v" + currentVersion);
-                        plugin.getLogger().info("Download the latest version from: https://www.spigotmc.org/resources/" + resourceId);
-                    } else {
-                        plugin.getLogger().info("You are running the latest version: v" + currentVersion);
-                    }
-                } else {
-                    plugin.getLogger().info("You are running the latest version: v" + currentVersion);
+                if (lastModified != null) {
+                    request.header("If-Modified-Since", lastModified);
                 }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to check for updates: " + e.getMessage());
             }
+            
+            client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    try {
+                        handleResponse(response, error, cache, sameEndpoint ? cachedVersion : null);
+                    } catch (Exception e) {
+                        plugin.getLogger().warning("Failed to check for updates: " + e.getMessage());
+                    }
+                });
         });
     }
-
+    
     /**
-     * Gets the latest version from SpigotMC
-     * 
-     * @return The latest version, or null if an error occurred
-     * @throws IOException If an I/O error occurs
+     * Works out the latest version from the response, falling back to the cached version on errors
      */
-    private String fetchLatestVersion() throws IOException {
-        URL url = new URL("https://api.spigotmc.org/legacy/update.php?resource=" + resourceId);
-        
-        try (InputStream inputStream = url.openStream();
-             Scanner scanner = new Scanner(inputStream)) {
-            if (scanner.hasNext()) {
-                return scanner.next();
+    private void handleResponse(HttpResponse<String> response, Throwable error, Properties cache, 
+                                String cachedVersion) {
+        if (error != null || (response.statusCode() != 200 && response.statusCode() != 304)) {
+            String reason = error != null ? error.toString() : "HTTP " + response.statusCode();
+            plugin.getLogger().warning("Failed to check for updates: " + reason);
+            if (cachedVersion != null) {
+                handleLatestVersion(cachedVersion);
             }
+            return;
+        }
+        
+        String version = cachedVersion;
+        if (response.statusCode() == 200) {
+            version = response.body().trim().split("\\s+", 2)[0];
+            response.headers().firstValue("ETag").ifPresentOrElse(
+                etag -> cache.setProperty("etag", etag), () -> cache.remove("etag"));
+            response.headers().firstValue("Last-Modified").ifPresentOrElse(
+                lastModified -> cache.setProperty("last-modified", lastModified), () -> cache.remove("last-modified"));
+        }
+        if (version == null || version.isEmpty()) {
+            plugin.getLogger().warning("Failed to check for updates.");
+            return;
+        }
+        
+        cache.setProperty("version", version);
+        cache.setProperty("endpoint", endpoint.toString());
+        cache.setProperty("checked", String.valueOf(System.currentTimeMillis()));
+        writeCache(cache);
+        handleLatestVersion(version);
+    }
+    
+    /**
+     * Compares the latest version with the running one, and starts notifying admins if it is newer
+     */
+    private void handleLatestVersion(String version) {
+        String currentVersion = plugin.getDescription().getVersion();
+        latestVersion = version;
+        lastCheckTime = System.currentTimeMillis();
+        if (!isNewer(currentVersion, version)) {
+            plugin.getLogger().info("You are running the latest version: v" + currentVersion);
+            return;
+        }
+        
+        updateAvailable = true;
+        plugin.getLogger().info("A new update is available: " + version);
+        plugin.getLogger().info("You are currently running: v" + currentVersion);
+        plugin.getLogger().info("Download the latest version from: https://www.spigotmc.org/resources/" + resourceId);
+        if (notifyAdmins && listening.compareAndSet(false, true)) {
+            SchedulerUtil.runDelayedGlobal(plugin, 
+                () -> plugin.getServer().getPluginManager().registerEvents(this, plugin), 1L);
+        }
+    }
+    
+    /**
+     * Checks if the latest version is newer than the current one, comparing numeric parts in order
+     */
+    private boolean isNewer(String currentVersion, String latestVersion) {
+        if (versionsEqual(currentVersion, latestVersion)) {
+            return false;
         }
         
-        return null;
+        String[] currentParts = normalizeVersion(currentVersion).split("\\.");
+        String[] latestParts = normalizeVersion(latestVersion).split("\\.");
+        for (int i = 0; i < Math.min(currentParts.length, latestParts.length); i++) {
+            int currentPart = parseVersionPart(currentParts[i]);
+            int latestPart = parseVersionPart(latestParts[i]);
+            if (latestPart != currentPart) {
+                return latestPart > currentPart;
+            }
+        }
+        return false;
+    }
+    
+    private static int parseVersionPart(String part) {
+        try {
+            return Integer.parseInt(part);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    private static long parseLong(String value) {
+        try {
+            return value == null ? 0L : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+    
+    private Properties readCache() {
+        Properties cache = new Properties();
+        Path file = plugin.getDataFolder().toPath().resolve(CACHE_FILE);
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                cache.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                plugin.logDebug("Ignoring unreadable update cache: " + e.getMessage());
+                cache.clear();
+            }
+        }
+        return cache;
+    }
+    
+    private void writeCache(Properties cache) {
+        Path file = plugin.getDataFolder().toPath().resolve(CACHE_FILE);
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                cache.store(writer, "FirstSpawn update check cache");
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save update cache: " + e.getMessage());
+        }
     }
     
     /**
@@ -133,7 +255,7 @@ public class UpdateChecker implements Listener {
      * @param version The version string to normalize
      * @return The normalized version string
      */
-    private String normalizeVersion(String version) {
+    static String normalizeVersion(String version) {
         // Remove all 'v' prefixes (handles cases like 'vv1.1.0')
         while (version.startsWith("v")) {
             version = version.substring(1);
@@ -157,7 +279,7 @@ public class UpdateChecker implements Listener {
         
         return version;
     }
-
+    
     /**
      * Checks if an update is available
      * 
@@ -166,7 +288,16 @@ public class UpdateChecker implements Listener {
     public boolean isUpdateAvailable() {
         return updateAvailable;
     }
-
+    
+    /**
+     * Gets when the latest version was last learned, from the network or the cache
+     * 
+     * @return The time in milliseconds since the epoch, or 0 if no check has succeeded yet
+     */
+    public long getLastCheckTime() {
+        return lastCheckTime;
+    }
+    
     /**
      * Gets the latest version
      * 
@@ -175,7 +306,7 @@ public class UpdateChecker implements Listener {
     public String getLatestVersion() {
         return latestVersion;
     }
-
+    
     /**
      * Notifies admins when they join if an update is available
      * 
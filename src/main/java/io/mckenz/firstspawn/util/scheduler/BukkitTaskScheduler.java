@@ -0,0 +1,76 @@
+package io.mckenz.firstspawn.util.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Task scheduler backed by the traditional Bukkit scheduler used by Spigot and Paper
+ */
+public class BukkitTaskScheduler implements TaskScheduler {
+    
+    @Override
+    public boolean isFolia() {
+        return false;
+    }
+    
+    @Override
+    public ScheduledTask runAsync(Plugin plugin, Runnable task) {
+        return wrap(Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+    }
+    
+    @Override
+    public ScheduledTask runGlobal(Plugin plugin, Runnable task, long delayTicks) {
+        return wrap(Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks));
+    }
+    
+    @Override
+    public ScheduledTask runGlobalTimer(Plugin plugin, Runnable task, long delayTicks, long periodTicks) {
+        return wrap(Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks));
+    }
+    
+    @Override
+    public ScheduledTask runAtLocation(Plugin plugin, Location location, Runnable task) {
+        return wrap(Bukkit.getScheduler().runTask(plugin, task));
+    }
+    
+    @Override
+    public ScheduledTask runForEntity(Plugin plugin, Entity entity, Runnable task, Runnable retired, long delayTicks) {
+        return wrap(Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            if (entity.isValid()) {
+                task.run();
+            } else if (retired != null) {
+                retired.run();
+            }
+        }, delayTicks));
+    }
+    
+    @Override
+    public ScheduledTask runForEntityTimer(Plugin plugin, Entity entity, Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask[] handle = new BukkitTask[1];
+        handle[0] = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (!entity.isValid()) {
+                handle[0].cancel();
+                return;
+            }
+            task.run();
+        }, delayTicks, periodTicks);
+        return wrap(handle[0]);
+    }
+    
+    private static ScheduledTask wrap(BukkitTask task) {
+        return new ScheduledTask() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+            
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+}
@@ -0,0 +1,225 @@
+package io.mckenz.firstspawn.util.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Consumer;
+
+/**
+ * Task scheduler backed by Folia's region schedulers
+ * Folia's API is not on the compile classpath, so every target is looked up once when the
+ * scheduler is created and bound as a {@link MethodHandle}. Dispatching a task afterwards is a
+ * direct handle invocation with no reflective lookups.
+ */
+public class FoliaTaskScheduler implements TaskScheduler {
+    
+    private static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+    
+    // Bound to the server's scheduler instances, which live as long as the server
+    private final MethodHandle asyncRunNow;
+    private final MethodHandle globalRunDelayed;
+    private final MethodHandle globalRunAtFixedRate;
+    private final MethodHandle regionRun;
+    
+    // Entity schedulers differ per entity, so these take the entity as their first argument
+    private final MethodHandle entityRunDelayed;
+    private final MethodHandle entityRunAtFixedRate;
+    
+    private final MethodHandle taskCancel;
+    private final MethodHandle taskIsCancelled;
+    
+    private FoliaTaskScheduler() throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        
+        Class<?> asyncSchedulerClass = Class.forName(SCHEDULER_PACKAGE + "AsyncScheduler");
+        Class<?> globalSchedulerClass = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+        Class<?> regionSchedulerClass = Class.forName(SCHEDULER_PACKAGE + "RegionScheduler");
+        Class<?> entitySchedulerClass = Class.forName(SCHEDULER_PACKAGE + "EntityScheduler");
+        Class<?> taskClass = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+        
+        Object asyncScheduler = lookup.findStatic(Bukkit.class, "getAsyncScheduler",
+            MethodType.methodType(asyncSchedulerClass)).invoke();
+        Object globalScheduler = lookup.findStatic(Bukkit.class, "getGlobalRegionScheduler",
+            MethodType.methodType(globalSchedulerClass)).invoke();
+        Object regionScheduler = lookup.findStatic(Bukkit.class, "getRegionScheduler",
+            MethodType.methodType(regionSchedulerClass)).invoke();
+        
+        asyncRunNow = lookup.findVirtual(asyncSchedulerClass, "runNow",
+                MethodType.methodType(taskClass, Plugin.class, Consumer.class))
+            .bindTo(asyncScheduler)
+            .asType(MethodType.methodType(Object.class, Plugin.class, Consumer.class));
+        
+        globalRunDelayed = lookup.findVirtual(globalSchedulerClass, "runDelayed",
+                MethodType.methodType(taskClass, Plugin.class, Consumer.class, long.class))
+            .bindTo(globalScheduler)
+            .asType(MethodType.methodType(Object.class, Plugin.class, Consumer.class, long.class));
+        
+        globalRunAtFixedRate = lookup.findVirtual(globalSchedulerClass, "runAtFixedRate",
+                MethodType.methodType(taskClass, Plugin.class, Consumer.class, long.class, long.class))
+            .bindTo(globalScheduler)
+            .asType(MethodType.methodType(Object.class, Plugin.class, Consumer.class, long.class, long.class));
+        
+        regionRun = lookup.findVirtual(regionSchedulerClass, "run",
+                MethodType.methodType(taskClass, Plugin.class, Location.class, Consumer.class))
+            .bindTo(regionScheduler)
+            .asType(MethodType.methodType(Object.class, Plugin.class, Location.class, Consumer.class));
+        
+        // entity.getScheduler().runDelayed(...) folded into a single handle taking the entity
+        MethodHandle getEntityScheduler = lookup.findVirtual(Entity.class, "getScheduler",
+            MethodType.methodType(entitySchedulerClass));
+        
+        entityRunDelayed = MethodHandles.filterArguments(
+                lookup.findVirtual(entitySchedulerClass, "runDelayed",
+                    MethodType.methodType(taskClass, Plugin.class, Consumer.class, Runnable.class, long.class)),
+                0, getEntityScheduler)
+            .asType(MethodType.methodType(Object.class, Entity.class, Plugin.class, Consumer.class, Runnable.class, long.class));
+        
+        entityRunAtFixedRate = MethodHandles.filterArguments(
+                lookup.findVirtual(entitySchedulerClass, "runAtFixedRate",
+                    MethodType.methodType(taskClass, Plugin.class, Consumer.class, Runnable.class, long.class, long.class)),
+                0, getEntityScheduler)
+            .asType(MethodType.methodType(Object.class, Entity.class, Plugin.class, Consumer.class, Runnable.class, long.class, long.class));
+        
+        taskCancel = lookup.findVirtual(taskClass, "cancel",
+                MethodType.methodType(Class.forName(SCHEDULER_PACKAGE + "ScheduledTask$CancelledState")))
+            .asType(MethodType.methodType(void.class, Object.class));
+        taskIsCancelled = lookup.findVirtual(taskClass, "isCancelled", MethodType.methodType(boolean.class))
+            .asType(MethodType.methodType(boolean.class, Object.class));
+    }
+    
+    /**
+     * Creates a Folia scheduler if the server is running Folia
+     * 
+     * @return The Folia scheduler, or null if Folia is not available
+     * @throws IllegalStateException If running on Folia but its schedulers could not be bound
+     */
+    public static FoliaTaskScheduler createIfAvailable() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        
+        try {
+            return new FoliaTaskScheduler();
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to bind Folia schedulers: " + t, t);
+        }
+    }
+    
+    @Override
+    public boolean isFolia() {
+        return true;
+    }
+    
+    @Override
+    public ScheduledTask runAsync(Plugin plugin, Runnable task) {
+        try {
+            return wrap((Object) asyncRunNow.invokeExact(plugin, consumer(task)));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+    
+    @Override
+    public ScheduledTask runGlobal(Plugin plugin, Runnable task, long delayTicks) {
+        try {
+            // Folia rejects delays below one tick
+            return wrap((Object) globalRunDelayed.invokeExact(plugin, consumer(task), Math.max(1L, delayTicks)));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+    
+    @Override
+    public ScheduledTask runGlobalTimer(Plugin plugin, Runnable task, long delayTicks, long periodTicks) {
+        try {
+            return wrap((Object) globalRunAtFixedRate.invokeExact(plugin, consumer(task),
+                Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+    
+    @Override
+    public ScheduledTask runAtLocation(Plugin plugin, Location location, Runnable task) {
+        try {
+            return wrap((Object) regionRun.invokeExact(plugin, location, consumer(task)));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+    
+    @Override
+    public ScheduledTask runForEntity(Plugin plugin, Entity entity, Runnable task, Runnable retired, long delayTicks) {
+        try {
+            Object foliaTask = (Object) entityRunDelayed.invokeExact(entity, plugin, consumer(task),
+                retired, Math.max(1L, delayTicks));
+            // Folia returns null without calling the retired callback if the entity is already gone
+            if (foliaTask == null && retired != null) {
+                retired.run();
+            }
+            return wrap(foliaTask);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+    
+    @Override
+    public ScheduledTask runForEntityTimer(Plugin plugin, Entity entity, Runnable task, long delayTicks, long periodTicks) {
+        try {
+            return wrap((Object) entityRunAtFixedRate.invokeExact(entity, plugin, consumer(task),
+                (Runnable) null, Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+    
+    private static Consumer<Object> consumer(Runnable task) {
+        return ignored -> task.run();
+    }
+    
+    /**
+     * Wraps a Folia task handle. The entity scheduler returns null once the entity is removed.
+     */
+    private ScheduledTask wrap(Object foliaTask) {
+        if (foliaTask == null) {
+            return ScheduledTask.CANCELLED;
+        }
+        
+        return new ScheduledTask() {
+            @Override
+            public void cancel() {
+                try {
+                    taskCancel.invokeExact(foliaTask);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+            
+            @Override
+            public boolean isCancelled() {
+                try {
+                    return (boolean) taskIsCancelled.invokeExact(foliaTask);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+        };
+    }
+    
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,33 @@
+package io.mckenz.firstspawn.util.scheduler;
+
+/**
+ * Handle to a task scheduled through a {@link TaskScheduler}
+ */
+public interface ScheduledTask {
+    
+    /**
+     * A task handle that is already cancelled, returned when a task could not be scheduled
+     */
+    ScheduledTask CANCELLED = new ScheduledTask() {
+        @Override
+        public void cancel() {
+        }
+        
+        @Override
+        public boolean isCancelled() {
+            return true;
+        }
+    };
+    
+    /**
+     * Cancels the task. Repeating tasks will not run again.
+     */
+    void cancel();
+    
+    /**
+     * Checks if the task has been cancelled
+     * 
+     * @return True if cancelled, false otherwise
+     */
+    boolean isCancelled();
+}
@@ -0,0 +1,100 @@
+package io.mckenz.firstspawn.util.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Platform-independent task scheduler
+ * Implementations map these calls onto the Bukkit scheduler, Folia's region schedulers,
+ * or a virtual clock for tests
+ */
+public interface TaskScheduler {
+    
+    /**
+     * Checks if tasks are dispatched to Folia's region schedulers
+     * 
+     * @return True if running on Folia, false otherwise
+     */
+    boolean isFolia();
+    
+    /**
+     * Runs a task off the server thread
+     * 
+     * @param plugin The plugin instance
+     * @param task The task to run
+     * @return The scheduled task
+     */
+    ScheduledTask runAsync(Plugin plugin, Runnable task);
+    
+    /**
+     * Runs a task on the global region (the main thread outside Folia) after a delay
+     * 
+     * @param plugin The plugin instance
+     * @param task The task to run
+     * @param delayTicks The delay in ticks
+     * @return The scheduled task
+     */
+    ScheduledTask runGlobal(Plugin plugin, Runnable task, long delayTicks);
+    
+    /**
+     * Runs a task repeatedly on the global region (the main thread outside Folia)
+     * 
+     * @param plugin The plugin instance
+     * @param task The task to run
+     * @param delayTicks The delay before the first run in ticks
+     * @param periodTicks The period between runs in ticks
+     * @return The scheduled task
+     */
+    ScheduledTask runGlobalTimer(Plugin plugin, Runnable task, long delayTicks, long periodTicks);
+    
+    /**
+     * Runs a task on the region owning a location
+     * 
+     * @param plugin The plugin instance
+     * @param location The location
+     * @param task The task to run
+     * @return The scheduled task
+     */
+    ScheduledTask runAtLocation(Plugin plugin, Location location, Runnable task);
+    
+    /**
+     * Runs a task on the region owning an entity after a delay
+     * The task is skipped if the entity is removed before it runs
+     * 
+     * @param plugin The plugin instance
+     * @param entity The entity
+     * @param task The task to run
+     * @param delayTicks The delay in ticks
+     * @return The scheduled task
+     */
+    default ScheduledTask runForEntity(Plugin plugin, Entity entity, Runnable task, long delayTicks) {
+        return runForEntity(plugin, entity, task, null, delayTicks);
+    }
+    
+    /**
+     * Runs a task on the region owning an entity after a delay, or a fallback if the entity
+     * is removed first, so callers waiting on the task always hear back
+     * 
+     * @param plugin The plugin instance
+     * @param entity The entity
+     * @param task The task to run
+     * @param retired The task to run instead if the entity is removed, may be null
+     * @param delayTicks The delay in ticks
+     * @return The scheduled task
+     */
+    ScheduledTask runForEntity(Plugin plugin, Entity entity, Runnable task, Runnable retired, long delayTicks);
+    
+    /**
+     * Runs a task repeatedly on the region owning an entity
+     * The task stops once the entity is removed
+     * 
+     * @param plugin The plugin instance
+     * @param entity The entity
+     * @param task The task to run
+     * @param delayTicks The delay before the first run in ticks
+     * @param periodTicks The period between runs in ticks
+     * @return The scheduled task
+     */
+    ScheduledTask runForEntityTimer(Plugin plugin, Entity entity, Runnable task, long delayTicks, long periodTicks);
+}
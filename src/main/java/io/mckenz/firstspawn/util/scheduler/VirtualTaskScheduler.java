@@ -0,0 +1,195 @@
+package io.mckenz.firstspawn.util.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.PriorityQueue;
+
+/**
+ * Deterministic task scheduler driven by a virtual clock
+ * Nothing runs until {@link #tick()} or {@link #advance(long)} is called, and tasks always run
+ * on the calling thread in order of due tick and then submission order. Async tasks are treated
+ * as due on the current tick. This lets scheduling behaviour be tested without a server.
+ */
+public class VirtualTaskScheduler implements TaskScheduler {
+    
+    private final PriorityQueue<VirtualTask> queue = new PriorityQueue<>();
+    private final boolean folia;
+    private long currentTick;
+    private long sequence;
+    
+    /**
+     * Creates a new VirtualTaskScheduler that reports itself as a Bukkit scheduler
+     */
+    public VirtualTaskScheduler() {
+        this(false);
+    }
+    
+    /**
+     * Creates a new VirtualTaskScheduler
+     * 
+     * @param folia Whether {@link #isFolia()} should report Folia, to exercise Folia code paths
+     */
+    public VirtualTaskScheduler(boolean folia) {
+        this.folia = folia;
+    }
+    
+    /**
+     * Gets the current virtual tick
+     * 
+     * @return The number of ticks advanced so far
+     */
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+    
+    /**
+     * Gets the number of tasks waiting to run, including repeating tasks
+     * 
+     * @return The number of pending tasks
+     */
+    public synchronized int getPendingCount() {
+        return queue.size();
+    }
+    
+    /**
+     * Runs every task that is due on the current tick, then advances the clock by one tick
+     * 
+     * @return The number of task executions
+     */
+    public int tick() {
+        int executed = 0;
+        while (true) {
+            VirtualTask next;
+            synchronized (this) {
+                next = queue.peek();
+                if (next == null || next.dueTick > currentTick) {
+                    currentTick++;
+                    return executed;
+                }
+                queue.poll();
+            }
+            
+            if (next.cancelled) {
+                continue;
+            }
+            if (next.entity != null && !next.entity.isValid()) {
+                next.cancelled = true;
+                if (next.retired != null) {
+                    next.retired.run();
+                    executed++;
+                }
+                continue;
+            }
+            
+            next.task.run();
+            executed++;
+            
+            if (next.periodTicks > 0 && !next.cancelled) {
+                synchronized (this) {
+                    next.dueTick = currentTick + next.periodTicks;
+                    next.order = sequence++;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Advances the clock by a number of ticks, running tasks as they become due
+     * 
+     * @param ticks The number of ticks to advance
+     * @return The number of task executions
+     */
+    public int advance(long ticks) {
+        int executed = 0;
+        for (long i = 0; i < ticks; i++) {
+            executed += tick();
+        }
+        return executed;
+    }
+    
+    @Override
+    public boolean isFolia() {
+        return folia;
+    }
+    
+    @Override
+    public ScheduledTask runAsync(Plugin plugin, Runnable task) {
+        return schedule(task, null, 0L, 0L);
+    }
+    
+    @Override
+    public ScheduledTask runGlobal(Plugin plugin, Runnable task, long delayTicks) {
+        return schedule(task, null, delayTicks, 0L);
+    }
+    
+    @Override
+    public ScheduledTask runGlobalTimer(Plugin plugin, Runnable task, long delayTicks, long periodTicks) {
+        return schedule(task, null, delayTicks, Math.max(1L, periodTicks));
+    }
+    
+    @Override
+    public ScheduledTask runAtLocation(Plugin plugin, Location location, Runnable task) {
+        return schedule(task, null, 0L, 0L);
+    }
+    
+    @Override
+    public ScheduledTask runForEntity(Plugin plugin, Entity entity, Runnable task, Runnable retired, long delayTicks) {
+        return schedule(task, entity, retired, delayTicks, 0L);
+    }
+    
+    @Override
+    public ScheduledTask runForEntityTimer(Plugin plugin, Entity entity, Runnable task, long delayTicks, long periodTicks) {
+        return schedule(task, entity, null, delayTicks, Math.max(1L, periodTicks));
+    }
+    
+    private ScheduledTask schedule(Runnable task, Entity entity, long delayTicks, long periodTicks) {
+        return schedule(task, entity, null, delayTicks, periodTicks);
+    }
+    
+    private synchronized ScheduledTask schedule(Runnable task, Entity entity, Runnable retired, long delayTicks, long periodTicks) {
+        VirtualTask scheduled = new VirtualTask(task, entity, retired, currentTick + Math.max(0L, delayTicks), sequence++, periodTicks);
+        queue.add(scheduled);
+        return scheduled;
+    }
+    
+    /**
+     * A task waiting on the virtual clock
+     */
+    private static final class VirtualTask implements ScheduledTask, Comparable<VirtualTask> {
+        private final Runnable task;
+        private final Entity entity;
+        private final Runnable retired;
+        private final long periodTicks;
+        private long dueTick;
+        private long order;
+        private volatile boolean cancelled;
+        
+        private VirtualTask(Runnable task, Entity entity, Runnable retired, long dueTick, long order, long periodTicks) {
+            this.task = task;
+            this.entity = entity;
+            this.retired = retired;
+            this.dueTick = dueTick;
+            this.order = order;
+            this.periodTicks = periodTicks;
+        }
+        
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+        
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        @Override
+        public int compareTo(VirtualTask other) {
+            int byTick = Long.compare(dueTick, other.dueTick);
+            return byTick != 0 ? byTick : Long.compare(order, other.order);
+        }
+    }
+}
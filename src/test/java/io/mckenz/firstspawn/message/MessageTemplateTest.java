@@ -0,0 +1,70 @@
+package io.mckenz.firstspawn.message;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link MessageTemplate} compilation and rendering
+ */
+class MessageTemplateTest {
+    
+    private static final MessageTemplate.Context CONTEXT = new MessageTemplate.Context("Steve", 12, "north", 345L);
+    
+    @Test
+    void nullAndEmptyMessagesCompileToEmpty() {
+        assertSame(MessageTemplate.EMPTY, MessageTemplate.compile(null));
+        assertSame(MessageTemplate.EMPTY, MessageTemplate.compile(""));
+        assertTrue(MessageTemplate.EMPTY.isEmpty());
+        assertEquals("", MessageTemplate.EMPTY.render(CONTEXT));
+    }
+    
+    @Test
+    void plainTextRendersUnchanged() {
+        MessageTemplate template = MessageTemplate.compile("Welcome to the server");
+        assertFalse(template.isEmpty());
+        assertEquals("Welcome to the server", template.render(CONTEXT));
+    }
+    
+    @Test
+    void fillsEveryPlaceholder() {
+        MessageTemplate template = MessageTemplate.compile(
+            "Hi {player}, {online} online, you are at {spawn} as player #{first_join_number}");
+        assertEquals("Hi Steve, 12 online, you are at north as player #345", template.render(CONTEXT));
+        for (MessageTemplate.Placeholder placeholder : MessageTemplate.Placeholder.values()) {
+            assertTrue(template.uses(placeholder), placeholder.name());
+        }
+    }
+    
+    @Test
+    void handlesPlaceholdersAtTheEdgesAndSideBySide() {
+        assertEquals("Steve", MessageTemplate.compile("{player}").render(CONTEXT));
+        assertEquals("Steve12!", MessageTemplate.compile("{player}{online}!").render(CONTEXT));
+        assertEquals("Steve and Steve", MessageTemplate.compile("{player} and {player}").render(CONTEXT));
+    }
+    
+    @Test
+    void leavesUnknownBracesAlone() {
+        MessageTemplate template = MessageTemplate.compile("{unknown} {{player}} {player");
+        assertEquals("{unknown} {Steve} {player", template.render(CONTEXT));
+        assertTrue(template.uses(MessageTemplate.Placeholder.PLAYER));
+        assertFalse(template.uses(MessageTemplate.Placeholder.SPAWN));
+    }
+    
+    @Test
+    void translatesColorCodesOnCompile() {
+        MessageTemplate template = MessageTemplate.compile("&aWelcome &l{player}&r!");
+        assertEquals("\u00A7aWelcome \u00A7lSteve\u00A7r!", template.render(CONTEXT));
+        assertEquals("&aWelcome &l{player}&r!", template.getSource());
+    }
+    
+    @Test
+    void rendersFreshValuesEachTime() {
+        MessageTemplate template = MessageTemplate.compile("{player} is #{first_join_number}");
+        assertEquals("Steve is #345", template.render(CONTEXT));
+        assertEquals("Alex is #346", template.render(new MessageTemplate.Context("Alex", 13, "north", 346L)));
+    }
+}
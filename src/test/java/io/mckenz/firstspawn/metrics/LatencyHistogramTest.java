@@ -0,0 +1,123 @@
+package io.mckenz.firstspawn.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link LatencyHistogram}'s bucket math, percentiles and cumulative counts
+ */
+class LatencyHistogramTest {
+    
+    @Test
+    void smallValuesHaveExactBuckets() {
+        for (long value = 0; value < 32; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertEquals(value, index);
+            assertEquals(value, LatencyHistogram.bucketUpperBound(index));
+        }
+    }
+    
+    @Test
+    void bucketsAreContiguousAndIncreasing() {
+        long previousUpper = -1;
+        for (int index = 0; index < 32 * 33; index++) {
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper > previousUpper, "bucket " + index + " does not increase");
+            // The first value of each bucket lands in that bucket
+            assertEquals(index, LatencyHistogram.bucketIndex(previousUpper + 1));
+            assertEquals(index, LatencyHistogram.bucketIndex(upper));
+            previousUpper = upper;
+        }
+    }
+    
+    @Test
+    void bucketsAreWithinThreePercent() {
+        long[] values = {32, 33, 63, 64, 100, 999, 1_000, 12_345, 1_000_000, 987_654_321, 100_000_000_000L};
+        for (long value : values) {
+            long upper = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+            assertTrue(upper >= value, value + " is above its bucket");
+            assertTrue(upper - value <= value / 32, value + " reported as " + upper);
+        }
+    }
+    
+    @Test
+    void powerOfTwoBoundaries() {
+        assertEquals(32, LatencyHistogram.bucketIndex(32));
+        assertEquals(63, LatencyHistogram.bucketIndex(63));
+        assertEquals(64, LatencyHistogram.bucketIndex(64));
+        assertEquals(64, LatencyHistogram.bucketIndex(65));
+        assertEquals(65, LatencyHistogram.bucketIndex(66));
+        assertEquals(65L, LatencyHistogram.bucketUpperBound(64));
+    }
+    
+    @Test
+    void recordsCountSumAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(20);
+        histogram.record(-5);
+        
+        assertEquals(3, histogram.getCount());
+        assertEquals(30, histogram.getSum());
+        assertEquals(20, histogram.getMax());
+    }
+    
+    @Test
+    void clampsValuesPastTheLargestBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        
+        long clamped = (1L << 37) - 1;
+        assertEquals(clamped, histogram.getMax());
+        assertEquals(clamped, histogram.getPercentile(100));
+    }
+    
+    @Test
+    void percentilesReportBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value * 1_000L);
+        }
+        
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 50_000 && median <= 50_000 + 50_000 / 32, "median " + median);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 99_000 && p99 <= 99_000 + 99_000 / 32, "p99 " + p99);
+        // Never above the largest recorded value
+        assertEquals(100_000, histogram.getPercentile(100));
+        long min = histogram.getPercentile(0);
+        assertTrue(min >= 1_000 && min <= 1_000 + 1_000 / 32, "p0 " + min);
+    }
+    
+    @Test
+    void cumulativeCountsAreExactAtBucketBoundaries() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5);
+        histogram.record(31);
+        histogram.record(64);
+        histogram.record(65);
+        histogram.record(1_000);
+        
+        long[] bounds = {4, 5, 31, 64, 65, 999, 2_000};
+        assertArrayEquals(new long[] {0, 1, 2, 2, 4, 4, 5}, histogram.getCumulativeCounts(bounds));
+        assertArrayEquals(new long[] {5}, histogram.getCumulativeCounts(new long[] {Long.MAX_VALUE}));
+    }
+    
+    @Test
+    void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.reset();
+        
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(99));
+        assertArrayEquals(new long[] {0}, histogram.getCumulativeCounts(new long[] {Long.MAX_VALUE}));
+    }
+}
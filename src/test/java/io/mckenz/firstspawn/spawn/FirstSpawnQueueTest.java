@@ -0,0 +1,174 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.util.SchedulerUtil;
+import io.mckenz.firstspawn.util.TickMonitor;
+import io.mckenz.firstspawn.util.scheduler.VirtualTaskScheduler;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link FirstSpawnQueue}'s token bucket: refill per tick, the burst cap,
+ * and how admitted first spawns are dispatched on Bukkit and on Folia
+ */
+class FirstSpawnQueueTest {
+    
+    private VirtualTaskScheduler scheduler;
+    private FirstSpawnQueue queue;
+    
+    @AfterEach
+    void shutdown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+        SchedulerUtil.setScheduler(null);
+    }
+    
+    @Test
+    void refillsTheBudgetEachTick() {
+        start(false, 2.0, 4.0);
+        AtomicInteger admitted = new AtomicInteger();
+        Player player = player(new AtomicBoolean(true));
+        for (int i = 0; i < 6; i++) {
+            queue.submit(player, admitted::incrementAndGet);
+        }
+        // The bucket starts empty
+        assertEquals(0, admitted.get());
+        assertEquals(6, queue.getQueueDepth());
+        
+        scheduler.tick();
+        assertEquals(2, admitted.get());
+        scheduler.tick();
+        assertEquals(4, admitted.get());
+        scheduler.tick();
+        assertEquals(6, admitted.get());
+        assertEquals(0, queue.getQueueDepth());
+    }
+    
+    @Test
+    void accumulatesFractionalBudgets() {
+        start(false, 0.5, 4.0);
+        AtomicInteger admitted = new AtomicInteger();
+        Player player = player(new AtomicBoolean(true));
+        for (int i = 0; i < 3; i++) {
+            queue.submit(player, admitted::incrementAndGet);
+        }
+        
+        int[] expected = {0, 1, 1, 2, 2, 3};
+        for (int count : expected) {
+            scheduler.tick();
+            assertEquals(count, admitted.get());
+        }
+    }
+    
+    @Test
+    void capsSavedTokensAtTheBurst() {
+        start(false, 2.0, 3.0);
+        scheduler.advance(20L);
+        
+        AtomicInteger admitted = new AtomicInteger();
+        Player player = player(new AtomicBoolean(true));
+        for (int i = 0; i < 5; i++) {
+            queue.submit(player, admitted::incrementAndGet);
+        }
+        // Idle ticks fill the bucket up to the burst and no further
+        assertEquals(3, admitted.get());
+        assertEquals(2, queue.getQueueDepth());
+        
+        scheduler.tick();
+        assertEquals(5, admitted.get());
+    }
+    
+    @Test
+    void runsAdmittedSpawnsDuringTheDrainOnBukkit() {
+        start(false, 1.0, 1.0);
+        AtomicInteger admitted = new AtomicInteger();
+        queue.submit(player(new AtomicBoolean(true)), admitted::incrementAndGet);
+        
+        scheduler.tick();
+        assertEquals(1, admitted.get());
+    }
+    
+    @Test
+    void handsAdmittedSpawnsToThePlayersSchedulerOnFolia() {
+        start(true, 1.0, 1.0);
+        AtomicInteger admitted = new AtomicInteger();
+        queue.submit(player(new AtomicBoolean(true)), admitted::incrementAndGet);
+        
+        scheduler.tick();
+        assertEquals(0, admitted.get());
+        scheduler.tick();
+        assertEquals(1, admitted.get());
+    }
+    
+    @Test
+    void dropsPlayersWhoLeftWhileQueued() {
+        start(false, 1.0, 1.0);
+        AtomicBoolean online = new AtomicBoolean(true);
+        AtomicInteger admitted = new AtomicInteger();
+        queue.submit(player(online), admitted::incrementAndGet);
+        online.set(false);
+        
+        scheduler.tick();
+        assertEquals(0, admitted.get());
+        assertEquals(0, queue.getQueueDepth());
+    }
+    
+    @Test
+    void runsImmediatelyWhenDisabled() {
+        scheduler = new VirtualTaskScheduler();
+        SchedulerUtil.setScheduler(scheduler);
+        queue = new FirstSpawnQueue(null, new TickMonitor(plugin()));
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("admission.enabled", false);
+        queue.loadConfig(config);
+        
+        AtomicInteger admitted = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            queue.submit(player(new AtomicBoolean(true)), admitted::incrementAndGet);
+        }
+        assertEquals(10, admitted.get());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+    
+    /**
+     * Creates an enabled queue and ticks past the tick it was created on, so every later tick drains once
+     */
+    private void start(boolean folia, double perTick, double burst) {
+        scheduler = new VirtualTaskScheduler(folia);
+        SchedulerUtil.setScheduler(scheduler);
+        queue = new FirstSpawnQueue(null, new TickMonitor(plugin()));
+        
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("admission.enabled", true);
+        config.set("admission.max-per-tick", perTick);
+        config.set("admission.min-per-tick", perTick);
+        config.set("admission.burst", burst);
+        queue.loadConfig(config);
+        scheduler.tick();
+    }
+    
+    private static Plugin plugin() {
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[] {Plugin.class},
+            (proxy, method, args) -> null);
+    }
+    
+    private static Player player(AtomicBoolean online) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] {Player.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "isOnline", "isValid" -> online.get();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+}
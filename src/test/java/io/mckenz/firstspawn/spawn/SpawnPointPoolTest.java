@@ -0,0 +1,106 @@
+package io.mckenz.firstspawn.spawn;
+
+import io.mckenz.firstspawn.api.SpawnPoint;
+import io.mckenz.firstspawn.api.SpawnStrategy;
+
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link SpawnPointPool}: occupancy counts carried over when the pool is rebuilt
+ */
+class SpawnPointPoolTest {
+    
+    private static final Logger LOGGER = Logger.getLogger("SpawnPointPoolTest");
+    
+    private final World world = proxy(World.class, "world");
+    private final Server server = proxy(Server.class, world);
+    private final Player player = proxy(Player.class, UUID.randomUUID());
+    
+    @Test
+    void keepsCountsWhenReloaded() {
+        SpawnPointPool pool = new SpawnPointPool(null, LOGGER);
+        pool.load(section(false), server, null);
+        assertEquals("north", pool.select(player).getName());
+        
+        // A reload builds new SpawnPoint instances, and north is still full
+        pool.load(section(true), server, null);
+        assertEquals("south", pool.selectFrom("north").getName());
+        assertEquals("south", pool.selectFrom("NORTH").getName());
+    }
+    
+    @Test
+    void keepsCountsWhenPointsAreReplaced() {
+        SpawnPointPool pool = new SpawnPointPool(null, LOGGER);
+        pool.load(section(false), server, null);
+        pool.select(player);
+        pool.setStrategy(SpawnStrategy.LEAST_OCCUPIED);
+        
+        // Names match regardless of case
+        Location location = pool.getPoint("north").getLocation();
+        pool.setPoints(List.of(
+            new SpawnPoint("North", location, 1, 1, "south"),
+            new SpawnPoint("south", location)));
+        assertEquals("south", pool.selectFrom("north").getName());
+    }
+    
+    @Test
+    void startsNewPointsEmpty() {
+        SpawnPointPool pool = new SpawnPointPool(null, LOGGER);
+        pool.load(section(false), server, null);
+        pool.select(player);
+        
+        // Same place, different name: a new point, so its count starts at zero
+        Location location = pool.getPoint("north").getLocation();
+        pool.setPoints(List.of(
+            new SpawnPoint("west", location, 1, 1, "south"),
+            new SpawnPoint("south", location)));
+        assertEquals("west", pool.selectFrom("west").getName());
+    }
+    
+    /**
+     * Builds a spawn-points section with north, which holds one player and overflows to south,
+     * and optionally south itself
+     */
+    private static ConfigurationSection section(boolean withSouth) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("spawn-points.points.north.world", "world");
+        config.set("spawn-points.points.north.x", 0.5);
+        config.set("spawn-points.points.north.y", 64.0);
+        config.set("spawn-points.points.north.z", -200.5);
+        config.set("spawn-points.points.north.capacity", 1);
+        config.set("spawn-points.points.north.overflow", "south");
+        if (withSouth) {
+            config.set("spawn-points.points.south.world", "world");
+            config.set("spawn-points.points.south.x", 0.5);
+            config.set("spawn-points.points.south.y", 64.0);
+            config.set("spawn-points.points.south.z", 200.5);
+        }
+        return config.getConfigurationSection("spawn-points");
+    }
+    
+    /**
+     * Creates a proxy whose getters all return the given value, or null when the types do not match
+     */
+    private static <T> T proxy(Class<T> type, Object value) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> type.getSimpleName();
+                default -> method.getReturnType().isInstance(value) ? value : null;
+            }));
+    }
+}
@@ -0,0 +1,231 @@
+package io.mckenz.firstspawn.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FirstJoinLedger}: reopening, log replay after a crash and table growth
+ */
+class FirstJoinLedgerTest {
+    
+    private static final Logger LOGGER = Logger.getLogger("FirstJoinLedgerTest");
+    private static final int LOG_RECORD_SIZE = 32;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void recordsOncePerPlayer() throws IOException {
+        FirstJoinLedger ledger = new FirstJoinLedger(directory, LOGGER);
+        try {
+            UUID player = UUID.randomUUID();
+            assertFalse(ledger.contains(player));
+            assertEquals(-1L, ledger.getFirstJoinTime(player));
+            
+            assertTrue(ledger.record(player, 1_000L, "north"));
+            assertFalse(ledger.record(player, 2_000L, "south"));
+            assertTrue(ledger.contains(player));
+            assertEquals(1_000L, ledger.getFirstJoinTime(player));
+            assertEquals("north", ledger.getSpawnPoint(player));
+            assertEquals(1, ledger.size());
+        } finally {
+            ledger.close();
+        }
+    }
+    
+    @Test
+    void reopensWithEveryEntry() throws IOException {
+        UUID north = UUID.randomUUID();
+        UUID unnamed = UUID.randomUUID();
+        FirstJoinLedger ledger = new FirstJoinLedger(directory, LOGGER);
+        ledger.record(north, 10L, "North");
+        ledger.record(unnamed, 20L, null);
+        ledger.close();
+        
+        FirstJoinLedger reopened = new FirstJoinLedger(directory, LOGGER);
+        try {
+            assertEquals(2, reopened.size());
+            assertEquals(10L, reopened.getFirstJoinTime(north));
+            assertEquals("North", reopened.getSpawnPoint(north));
+            assertEquals(20L, reopened.getFirstJoinTime(unnamed));
+            assertNull(reopened.getSpawnPoint(unnamed));
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    @Test
+    void growsAndReopensAtTheNewCapacity() throws IOException {
+        List<UUID> players = players(5_000);
+        FirstJoinLedger ledger = new FirstJoinLedger(directory, LOGGER);
+        try {
+            long[] times = new long[2_500];
+            for (int i = 0; i < times.length; i++) {
+                times[i] = i;
+            }
+            assertEquals(2_500, ledger.recordAll(players.subList(0, 2_500), times));
+            assertEquals(0, ledger.recordAll(players.subList(0, 2_500), times));
+            for (int i = 2_500; i < players.size(); i++) {
+                assertTrue(ledger.record(players.get(i), i, i % 2 == 0 ? "east" : "west"));
+            }
+            
+            assertEquals(players.size(), ledger.size());
+            for (UUID player : players) {
+                assertTrue(ledger.contains(player));
+            }
+        } finally {
+            ledger.close();
+        }
+        assertTrue(Files.exists(directory.resolve("first-joins.dat.alt")));
+        
+        FirstJoinLedger reopened = new FirstJoinLedger(directory, LOGGER);
+        try {
+            assertEquals(players.size(), reopened.size());
+            for (int i = 0; i < players.size(); i++) {
+                assertEquals(i, reopened.getFirstJoinTime(players.get(i)));
+            }
+            assertNull(reopened.getSpawnPoint(players.get(0)));
+            assertEquals("east", reopened.getSpawnPoint(players.get(2_500)));
+            assertEquals("west", reopened.getSpawnPoint(players.get(4_999)));
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    @Test
+    void keepsJoinsRecordedFasterThanTheTableGrows() throws Exception {
+        List<UUID> players = players(20_000);
+        FirstJoinLedger ledger = new FirstJoinLedger(directory, LOGGER);
+        try {
+            // Several joining threads at once, so the table fills up before the writer has grown it
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                int first = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = first; i < players.size(); i += threads.length) {
+                        assertTrue(ledger.record(players.get(i), i, "north"));
+                        assertTrue(ledger.contains(players.get(i)));
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            
+            assertEquals(players.size(), ledger.size());
+            for (int i = 0; i < players.size(); i++) {
+                assertEquals(i, ledger.getFirstJoinTime(players.get(i)));
+                assertFalse(ledger.record(players.get(i), -1L, null));
+            }
+        } finally {
+            ledger.close();
+        }
+        
+        FirstJoinLedger reopened = new FirstJoinLedger(directory, LOGGER);
+        try {
+            assertEquals(players.size(), reopened.size());
+            for (int i = 0; i < players.size(); i++) {
+                assertEquals(i, reopened.getFirstJoinTime(players.get(i)));
+                assertEquals("north", reopened.getSpawnPoint(players.get(i)));
+            }
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    @Test
+    void replaysTheLogWhenTheTableIsLost() throws Exception {
+        List<UUID> players = players(100);
+        Path crashed = directory.resolve("crashed");
+        Files.createDirectories(crashed);
+        
+        FirstJoinLedger ledger = new FirstJoinLedger(directory, LOGGER);
+        try {
+            for (int i = 0; i < players.size(); i++) {
+                ledger.record(players.get(i), 1_000L + i, i < 50 ? "north" : "south");
+            }
+            // Too few records for a checkpoint, so they only live in the table and the log
+            awaitLogSize(directory.resolve("first-joins.log"), (long) players.size() * LOG_RECORD_SIZE);
+            
+            // What survives a crash before the table reached the disk
+            Files.copy(directory.resolve("first-joins.log"), crashed.resolve("first-joins.log"));
+            Files.copy(directory.resolve("first-joins.names"), crashed.resolve("first-joins.names"));
+        } finally {
+            ledger.close();
+        }
+        
+        // A torn write at the end of the log is ignored
+        Files.write(crashed.resolve("first-joins.log"), new byte[LOG_RECORD_SIZE / 2], StandardOpenOption.APPEND);
+        
+        FirstJoinLedger recovered = new FirstJoinLedger(crashed, LOGGER);
+        try {
+            assertEquals(players.size(), recovered.size());
+            for (int i = 0; i < players.size(); i++) {
+                assertEquals(1_000L + i, recovered.getFirstJoinTime(players.get(i)));
+            }
+            assertEquals("north", recovered.getSpawnPoint(players.get(0)));
+            assertEquals("south", recovered.getSpawnPoint(players.get(99)));
+            // Replayed entries were checkpointed into the table, so the log starts over
+            assertEquals(0L, Files.size(crashed.resolve("first-joins.log")));
+        } finally {
+            recovered.close();
+        }
+    }
+    
+    @Test
+    void keepsSpawnNamesApartAfterReopening() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        FirstJoinLedger ledger = new FirstJoinLedger(directory, LOGGER);
+        ledger.record(first, 1L, "alpha");
+        ledger.close();
+        
+        FirstJoinLedger reopened = new FirstJoinLedger(directory, LOGGER);
+        reopened.record(second, 2L, "beta");
+        reopened.close();
+        
+        FirstJoinLedger again = new FirstJoinLedger(directory, LOGGER);
+        try {
+            assertEquals("alpha", again.getSpawnPoint(first));
+            assertEquals("beta", again.getSpawnPoint(second));
+        } finally {
+            again.close();
+        }
+    }
+    
+    private static List<UUID> players(int count) {
+        List<UUID> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new UUID(0x5EED_0000_0000_0000L + i * 7_919L, ~i));
+        }
+        return players;
+    }
+    
+    /**
+     * Waits for the ledger's writer thread to append the expected number of log bytes
+     */
+    private static void awaitLogSize(Path log, long expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (Files.size(log) < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("log holds " + Files.size(log) + " bytes, expected " + expected);
+            }
+            Thread.sleep(10L);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package io.mckenz.firstspawn.util.scheduler;
+
+import io.mckenz.firstspawn.util.SchedulerUtil;
+
+import org.bukkit.entity.Entity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link VirtualTaskScheduler}: due-tick ordering, cancellation, entity retirement,
+ * and dispatch through {@link SchedulerUtil} on a Bukkit and a Folia style scheduler
+ */
+class VirtualTaskSchedulerTest {
+    
+    @AfterEach
+    void resetScheduler() {
+        SchedulerUtil.setScheduler(null);
+    }
+    
+    @Test
+    void runsTasksByDueTickThenSubmissionOrder() {
+        VirtualTaskScheduler scheduler = new VirtualTaskScheduler();
+        List<String> ran = new ArrayList<>();
+        scheduler.runGlobal(null, () -> ran.add("late"), 3L);
+        scheduler.runGlobal(null, () -> ran.add("first"), 1L);
+        scheduler.runGlobal(null, () -> ran.add("second"), 1L);
+        scheduler.runAsync(null, () -> ran.add("now"));
+        
+        assertEquals(1, scheduler.tick());
+        assertEquals(List.of("now"), ran);
+        
+        assertEquals(2, scheduler.tick());
+        assertEquals(List.of("now", "first", "second"), ran);
+        
+        assertEquals(0, scheduler.tick());
+        assertEquals(1, scheduler.tick());
+        assertEquals(List.of("now", "first", "second", "late"), ran);
+        assertEquals(4L, scheduler.getCurrentTick());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+    
+    @Test
+    void tasksScheduledWhileTickingRunOnTheirOwnDueTick() {
+        VirtualTaskScheduler scheduler = new VirtualTaskScheduler();
+        List<Long> ranAt = new ArrayList<>();
+        scheduler.runGlobal(null, () -> {
+            ranAt.add(scheduler.getCurrentTick());
+            scheduler.runAsync(null, () -> ranAt.add(scheduler.getCurrentTick()));
+            scheduler.runGlobal(null, () -> ranAt.add(scheduler.getCurrentTick()), 2L);
+        }, 0L);
+        
+        scheduler.advance(5L);
+        assertEquals(List.of(0L, 0L, 2L), ranAt);
+    }
+    
+    @Test
+    void timersRepeatUntilCancelled() {
+        VirtualTaskScheduler scheduler = new VirtualTaskScheduler();
+        List<Long> ranAt = new ArrayList<>();
+        ScheduledTask timer = scheduler.runGlobalTimer(null, () -> ranAt.add(scheduler.getCurrentTick()), 1L, 3L);
+        
+        scheduler.advance(8L);
+        assertEquals(List.of(1L, 4L, 7L), ranAt);
+        
+        timer.cancel();
+        assertTrue(timer.isCancelled());
+        scheduler.advance(10L);
+        assertEquals(3, ranAt.size());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+    
+    @Test
+    void cancelledTasksNeverRun() {
+        VirtualTaskScheduler scheduler = new VirtualTaskScheduler();
+        AtomicBoolean ran = new AtomicBoolean();
+        ScheduledTask task = scheduler.runGlobal(null, () -> ran.set(true), 2L);
+        task.cancel();
+        
+        assertEquals(0, scheduler.advance(5L));
+        assertFalse(ran.get());
+    }
+    
+    @Test
+    void timerCanCancelItselfWhileRunning() {
+        VirtualTaskScheduler scheduler = new VirtualTaskScheduler();
+        int[] runs = new int[1];
+        ScheduledTask[] handle = new ScheduledTask[1];
+        handle[0] = scheduler.runGlobalTimer(null, () -> {
+            if (++runs[0] == 2) {
+                handle[0].cancel();
+            }
+        }, 0L, 1L);
+        
+        scheduler.advance(10L);
+        assertEquals(2, runs[0]);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+    
+    @Test
+    void removedEntitiesRetireTheirTasks() {
+        VirtualTaskScheduler scheduler = new VirtualTaskScheduler();
+        AtomicBoolean valid = new AtomicBoolean(true);
+        Entity entity = entity(valid);
+        List<String> ran = new ArrayList<>();
+        
+        scheduler.runForEntity(null, entity, () -> ran.add("task"), () -> ran.add("retired"), 2L);
+        ScheduledTask timer = scheduler.runForEntityTimer(null, entity, () -> ran.add("timer"), 1L, 1L);
+        
+        scheduler.tick();
+        scheduler.tick();
+        assertEquals(List.of("timer"), ran);
+        
+        valid.set(false);
+        scheduler.advance(3L);
+        assertEquals(List.of("timer", "retired"), ran);
+        assertTrue(timer.isCancelled());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+    
+    @Test
+    void entityTasksWithoutFallbackAreDroppedSilently() {
+        VirtualTaskScheduler scheduler = new VirtualTaskScheduler();
+        AtomicBoolean ran = new AtomicBoolean();
+        scheduler.runForEntity(null, entity(new AtomicBoolean(false)), () -> ran.set(true), 0L);
+        
+        assertEquals(0, scheduler.tick());
+        assertFalse(ran.get());
+    }
+    
+    @Test
+    void schedulerUtilDispatchesToTheInstalledScheduler() {
+        VirtualTaskScheduler bukkit = new VirtualTaskScheduler();
+        SchedulerUtil.setScheduler(bukkit);
+        assertSame(bukkit, SchedulerUtil.getScheduler());
+        assertFalse(SchedulerUtil.isFolia());
+        
+        List<String> ran = new ArrayList<>();
+        SchedulerUtil.runDelayedGlobal(null, () -> ran.add("bukkit"), 1L);
+        assertEquals(1, bukkit.getPendingCount());
+        
+        VirtualTaskScheduler folia = new VirtualTaskScheduler(true);
+        SchedulerUtil.setScheduler(folia);
+        assertTrue(SchedulerUtil.isFolia());
+        SchedulerUtil.runAtLocation(null, null, () -> ran.add("folia"));
+        assertEquals(1, folia.getPendingCount());
+        assertEquals(1, bukkit.getPendingCount());
+        
+        folia.tick();
+        bukkit.advance(2L);
+        assertEquals(List.of("folia", "bukkit"), ran);
+    }
+    
+    private static Entity entity(AtomicBoolean valid) {
+        return (Entity) Proxy.newProxyInstance(Entity.class.getClassLoader(), new Class<?>[] {Entity.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "isValid" -> valid.get();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+}